@@ -0,0 +1,69 @@
+package ch.uzh.ifi.seal.changedistiller.benchmarks;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.uzh.ifi.seal.changedistiller.ast.java.JavaCompilation;
+import ch.uzh.ifi.seal.changedistiller.ast.java.JavaCompilationUtils;
+
+/**
+ * Parses the right file of a pair with {@link JavaCompilationUtils#compile(String, String, long)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CompilationBenchmark {
+
+    @Param({"Compiler", "jEdit", "jEdit2", "ASTConverter", "AstNode", "HadoopStoreBuilderReducer"})
+    private String pair;
+
+    private String fSource;
+    private String fFileName;
+
+    @Setup
+    public void setup() {
+        fFileName = TestData.getRightPath(pair);
+        fSource = TestData.read(fFileName);
+    }
+
+    @Benchmark
+    public JavaCompilation compile() {
+        return JavaCompilationUtils.compile(fSource, fFileName, ClassFileConstants.JDK16);
+    }
+
+}
@@ -0,0 +1,91 @@
+package ch.uzh.ifi.seal.changedistiller.benchmarks;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.uzh.ifi.seal.changedistiller.distilling.FileDistiller;
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
+
+import com.google.inject.Injector;
+
+/**
+ * Distills a file pair end to end with a {@link FileDistiller}.
+ * <p>
+ * {@link #uncached()} parses both files on each invocation, {@link #cached()} takes the parsed files from the cache of
+ * parsed sources, like a history that is distilled commit by commit. Sources are passed in memory, so file system
+ * access does not disturb the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class FileDistillerBenchmark {
+
+    @Param({"Compiler", "jEdit", "jEdit2", "ASTConverter", "AstNode", "HadoopStoreBuilderReducer"})
+    private String pair;
+
+    private String fLeft;
+    private String fRight;
+    private Injector fUncached;
+    private Injector fCached;
+
+    @Setup
+    public void setup() {
+        fLeft = TestData.read(TestData.getLeftPath(pair));
+        fRight = TestData.read(TestData.getRightPath(pair));
+        fUncached = TestData.createInjector(0);
+        fCached = TestData.createInjector(4);
+    }
+
+    @Benchmark
+    public List<SourceCodeChange> uncached() {
+        return distill(fUncached);
+    }
+
+    @Benchmark
+    public List<SourceCodeChange> cached() {
+        return distill(fCached);
+    }
+
+    private List<SourceCodeChange> distill(Injector injector) {
+        FileDistiller distiller = injector.getInstance(FileDistiller.class);
+        distiller.extractClassifiedSourceCodeChanges(fLeft, TestData.getLeftPath(pair), fRight,
+                TestData.getRightPath(pair));
+        return distiller.getSourceCodeChanges();
+    }
+
+}
@@ -0,0 +1,145 @@
+package ch.uzh.ifi.seal.changedistiller.benchmarks;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.uzh.ifi.seal.changedistiller.distilling.FileDistiller;
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
+
+import com.google.inject.Injector;
+
+/**
+ * Distills pairs generated by {@link SyntheticWorkload} with a {@link FileDistiller}, to track how time and peak heap
+ * grow with the size of a class and the amount of changes.
+ * <p>
+ * Each parameter corresponds to a knob of the workload. Beside the time per distillation, the secondary result
+ * <code>peakHeapMegabytes</code> reports the highest heap usage seen during a distillation of the iteration. Sources
+ * are parsed on each invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ScalingBenchmark {
+
+    @Param({"50", "100", "200", "400"})
+    private int methods;
+
+    @Param({"2"})
+    private int depth;
+
+    @Param({"0.2"})
+    private double commentDensity;
+
+    @Param({"0.2"})
+    private double changed;
+
+    @Param({"0.05"})
+    private double moved;
+
+    @Param({"0.05"})
+    private double renamed;
+
+    private SyntheticWorkload.SourcePair fPair;
+    private Injector fInjector;
+
+    @Setup
+    public void setup() {
+        fPair = SyntheticWorkload.defaults().withMethods(methods).withDepth(depth)
+                .withCommentDensity(commentDensity).withChanges(changed, moved, renamed).generate();
+        fInjector = TestData.createInjector(0);
+    }
+
+    @Benchmark
+    public List<SourceCodeChange> distill(HeapCounters heap) {
+        FileDistiller distiller = fInjector.getInstance(FileDistiller.class);
+        distiller.extractClassifiedSourceCodeChanges(fPair.getLeft(), "Generated.java", fPair.getRight(),
+                "Generated.java");
+        heap.recordPeak();
+        return distiller.getSourceCodeChanges();
+    }
+
+    /**
+     * Peak heap usage, reported as secondary result.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounters {
+
+        private final List<MemoryPoolMXBean> fHeapPools = new ArrayList<MemoryPoolMXBean>();
+
+        /**
+         * Highest heap usage during a distillation of the current iteration.
+         */
+        public long peakHeapMegabytes;
+
+        public HeapCounters() {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    fHeapPools.add(pool);
+                }
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void resetIteration() {
+            peakHeapMegabytes = 0;
+        }
+
+        @Setup(Level.Invocation)
+        public void resetPeaks() {
+            for (MemoryPoolMXBean pool : fHeapPools) {
+                pool.resetPeakUsage();
+            }
+        }
+
+        void recordPeak() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : fHeapPools) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+            peakHeapMegabytes = Math.max(peakHeapMegabytes, peak >> 20);
+        }
+    }
+
+}
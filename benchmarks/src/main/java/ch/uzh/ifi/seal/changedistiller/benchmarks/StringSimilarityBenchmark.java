@@ -0,0 +1,134 @@
+package ch.uzh.ifi.seal.changedistiller.benchmarks;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.uzh.ifi.seal.changedistiller.ast.ASTHelperFactory;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.Node;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.LevenshteinSimilarityCalculator;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.NGramsCalculator;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.StringSimilarityCalculator;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.TokenBasedCalculator;
+
+/**
+ * Calculates the similarity of leaf values with each {@link StringSimilarityCalculator}. The values are the ones the
+ * tree matcher compares: leaves with the same label of the changed methods of the Compiler pair. Throughput is
+ * reported per calculated similarity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class StringSimilarityBenchmark {
+
+    private static final int PAIRS = 4096;
+
+    @Param({"bigrams", "levenshtein", "tokens"})
+    private String calculator;
+
+    private StringSimilarityCalculator fCalculator;
+    private String[] fLeftValues;
+    private String[] fRightValues;
+
+    @Setup
+    public void setup() {
+        fCalculator = createCalculator(calculator);
+        ASTHelperFactory factory = TestData.createInjector(4).getInstance(ASTHelperFactory.class);
+        List<String[]> pairs = new ArrayList<String[]>();
+        for (Node[] bodies : TestData.buildChangedMethodBodies(factory,
+                TestData.read(TestData.getLeftPath("Compiler")), TestData.read(TestData.getRightPath("Compiler")))) {
+            List<Node> leftLeaves = collectLeaves(bodies[0]);
+            List<Node> rightLeaves = collectLeaves(bodies[1]);
+            for (Node left : leftLeaves) {
+                for (Node right : rightLeaves) {
+                    if (left.getLabel() == right.getLabel()) {
+                        pairs.add(new String[] {left.getValue(), right.getValue()});
+                    }
+                }
+            }
+        }
+        if (pairs.isEmpty()) {
+            throw new IllegalStateException("No leaf pairs found");
+        }
+        fLeftValues = new String[PAIRS];
+        fRightValues = new String[PAIRS];
+        // spread the pairs evenly over all methods, the same way in every run
+        for (int i = 0; i < PAIRS; i++) {
+            String[] pair = pairs.get((int) ((long) i * pairs.size() / PAIRS));
+            fLeftValues[i] = pair[0];
+            fRightValues[i] = pair[1];
+        }
+    }
+
+    private static StringSimilarityCalculator createCalculator(String name) {
+        switch (name) {
+            case "bigrams":
+                return new NGramsCalculator(2);
+            case "levenshtein":
+                return new LevenshteinSimilarityCalculator();
+            case "tokens":
+                return new TokenBasedCalculator();
+            default:
+                throw new IllegalArgumentException("Unknown calculator " + name);
+        }
+    }
+
+    private static List<Node> collectLeaves(Node root) {
+        List<Node> leaves = new ArrayList<Node>();
+        for (Enumeration<?> e = root.preorderEnumeration(); e.hasMoreElements();) {
+            Node node = (Node) e.nextElement();
+            if (node.isLeaf()) {
+                leaves.add(node);
+            }
+        }
+        return leaves;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double calculateSimilarity() {
+        double sum = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            sum += fCalculator.calculateSimilarity(fLeftValues[i], fRightValues[i]);
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,76 @@
+package ch.uzh.ifi.seal.changedistiller.benchmarks;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.uzh.ifi.seal.changedistiller.ast.ASTHelperFactory;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureDiffNode;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureDifferencer;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureNode;
+
+/**
+ * Differences the structure trees of a pair with {@link StructureDifferencer#extractDifferences(StructureNode,
+ * StructureNode)}. The structure trees are built once, as the differencer does not modify them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class StructureDifferencerBenchmark {
+
+    @Param({"Compiler", "jEdit", "jEdit2", "ASTConverter", "AstNode", "HadoopStoreBuilderReducer"})
+    private String pair;
+
+    private StructureNode fLeft;
+    private StructureNode fRight;
+
+    @Setup
+    public void setup() {
+        ASTHelperFactory factory = TestData.createInjector(0).getInstance(ASTHelperFactory.class);
+        fLeft = factory.create(TestData.read(TestData.getLeftPath(pair)), "Left.java",
+                TestData.JAVA_VERSION).createStructureTree();
+        fRight = factory.create(TestData.read(TestData.getRightPath(pair)), "Right.java",
+                TestData.JAVA_VERSION).createStructureTree();
+    }
+
+    @Benchmark
+    public StructureDiffNode extractDifferences() {
+        StructureDifferencer differencer = new StructureDifferencer();
+        differencer.extractDifferences(fLeft, fRight);
+        return differencer.getDifferences();
+    }
+
+}
@@ -0,0 +1,257 @@
+package ch.uzh.ifi.seal.changedistiller.benchmarks;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generator of synthetic pairs of Java classes whose size and kind of changes are parameterized, to stress
+ * distillation beyond the sizes of the bundled test data.
+ * <p>
+ * The left class has the given number of methods, each with a body of statements nested up to the given depth and
+ * preceded by comments with the given density. The right class is derived from the left one: a share of the methods
+ * has changed statements, a share is moved to the end of the class and a share is renamed. The shares are disjoint.
+ * Generation is deterministic for a given seed, so benchmark runs are comparable.
+ * <p>
+ * Instances are immutable; the <code>with*</code> methods return modified copies.
+ */
+public final class SyntheticWorkload {
+
+    private static final int STATEMENTS_PER_BLOCK = 4;
+
+    private final int fMethods;
+    private final int fDepth;
+    private final double fCommentDensity;
+    private final double fChanged;
+    private final double fMoved;
+    private final double fRenamed;
+    private final long fSeed;
+
+    private SyntheticWorkload(int methods, int depth, double commentDensity, double changed, double moved,
+            double renamed, long seed) {
+        if ((changed + moved + renamed) > 1.0) {
+            throw new IllegalArgumentException("Shares of changed, moved and renamed methods exceed 1");
+        }
+        fMethods = methods;
+        fDepth = depth;
+        fCommentDensity = commentDensity;
+        fChanged = changed;
+        fMoved = moved;
+        fRenamed = renamed;
+        fSeed = seed;
+    }
+
+    /**
+     * Returns a workload of 100 methods with statements nested two levels deep, a comment before every fifth
+     * statement, and 20% changed, 5% moved and 5% renamed methods.
+     *
+     * @return the default workload
+     */
+    public static SyntheticWorkload defaults() {
+        return new SyntheticWorkload(100, 2, 0.2, 0.2, 0.05, 0.05, 42L);
+    }
+
+    public SyntheticWorkload withMethods(int methods) {
+        return new SyntheticWorkload(methods, fDepth, fCommentDensity, fChanged, fMoved, fRenamed, fSeed);
+    }
+
+    public SyntheticWorkload withDepth(int depth) {
+        return new SyntheticWorkload(fMethods, depth, fCommentDensity, fChanged, fMoved, fRenamed, fSeed);
+    }
+
+    /**
+     * Returns a copy of this workload with the given comment density.
+     *
+     * @param commentDensity
+     *            probability of a comment before a statement
+     * @return the modified workload
+     */
+    public SyntheticWorkload withCommentDensity(double commentDensity) {
+        return new SyntheticWorkload(fMethods, fDepth, commentDensity, fChanged, fMoved, fRenamed, fSeed);
+    }
+
+    /**
+     * Returns a copy of this workload with the given shares of changed, moved and renamed methods.
+     *
+     * @param changed
+     *            share of methods whose statements change
+     * @param moved
+     *            share of methods that move to the end of the class
+     * @param renamed
+     *            share of methods that are renamed
+     * @return the modified workload
+     */
+    public SyntheticWorkload withChanges(double changed, double moved, double renamed) {
+        return new SyntheticWorkload(fMethods, fDepth, fCommentDensity, changed, moved, renamed, fSeed);
+    }
+
+    public SyntheticWorkload withSeed(long seed) {
+        return new SyntheticWorkload(fMethods, fDepth, fCommentDensity, fChanged, fMoved, fRenamed, seed);
+    }
+
+    /**
+     * Generates the left and right class of this workload.
+     *
+     * @return the class pair
+     */
+    public SourcePair generate() {
+        List<Integer> indexes = new ArrayList<Integer>();
+        for (int i = 0; i < fMethods; i++) {
+            indexes.add(i);
+        }
+        Collections.shuffle(indexes, new Random(fSeed));
+        int changedEnd = (int) Math.round(fMethods * fChanged);
+        int movedEnd = changedEnd + (int) Math.round(fMethods * fMoved);
+        int renamedEnd = movedEnd + (int) Math.round(fMethods * fRenamed);
+        Kind[] kinds = new Kind[fMethods];
+        for (int i = 0; i < fMethods; i++) {
+            int position = indexes.indexOf(i);
+            if (position < changedEnd) {
+                kinds[i] = Kind.CHANGED;
+            } else if (position < movedEnd) {
+                kinds[i] = Kind.MOVED;
+            } else if (position < renamedEnd) {
+                kinds[i] = Kind.RENAMED;
+            } else {
+                kinds[i] = Kind.UNCHANGED;
+            }
+        }
+        return new SourcePair(generateClass(kinds, false), generateClass(kinds, true));
+    }
+
+    private String generateClass(Kind[] kinds, boolean right) {
+        StringBuilder out = new StringBuilder();
+        out.append("package synthetic;\n\n");
+        out.append("/**\n * Generated class with ").append(fMethods).append(" methods.\n */\n");
+        out.append("public class Generated {\n\n");
+        for (int i = 0; i < Math.max(1, fMethods / 10); i++) {
+            out.append("    private int fField").append(i).append(" = ").append(i).append(";\n");
+        }
+        out.append('\n');
+        List<Integer> moved = new ArrayList<Integer>();
+        for (int i = 0; i < fMethods; i++) {
+            if (right && (kinds[i] == Kind.MOVED)) {
+                moved.add(i);
+            } else {
+                appendMethod(out, i, right ? kinds[i] : Kind.UNCHANGED);
+            }
+        }
+        for (int i : moved) {
+            appendMethod(out, i, Kind.UNCHANGED);
+        }
+        out.append("    private void sink(int value) {\n        fField0 += value;\n    }\n\n");
+        out.append("    private int compute(int a, String label) {\n        return a + label.length();\n    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void appendMethod(StringBuilder out, int index, Kind kind) {
+        // each method draws from a stream of its own, so both versions of a method draw the same numbers
+        Random random = new Random(fSeed * 31 + index);
+        String name = kind == Kind.RENAMED ? "evaluate" + index : "compute" + index;
+        out.append("    /**\n     * Computes the value ").append(index).append(".\n     */\n");
+        out.append("    public int ").append(name).append("(int a, int b) {\n");
+        out.append("        int result = a;\n");
+        appendBlock(out, 2, fDepth, random, index, kind == Kind.CHANGED);
+        if (kind == Kind.CHANGED) {
+            out.append("        sink(result + ").append(index).append(");\n");
+        }
+        out.append("        return result;\n    }\n\n");
+    }
+
+    private void appendBlock(StringBuilder out, int indent, int depth, Random random, int index, boolean changed) {
+        for (int i = 0; i < STATEMENTS_PER_BLOCK; i++) {
+            int k = random.nextInt(1000);
+            boolean comment = random.nextDouble() < fCommentDensity;
+            boolean mutate = changed && (random.nextInt(4) == 0);
+            if (comment) {
+                indent(out, indent).append("// step ").append(k).append(" of value ").append(index).append('\n');
+            }
+            if ((depth > 0) && (i % 2 == 1)) {
+                switch (k % 3) {
+                    case 0:
+                        indent(out, indent).append("if (a > ").append(mutate ? k + 1 : k).append(") {\n");
+                        break;
+                    case 1:
+                        indent(out, indent).append("for (int i").append(depth).append(" = 0; i").append(depth)
+                                .append(" < b; i").append(depth).append("++) {\n");
+                        break;
+                    default:
+                        indent(out, indent).append("while (result < ").append(mutate ? k + 1 : k)
+                                .append(") {\n");
+                }
+                appendBlock(out, indent + 1, depth - 1, random, index, changed);
+                indent(out, indent).append("}\n");
+            } else {
+                switch (k % 3) {
+                    case 0:
+                        indent(out, indent).append("result += compute(").append(k).append(", \"label ")
+                                .append(mutate ? "changed " : "").append(k).append("\");\n");
+                        break;
+                    case 1:
+                        indent(out, indent).append("result = result * ").append(mutate ? k + 1 : k)
+                                .append(" + b;\n");
+                        break;
+                    default:
+                        indent(out, indent).append("sink(result").append(mutate ? " - " : " + ").append(k)
+                                .append(");\n");
+                }
+            }
+        }
+    }
+
+    private static StringBuilder indent(StringBuilder out, int indent) {
+        for (int i = 0; i < indent; i++) {
+            out.append("    ");
+        }
+        return out;
+    }
+
+    private enum Kind {
+        UNCHANGED, CHANGED, MOVED, RENAMED
+    }
+
+    /**
+     * Left and right version of a generated class.
+     */
+    public static final class SourcePair {
+
+        private final String fLeft;
+        private final String fRight;
+
+        SourcePair(String left, String right) {
+            fLeft = left;
+            fRight = right;
+        }
+
+        public String getLeft() {
+            return fLeft;
+        }
+
+        public String getRight() {
+            return fRight;
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+package ch.uzh.ifi.seal.changedistiller.benchmarks;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.uzh.ifi.seal.changedistiller.JavaChangeDistillerModule;
+import ch.uzh.ifi.seal.changedistiller.ast.ASTHelper;
+import ch.uzh.ifi.seal.changedistiller.ast.ASTHelperFactory;
+import ch.uzh.ifi.seal.changedistiller.ast.java.JavaCompilationCache;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureDiffNode;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureDifferencer;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureNode;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.Node;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.util.Modules;
+
+/**
+ * Access to the file pairs of the bundled test data the benchmarks run on.
+ * <p>
+ * The test data is read from the directory given by the system property {@value #DIRECTORY_PROPERTY}, which defaults
+ * to <code>../resources/testdata</code>, i.e., the test data of the project when the benchmarks are run from the
+ * benchmarks directory.
+ */
+public final class TestData {
+
+    /**
+     * System property with the directory of the test data.
+     */
+    public static final String DIRECTORY_PROPERTY = "changedistiller.testdata";
+
+    /**
+     * Version of Java the sources are parsed with.
+     */
+    public static final String JAVA_VERSION = "default";
+
+    private static final Map<String, String[]> PAIRS = new LinkedHashMap<String, String[]>();
+
+    static {
+        addPair("Compiler", "src_issue/2/CompilerLeft.java", "src_issue/2/CompilerRight.java");
+        addPair("jEdit", "src_issue/32/jEditLeft.java", "src_issue/32/jEditRight.java");
+        addPair("jEdit2", "src_issue/32/jEditLeft2.java", "src_issue/32/jEditRight2.java");
+        addPair("ASTConverter", "src_issue/21/ASTConverterLeft.java", "src_issue/21/ASTConverterRight.java");
+        addPair("AstNode", "src_issue/19/AstNodeLeft.java", "src_issue/19/AstNodeRight.java");
+        addPair("HadoopStoreBuilderReducer", "src_issue/8/HadoopStoreBuilderReducerLeft.java",
+                "src_issue/8/HadoopStoreBuilderReducerRight.java");
+    }
+
+    private TestData() {}
+
+    private static void addPair(String name, String left, String right) {
+        PAIRS.put(name, new String[] {left, right});
+    }
+
+    /**
+     * Returns the names of all pairs.
+     *
+     * @return the names of the pairs
+     */
+    public static List<String> getPairNames() {
+        return new ArrayList<String>(PAIRS.keySet());
+    }
+
+    /**
+     * Returns the logical path of the left file of the given pair.
+     *
+     * @param pair
+     *            name of the pair
+     * @return the path of the left file relative to the test data directory
+     */
+    public static String getLeftPath(String pair) {
+        return getPair(pair)[0];
+    }
+
+    /**
+     * Returns the logical path of the right file of the given pair.
+     *
+     * @param pair
+     *            name of the pair
+     * @return the path of the right file relative to the test data directory
+     */
+    public static String getRightPath(String pair) {
+        return getPair(pair)[1];
+    }
+
+    /**
+     * Reads a file of the test data.
+     *
+     * @param path
+     *            of the file relative to the test data directory
+     * @return the content of the file
+     */
+    public static String read(String path) {
+        Path file = Paths.get(System.getProperty(DIRECTORY_PROPERTY, "../resources/testdata"), path);
+        try {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read test data " + file.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Creates an injector for Java whose cache of parsed sources has the given capacity.
+     *
+     * @param cacheCapacity
+     *            of the cache of parsed sources; <code>0</code> parses each source on each use
+     * @return the injector
+     */
+    public static Injector createInjector(final int cacheCapacity) {
+        return Guice.createInjector(Modules.override(new JavaChangeDistillerModule()).with(
+                binder -> binder.bind(JavaCompilationCache.class).toInstance(new JavaCompilationCache(cacheCapacity))));
+    }
+
+    /**
+     * Builds the method body trees of all methods that exist in both files of the given pair and differ between
+     * them. Each call builds new trees, since matching and edit script calculation modify the trees.
+     *
+     * @param factory
+     *            to create the AST helpers with
+     * @param leftSource
+     *            content of the left file
+     * @param rightSource
+     *            content of the right file
+     * @return pairs of left and right method body trees
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Node[]> buildChangedMethodBodies(ASTHelperFactory factory, String leftSource,
+            String rightSource) {
+        ASTHelper<StructureNode> left = factory.create(leftSource, "Left.java", JAVA_VERSION);
+        ASTHelper<StructureNode> right = factory.create(rightSource, "Right.java", JAVA_VERSION);
+        StructureDifferencer differencer = new StructureDifferencer();
+        differencer.extractDifferences(left.createStructureTree(), right.createStructureTree());
+        List<Node[]> result = new ArrayList<Node[]>();
+        if (differencer.getDifferences() != null) {
+            collectChangedMethodBodies(differencer.getDifferences(), left, right, result);
+        }
+        return result;
+    }
+
+    private static void collectChangedMethodBodies(StructureDiffNode diffNode, ASTHelper<StructureNode> left,
+            ASTHelper<StructureNode> right, List<Node[]> result) {
+        if (diffNode.isMethodOrConstructorDiffNode() && (diffNode.getLeft() != null)
+                && (diffNode.getRight() != null)) {
+            Node leftBody = left.createMethodBodyTree(diffNode.getLeft());
+            Node rightBody = right.createMethodBodyTree(diffNode.getRight());
+            if ((leftBody != null) && (rightBody != null)) {
+                result.add(new Node[] {leftBody, rightBody});
+            }
+        }
+        for (StructureDiffNode child : diffNode.getChildren()) {
+            collectChangedMethodBodies(child, left, right, result);
+        }
+    }
+
+    private static String[] getPair(String name) {
+        String[] pair = PAIRS.get(name);
+        if (pair == null) {
+            throw new IllegalArgumentException("Unknown pair " + name + ", known pairs are "
+                    + Collections.unmodifiableSet(PAIRS.keySet()));
+        }
+        return pair;
+    }
+
+}
@@ -0,0 +1,100 @@
+package ch.uzh.ifi.seal.changedistiller.benchmarks;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ch.uzh.ifi.seal.changedistiller.ast.ASTHelperFactory;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.Node;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.NodeMatching;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.TreeDifferencer;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.BestLeafTreeMatcher;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.MatchingFactory;
+
+/**
+ * Matches the method body trees of all changed methods of a pair with {@link BestLeafTreeMatcher} and calculates their
+ * edit scripts with {@link TreeDifferencer}. One invocation processes all changed methods of the pair.
+ * <p>
+ * Both steps modify the trees, hence the trees are built anew before each invocation. Building them is not part of
+ * the measurement; the parsed files are cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TreeDifferencingBenchmark {
+
+    @Param({"Compiler", "jEdit", "jEdit2", "ASTConverter", "AstNode", "HadoopStoreBuilderReducer"})
+    private String pair;
+
+    private ASTHelperFactory fFactory;
+    private String fLeft;
+    private String fRight;
+    private List<Node[]> fMethodBodies;
+
+    @Setup
+    public void setup() {
+        fFactory = TestData.createInjector(4).getInstance(ASTHelperFactory.class);
+        fLeft = TestData.read(TestData.getLeftPath(pair));
+        fRight = TestData.read(TestData.getRightPath(pair));
+    }
+
+    @Setup(Level.Invocation)
+    public void buildTrees() {
+        fMethodBodies = TestData.buildChangedMethodBodies(fFactory, fLeft, fRight);
+    }
+
+    @Benchmark
+    public void match(Blackhole blackhole) {
+        for (Node[] bodies : fMethodBodies) {
+            NodeMatching matching = new NodeMatching();
+            MatchingFactory.getMatcher(matching).match(bodies[0], bodies[1]);
+            blackhole.consume(matching);
+        }
+    }
+
+    @Benchmark
+    public void calculateEditScript(Blackhole blackhole) {
+        for (Node[] bodies : fMethodBodies) {
+            TreeDifferencer differencer = new TreeDifferencer();
+            differencer.calculateEditScript(bodies[0], bodies[1]);
+            blackhole.consume(differencer.getEditScript());
+        }
+    }
+
+}
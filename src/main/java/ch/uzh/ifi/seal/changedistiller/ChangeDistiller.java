@@ -21,6 +21,8 @@ package ch.uzh.ifi.seal.changedistiller;
  */
 
 
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillationEngine;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillerOptions;
 import ch.uzh.ifi.seal.changedistiller.distilling.FileDistiller;
 
 import com.google.inject.Guice;
@@ -28,6 +30,9 @@ import com.google.inject.Injector;
 
 /**
  * Factory for creating the {@link FileDistiller} for a particular {@link Language}.
+ * <p>
+ * The injector of each language is created once per JVM, on first use, and shared by all distillers created
+ * afterwards.
  * 
  * @author Beat Fluri
  */
@@ -45,8 +50,55 @@ public final class ChangeDistiller {
     public static FileDistiller createFileDistiller(Language language) {
         switch (language) {
             case JAVA:
-                Injector injector = Guice.createInjector(new JavaChangeDistillerModule());
-                return injector.getInstance(FileDistiller.class);
+                return JavaInjector.INSTANCE.getInstance(FileDistiller.class);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the {@link DistillationEngine} for the given language. The engine is shared and may be used by many
+     * threads at once.
+     * 
+     * @param language
+     *            for which the distillation engine should be returned
+     * @return the distillation engine for the given language
+     */
+    public static DistillationEngine getDistillationEngine(Language language) {
+        switch (language) {
+            case JAVA:
+                return JavaInjector.ENGINE;
+        }
+        return null;
+    }
+
+    /**
+     * Creates a {@link DistillationEngine} for the given language with the {@link DistillerOptions#defaults() default
+     * options}. Unlike {@link #getDistillationEngine(Language)}, each call creates a new injector, hence the engine
+     * should be created once and shared.
+     * 
+     * @param language
+     *            for which the distillation engine should be created
+     * @return the distillation engine for the given language
+     */
+    public static DistillationEngine createDistillationEngine(Language language) {
+        return createDistillationEngine(language, DistillerOptions.defaults());
+    }
+
+    /**
+     * Creates a {@link DistillationEngine} for the given language like {@link #createDistillationEngine(Language)},
+     * configured by the given options.
+     * 
+     * @param language
+     *            for which the distillation engine should be created
+     * @param options
+     *            of the distillers used by the engine
+     * @return the distillation engine for the given language
+     */
+    public static DistillationEngine createDistillationEngine(Language language, DistillerOptions options) {
+        switch (language) {
+            case JAVA:
+                return Guice.createInjector(new JavaChangeDistillerModule(options)).getInstance(
+                        DistillationEngine.class);
         }
         return null;
     }
@@ -55,6 +107,17 @@ public final class ChangeDistiller {
         return Language.values();
     }
 
+    /**
+     * Holds the injector for Java, which is created when the holder class is initialized.
+     */
+    private static final class JavaInjector {
+
+        private static final Injector INSTANCE = Guice.createInjector(new JavaChangeDistillerModule());
+        private static final DistillationEngine ENGINE = INSTANCE.getInstance(DistillationEngine.class);
+
+        private JavaInjector() {}
+    }
+
     /**
      * Programming languages that ChangeDistiller can handle.
      * 
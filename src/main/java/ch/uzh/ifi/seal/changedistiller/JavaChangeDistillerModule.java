@@ -26,11 +26,17 @@ import ch.uzh.ifi.seal.changedistiller.ast.ASTHelperFactory;
 import ch.uzh.ifi.seal.changedistiller.ast.ASTNodeTypeConverter;
 import ch.uzh.ifi.seal.changedistiller.ast.java.JavaASTHelper;
 import ch.uzh.ifi.seal.changedistiller.ast.java.JavaASTNodeTypeConverter;
+import ch.uzh.ifi.seal.changedistiller.ast.java.JavaCompilationCache;
 import ch.uzh.ifi.seal.changedistiller.ast.java.JavaSourceCodeChangeClassifier;
+import ch.uzh.ifi.seal.changedistiller.ast.java.NodeValueStyle;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillationEngine;
 import ch.uzh.ifi.seal.changedistiller.distilling.DistillerFactory;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillerOptions;
 import ch.uzh.ifi.seal.changedistiller.distilling.SourceCodeChangeClassifier;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Singleton;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
 
 /**
@@ -40,10 +46,35 @@ import com.google.inject.assistedinject.FactoryModuleBuilder;
  */
 public class JavaChangeDistillerModule extends AbstractModule {
 
+    private final DistillerOptions fOptions;
+
+    /**
+     * Creates a new module with the {@link DistillerOptions#defaults() default options}.
+     */
+    public JavaChangeDistillerModule() {
+        this(DistillerOptions.defaults());
+    }
+
+    /**
+     * Creates a new module.
+     * 
+     * @param options
+     *            of the distillers created by the injector
+     */
+    public JavaChangeDistillerModule(DistillerOptions options) {
+        fOptions = options;
+    }
+
     @Override
     protected void configure() {    	
+        bind(DistillerOptions.class).toInstance(fOptions);
+        // single options needed outside of the distilling package
+        bind(DistillerMetrics.class).toInstance(fOptions.getMetrics());
+        bind(NodeValueStyle.class).toInstance(fOptions.getValueStyle());
         bind(ASTNodeTypeConverter.class).to(JavaASTNodeTypeConverter.class);
         bind(SourceCodeChangeClassifier.class).to(JavaSourceCodeChangeClassifier.class);
+        bind(JavaCompilationCache.class).in(Singleton.class);
+        bind(DistillationEngine.class).in(Singleton.class);
         install(new FactoryModuleBuilder().build(DistillerFactory.class));
         install(new FactoryModuleBuilder().implement(ASTHelper.class, JavaASTHelper.class)
                 .build(ASTHelperFactory.class));
@@ -0,0 +1,176 @@
+package ch.uzh.ifi.seal.changedistiller.api;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2021 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillationEngine;
+
+/**
+ * Distills the {@link FilePair}s of a batch on a bounded pool of worker
+ * threads.
+ * <p>
+ * The workers take the pairs one by one from a shared cursor, so no task is
+ * queued per pair. Each pair is distilled in isolation: a failure is recorded
+ * for that pair and the worker continues with the next one. Pairs that are
+ * left when the workers are interrupted are recorded as failed with an
+ * {@link InterruptedException}. Results are stored by the index of their
+ * pair, hence the assembled {@link ChangeSummariesList} lists the files in the
+ * order of the batch.
+ * <p>
+ * Pairs are handed out largest first. The cost of distilling a pair grows with
+ * the size of its sources, and a large pair that starts last keeps one worker
+ * busy while the others are idle. Starting with the largest pairs leaves the
+ * small ones to fill the gaps at the end of the batch, as a worker that is
+ * done takes the next pair from the cursor instead of waiting for a share
+ * assigned up front.
+ */
+final class BatchExtraction {
+
+    private final DistillationEngine engine;
+
+    private final FilePair[]         pairs;
+
+    private final ChangeSummary[]    summaries;
+
+    private final Exception[]        failures;
+
+    private final int[]              schedule;
+
+    private final AtomicInteger      cursor = new AtomicInteger();
+
+    BatchExtraction ( final DistillationEngine engine, final Collection<FilePair> pairs ) {
+        this.engine = engine;
+        this.pairs = pairs.toArray( new FilePair[pairs.size()] );
+        this.summaries = new ChangeSummary[this.pairs.length];
+        this.failures = new Exception[this.pairs.length];
+        final long[] costs = new long[this.pairs.length];
+        for ( int i = 0; i < costs.length; i++ ) {
+            costs[i] = estimateCost( this.pairs[i] );
+        }
+        this.schedule = largestFirst( costs );
+    }
+
+    /**
+     * Estimates the cost of distilling the given pair by the total length of
+     * its sources. Missing files count as empty.
+     *
+     * @param pair
+     *            to estimate the cost of
+     * @return the estimated cost
+     */
+    static long estimateCost ( final FilePair pair ) {
+        if ( pair.isInMemory() ) {
+            return length( pair.getOldSource() ) + length( pair.getNewSource() );
+        }
+        return new File( pair.getOldPath() ).length() + new File( pair.getNewPath() ).length();
+    }
+
+    private static long length ( final CharSequence source ) {
+        return source != null ? source.length() : 0;
+    }
+
+    /**
+     * Returns the indexes of the given costs ordered by decreasing cost. Equal
+     * costs keep the order of their indexes.
+     *
+     * @param costs
+     *            to order
+     * @return the indexes in the order to process them
+     */
+    static int[] largestFirst ( final long[] costs ) {
+        final Integer[] order = new Integer[costs.length];
+        for ( int i = 0; i < order.length; i++ ) {
+            order[i] = i;
+        }
+        Arrays.sort( order, ( a, b ) -> Long.compare( costs[b], costs[a] ) );
+        final int[] schedule = new int[order.length];
+        for ( int i = 0; i < order.length; i++ ) {
+            schedule[i] = order[i];
+        }
+        return schedule;
+    }
+
+    ChangeSummariesList run ( final BatchOptions options ) {
+        final int threads = Math.min( options.getThreads(), pairs.length );
+        if ( threads <= 1 ) {
+            work( options.getResultCache() );
+        }
+        else {
+            runOnPool( threads, options.getResultCache() );
+        }
+        final List<ChangeSummary> distilled = new ArrayList<ChangeSummary>( pairs.length );
+        final List<PairFailure> failed = new ArrayList<PairFailure>();
+        for ( int i = 0; i < pairs.length; i++ ) {
+            if ( ( summaries[i] == null ) && ( failures[i] == null ) ) {
+                failures[i] = new InterruptedException( "Interrupted before the pair was distilled" );
+            }
+            if ( failures[i] != null ) {
+                failed.add( new PairFailure( pairs[i], failures[i] ) );
+            }
+            else {
+                distilled.add( summaries[i] );
+            }
+        }
+        return new ChangeSummariesList( distilled, failed );
+    }
+
+    private void runOnPool ( final int threads, final ResultCache resultCache ) {
+        final ExecutorService pool = Executors.newFixedThreadPool( threads );
+        try {
+            final List<Future<?>> workers = new ArrayList<Future<?>>( threads );
+            for ( int i = 0; i < threads; i++ ) {
+                workers.add( pool.submit( () -> work( resultCache ) ) );
+            }
+            for ( final Future<?> worker : workers ) {
+                worker.get();
+            }
+        }
+        catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while distilling batch", e );
+        }
+        catch ( final ExecutionException e ) {
+            if ( e.getCause() instanceof Error ) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException( e.getCause() );
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void work ( final ResultCache resultCache ) {
+        int next;
+        while ( !Thread.currentThread().isInterrupted() && ( ( next = cursor.getAndIncrement() ) < schedule.length ) ) {
+            final int i = schedule[next];
+            try {
+                summaries[i] = ChangeExtractor.extractChanges( engine, pairs[i], resultCache );
+            }
+            catch ( final Exception e ) {
+                failures[i] = e;
+            }
+        }
+    }
+
+}
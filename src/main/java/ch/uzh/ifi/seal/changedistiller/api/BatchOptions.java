@@ -0,0 +1,77 @@
+package ch.uzh.ifi.seal.changedistiller.api;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2021 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+/**
+ * Options of a batch extraction. Instances are immutable; the
+ * <code>with*</code> methods return modified copies.
+ *
+ * @see ChangeExtractor#extractBatch(java.util.Collection, BatchOptions)
+ */
+public final class BatchOptions {
+
+    private final int         threads;
+
+    private final ResultCache resultCache;
+
+    private BatchOptions ( final int threads, final ResultCache resultCache ) {
+        this.threads = threads;
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Returns the default options, which distill on one thread per available
+     * processor.
+     *
+     * @return the default options
+     */
+    public static BatchOptions defaults () {
+        return new BatchOptions( Runtime.getRuntime().availableProcessors(), null );
+    }
+
+    /**
+     * Returns a copy of these options with the given number of worker threads.
+     *
+     * @param threads
+     *            maximal number of pairs distilled concurrently
+     * @return the modified options
+     */
+    public BatchOptions withThreads ( final int threads ) {
+        if ( threads < 1 ) {
+            throw new IllegalArgumentException( "Number of threads must be positive: " + threads );
+        }
+        return new BatchOptions( threads, resultCache );
+    }
+
+    /**
+     * Returns a copy of these options with the given cache of results. Pairs
+     * whose result is cached are not distilled, and the results of distilled
+     * pairs are added to the cache.
+     *
+     * @param resultCache
+     *            cache of results, or <code>null</code> to distill all pairs
+     * @return the modified options
+     */
+    public BatchOptions withResultCache ( final ResultCache resultCache ) {
+        return new BatchOptions( threads, resultCache );
+    }
+
+    public int getThreads () {
+        return threads;
+    }
+
+    public ResultCache getResultCache () {
+        return resultCache;
+    }
+
+}
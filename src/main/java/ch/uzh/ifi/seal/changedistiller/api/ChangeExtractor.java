@@ -14,13 +14,16 @@ package ch.uzh.ifi.seal.changedistiller.api;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import ch.uzh.ifi.seal.changedistiller.ChangeDistiller;
 import ch.uzh.ifi.seal.changedistiller.ChangeDistiller.Language;
-import ch.uzh.ifi.seal.changedistiller.distilling.FileDistiller;
+import ch.uzh.ifi.seal.changedistiller.ast.FileUtils;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillationEngine;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillationResult;
 import ch.uzh.ifi.seal.changedistiller.model.classifiers.EntityType;
 import ch.uzh.ifi.seal.changedistiller.model.classifiers.java.JavaEntityType;
 import ch.uzh.ifi.seal.changedistiller.model.entities.Delete;
@@ -35,22 +38,139 @@ import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
  */
 public class ChangeExtractor {
 
+    /* version of Java the engine distills pairs with if none is given */
+    private static final String DEFAULT_VERSION = "default";
+
     static public ChangeSummary extractChanges ( final String oldFile, final String newFile ) {
+        return extractChanges( new FilePair( oldFile, newFile ), null );
+    }
+
+    /**
+     * Extracts the changes between two versions of a file held in memory,
+     * e.g., blob contents read from a repository. Nothing is read from or
+     * written to the file system.
+     *
+     * @param oldSource
+     *            content of the old version
+     * @param oldPath
+     *            logical path of the old version
+     * @param newSource
+     *            content of the new version
+     * @param newPath
+     *            logical path of the new version, used to name the summary
+     * @return the summary of the changes, or <code>null</code> if distilling
+     *         failed
+     */
+    static public ChangeSummary extractChanges ( final CharSequence oldSource, final String oldPath,
+            final CharSequence newSource, final String newPath ) {
+        return extractChanges( new FilePair( oldSource, oldPath, newSource, newPath ), null );
+    }
 
-        final File left = new File( oldFile );
-        final File right = new File( newFile );
+    /**
+     * Extracts the changes between two versions of a file held in memory,
+     * like {@link #extractChanges(CharSequence, String, CharSequence, String)}
+     * does. The changes are looked up in the given cache first; if they are
+     * not cached, they are distilled and added to the cache.
+     *
+     * @param oldSource
+     *            content of the old version
+     * @param oldPath
+     *            logical path of the old version
+     * @param newSource
+     *            content of the new version
+     * @param newPath
+     *            logical path of the new version, used to name the summary
+     * @param resultCache
+     *            cache of the changes of pairs of versions
+     * @return the summary of the changes, or <code>null</code> if distilling
+     *         failed
+     */
+    static public ChangeSummary extractChanges ( final CharSequence oldSource, final String oldPath,
+            final CharSequence newSource, final String newPath, final ResultCache resultCache ) {
+        return extractChanges( new FilePair( oldSource, oldPath, newSource, newPath ), resultCache );
+    }
 
-        final FileDistiller distiller = ChangeDistiller.createFileDistiller( Language.JAVA );
+    private static ChangeSummary extractChanges ( final FilePair pair, final ResultCache resultCache ) {
         try {
-            distiller.extractClassifiedSourceCodeChanges( left, right, true );
+            return extractChanges( ChangeDistiller.getDistillationEngine( Language.JAVA ), pair, resultCache );
         }
         catch ( final Exception e ) {
             System.err.println( "Warning: error while change distilling. " + e.getMessage() );
             e.printStackTrace();
             return null;
         }
+    }
+
+    /**
+     * Extracts the changes of a batch of file pairs. The pairs are distilled
+     * concurrently on a pool of worker threads that is bounded by the
+     * {@link BatchOptions} and shut down when the batch is done. A pair that
+     * cannot be distilled is reported as a {@link PairFailure} and does not
+     * affect the other pairs of the batch.
+     *
+     * @param pairs
+     *            to extract the changes of
+     * @param options
+     *            of the extraction
+     * @return the summaries of the distilled pairs, in the order of the batch,
+     *         together with the failed pairs
+     */
+    static public ChangeSummariesList extractBatch ( final Collection<FilePair> pairs, final BatchOptions options ) {
+        return new BatchExtraction( ChangeDistiller.getDistillationEngine( Language.JAVA ), pairs ).run( options );
+    }
+
+    static ChangeSummary extractChanges ( final DistillationEngine engine, final FilePair pair,
+            final ResultCache resultCache ) {
+        final ResultKey key = resultCache != null ? createKey( engine, pair ) : null;
+        if ( key == null ) {
+            return summarize( distill( engine, pair ), pair.getNewPath() );
+        }
+        List<SourceCodeChange> changes = resultCache.get( key );
+        if ( changes == null ) {
+            changes = distill( engine, pair );
+            resultCache.put( key, changes );
+        }
+        return summarize( changes, pair.getNewPath() );
+    }
+
+    private static List<SourceCodeChange> distill ( final DistillationEngine engine, final FilePair pair ) {
+        final DistillationResult result;
+        if ( pair.isInMemory() ) {
+            result = engine.distill( pair.getOldSource(), pair.getOldPath(), pair.getNewSource(), pair.getNewPath() );
+        }
+        else {
+            result = engine.distill( new File( pair.getOldPath() ), new File( pair.getNewPath() ) );
+        }
+        return result.getSourceCodeChanges();
+    }
+
+    /**
+     * Creates the key of the result of the given pair. Files are read to hash
+     * their contents; a pair whose new file does not exist has no key and is
+     * not cached.
+     *
+     * @param engine
+     *            distilling the pair
+     * @param pair
+     *            to create the key for
+     * @return the key, or <code>null</code> if the pair cannot be cached
+     */
+    private static ResultKey createKey ( final DistillationEngine engine, final FilePair pair ) {
+        if ( pair.isInMemory() ) {
+            return ResultKey.of( pair.getOldSource(), pair.getNewSource(), DEFAULT_VERSION,
+                    engine.getConfiguration() );
+        }
+        final File oldFile = new File( pair.getOldPath() );
+        final File newFile = new File( pair.getNewPath() );
+        if ( !newFile.exists() ) {
+            return null;
+        }
+        return ResultKey.of( oldFile.exists() ? FileUtils.getContent( oldFile ) : null,
+                FileUtils.getContent( newFile ), DEFAULT_VERSION, engine.getConfiguration() );
+    }
 
-        final List<SourceCodeChange> changes = distiller.getSourceCodeChanges();
+    private static ChangeSummary summarize ( final List<SourceCodeChange> distilled, final String newFile ) {
+        final List<SourceCodeChange> changes = new ArrayList<SourceCodeChange>( distilled );
         changes.sort( ( a, b ) -> a.getClass().getSimpleName().compareTo( b.getClass().getSimpleName() ) );
 
         final String separator = "/";
@@ -14,6 +14,8 @@ import java.util.ArrayList;
  * governing permissions and limitations under the License. #L%
  */
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -26,6 +28,8 @@ public class ChangeSummariesList implements Iterable<ChangeSummary> {
 
     private final List<ChangeSummary>                     changes;
 
+    private final List<PairFailure>                       failures;
+
     private final Integer                                 contributionsScore;
 
     private Double                                        contributionsScorePercent;
@@ -33,29 +37,47 @@ public class ChangeSummariesList implements Iterable<ChangeSummary> {
     private final Map<ChangeType, List<SourceCodeChange>> binnedChanges;
 
     public ChangeSummariesList ( final List<ChangeSummary> changes ) {
+        this( changes, Collections.<PairFailure> emptyList() );
+    }
 
-        final Map<String, List<SourceCodeChange>> changesPerFile = new LinkedHashMap<>();
-
-        changes.forEach( change -> {
-            final String fileName = change.getFileName();
-            if ( changesPerFile.containsKey( fileName ) ) {
-                changesPerFile.get( fileName ).addAll( change.getAllChanges() );
+    /**
+     * Creates a list of the given summaries. Summaries of the same file are
+     * consolidated into one; the summary of a file that occurs once is taken as
+     * is, without copying its changes.
+     *
+     * @param changes
+     *            summaries to list
+     * @param failures
+     *            pairs whose changes could not be extracted
+     */
+    public ChangeSummariesList ( final List<ChangeSummary> changes, final List<PairFailure> failures ) {
+
+        final Map<String, List<ChangeSummary>> summariesPerFile = new LinkedHashMap<>();
+        changes.forEach( change -> summariesPerFile
+                .computeIfAbsent( change.getFileName(), fileName -> new ArrayList<ChangeSummary>( 1 ) )
+                .add( change ) );
+
+        final List<ChangeSummary> consolidatedChanges = new ArrayList<ChangeSummary>( summariesPerFile.size() );
+        summariesPerFile.forEach( ( file, summariesForFile ) -> {
+            if ( summariesForFile.size() == 1 ) {
+                consolidatedChanges.add( summariesForFile.get( 0 ) );
             }
             else {
-                changesPerFile.put( fileName, new ArrayList<SourceCodeChange>( change.getAllChanges() ) );
+                final List<SourceCodeChange> changesForFile = new ArrayList<SourceCodeChange>();
+                summariesForFile.forEach( summary -> changesForFile.addAll( summary.getAllChanges() ) );
+                consolidatedChanges.add( new ChangeSummary( file, changesForFile ) );
             }
         } );
 
-        final List<ChangeSummary> consolidatedChanges = new ArrayList<ChangeSummary>();
-        changesPerFile.forEach( ( file, changesForFile ) -> {
-            consolidatedChanges.add( new ChangeSummary( file, changesForFile ) );
-        } );
-
         this.changes = consolidatedChanges;
+        this.failures = Collections.unmodifiableList( new ArrayList<PairFailure>( failures ) );
         this.contributionsScore = consolidatedChanges.stream().map( e -> e.getScore() ).reduce( 0, ( a, b ) -> a + b );
 
-        this.binnedChanges = ChangeExtractor.aggregateChanges( consolidatedChanges.stream()
-                .flatMap( e -> e.getAllChanges().stream() ).collect( Collectors.toList() ) );
+        // concatenating the bins of the summaries keeps the order of the changes
+        this.binnedChanges = new HashMap<ChangeType, List<SourceCodeChange>>();
+        consolidatedChanges.forEach( summary -> summary.getBinnedChanges()
+                .forEach( ( type, changesOfType ) -> binnedChanges
+                        .computeIfAbsent( type, t -> new ArrayList<SourceCodeChange>() ).addAll( changesOfType ) ) );
     }
 
     @Override
@@ -67,6 +89,15 @@ public class ChangeSummariesList implements Iterable<ChangeSummary> {
         return changes;
     }
 
+    /**
+     * Returns the pairs of a batch whose changes could not be extracted.
+     *
+     * @return the failed pairs; empty if all pairs were distilled
+     */
+    public List<PairFailure> getFailures () {
+        return failures;
+    }
+
     public Integer getContributionsScore () {
         return contributionsScore;
     }
@@ -0,0 +1,352 @@
+package ch.uzh.ifi.seal.changedistiller.api;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2021 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
+
+/**
+ * Thread-safe {@link ResultCache} in a local directory, which keeps results
+ * across runs.
+ * <p>
+ * Results are appended to segment files. A segment that exceeds the segment
+ * size is closed and the following results go to a new segment. Each record
+ * holds the key, the length and the CRC-32 of the encoded changes, followed by
+ * the changes. The location of each record is appended to an index file,
+ * which is read when the cache is opened, so a lookup reads a single record.
+ * Nothing is ever overwritten: a record whose index entry was not written,
+ * e.g., as the process was killed, is ignored, and so is a record that does
+ * not match its key or checksum.
+ * <p>
+ * A directory must not be used by more than one cache at a time. The cache
+ * has to be closed to release its files.
+ *
+ * @see MemoryResultCache
+ */
+public class DiskResultCache implements ResultCache, Closeable {
+
+    /**
+     * Size in bytes above which a new segment is started if not configured
+     * otherwise.
+     */
+    public static final long                 DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private static final String              INDEX_FILE           = "index";
+
+    private static final String              SEGMENT_FILE         = "segment-%05d";
+
+    /* key, segment, offset and length of the encoded changes */
+    private static final int                 INDEX_ENTRY_SIZE     = ResultKey.LENGTH + 4 + 8 + 4;
+
+    /* key, length and checksum of the encoded changes */
+    private static final int                 RECORD_HEADER_SIZE   = ResultKey.LENGTH + 4 + 4;
+
+    private final Path                       directory;
+
+    private final long                       segmentSize;
+
+    private final Map<ResultKey, Location>   locations            = new HashMap<ResultKey, Location>();
+
+    private final List<FileChannel>          segments             = new ArrayList<FileChannel>();
+
+    private final FileChannel                index;
+
+    private long                             indexSize;
+
+    private long                             activeSegmentSize;
+
+    /**
+     * Opens the cache in the given directory with
+     * {@link #DEFAULT_SEGMENT_SIZE}. The directory is created if it does not
+     * exist.
+     *
+     * @param directory
+     *            to keep the results in
+     * @throws IOException
+     *             if the directory cannot be created or its files cannot be
+     *             read
+     */
+    public DiskResultCache ( final File directory ) throws IOException {
+        this( directory, DEFAULT_SEGMENT_SIZE );
+    }
+
+    /**
+     * Opens the cache in the given directory. The directory is created if it
+     * does not exist.
+     *
+     * @param directory
+     *            to keep the results in
+     * @param segmentSize
+     *            size in bytes above which a new segment is started
+     * @throws IOException
+     *             if the directory cannot be created or its files cannot be
+     *             read
+     */
+    public DiskResultCache ( final File directory, final long segmentSize ) throws IOException {
+        if ( segmentSize <= 0 ) {
+            throw new IllegalArgumentException( "Segment size must be positive: " + segmentSize );
+        }
+        this.directory = directory.toPath();
+        this.segmentSize = segmentSize;
+        Files.createDirectories( this.directory );
+        FileChannel opened = null;
+        try {
+            for ( int i = 0; Files.exists( segmentPath( i ) ); i++ ) {
+                segments.add( openSegment( i ) );
+            }
+            if ( segments.isEmpty() ) {
+                segments.add( openSegment( 0 ) );
+            }
+            activeSegmentSize = segments.get( segments.size() - 1 ).size();
+            opened = FileChannel.open( this.directory.resolve( INDEX_FILE ), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE );
+            readIndex( opened );
+        }
+        catch ( final IOException e ) {
+            if ( opened != null ) {
+                opened.close();
+            }
+            closeSegments();
+            throw e;
+        }
+        index = opened;
+    }
+
+    private Path segmentPath ( final int segment ) {
+        return directory.resolve( String.format( SEGMENT_FILE, segment ) );
+    }
+
+    private FileChannel openSegment ( final int segment ) throws IOException {
+        return FileChannel.open( segmentPath( segment ), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE );
+    }
+
+    /*
+     * Entries that point beyond the end of their segment and a partially
+     * written last entry are dropped.
+     */
+    private void readIndex ( final FileChannel index ) throws IOException {
+        final long[] segmentSizes = new long[segments.size()];
+        for ( int i = 0; i < segmentSizes.length; i++ ) {
+            segmentSizes[i] = segments.get( i ).size();
+        }
+        indexSize = index.size() - ( index.size() % INDEX_ENTRY_SIZE );
+        index.truncate( indexSize );
+        final ByteBuffer entries = ByteBuffer.allocate( (int) Math.min( indexSize, 1 << 20 ) );
+        long position = 0;
+        while ( position < indexSize ) {
+            entries.clear();
+            entries.limit( (int) Math.min( entries.capacity(), indexSize - position ) );
+            readFully( index, entries, position );
+            position += entries.limit();
+            entries.flip();
+            while ( entries.remaining() >= INDEX_ENTRY_SIZE ) {
+                final byte[] key = new byte[ResultKey.LENGTH];
+                entries.get( key );
+                final Location location = new Location( entries.getInt(), entries.getLong(), entries.getInt() );
+                if ( isValid( location, segmentSizes ) ) {
+                    locations.put( new ResultKey( key ), location );
+                }
+            }
+        }
+    }
+
+    private static boolean isValid ( final Location location, final long[] segmentSizes ) {
+        return ( location.segment >= 0 ) && ( location.segment < segmentSizes.length ) && ( location.offset >= 0 )
+                && ( location.length >= 0 )
+                && ( location.offset + RECORD_HEADER_SIZE + location.length <= segmentSizes[location.segment] );
+    }
+
+    @Override
+    public List<SourceCodeChange> get ( final ResultKey key ) {
+        final Location location;
+        final FileChannel segment;
+        synchronized ( locations ) {
+            location = locations.get( key );
+            if ( location == null ) {
+                return null;
+            }
+            segment = segments.get( location.segment );
+        }
+        final ByteBuffer record = ByteBuffer.allocate( RECORD_HEADER_SIZE + location.length );
+        try {
+            readFully( segment, record, location.offset );
+        }
+        catch ( final IOException e ) {
+            throw new UncheckedIOException( "Cannot read cached result: " + key, e );
+        }
+        record.flip();
+        final byte[] recordKey = new byte[ResultKey.LENGTH];
+        record.get( recordKey );
+        final int length = record.getInt();
+        final int checksum = record.getInt();
+        final byte[] encoded = new byte[location.length];
+        record.get( encoded );
+        if ( !Arrays.equals( recordKey, key.getBytes() ) || ( length != location.length )
+                || ( checksum != checksum( encoded ) ) ) {
+            discard( key, location );
+            return null;
+        }
+        try {
+            return SourceCodeChangeCodec.decode( encoded );
+        }
+        catch ( final IOException e ) {
+            discard( key, location );
+            return null;
+        }
+    }
+
+    /*
+     * Forgets a record that cannot be read back, so that the next put of the
+     * key appends a fresh record. The index entry of the fresh record comes
+     * later in the index and therefore wins when the cache is reopened.
+     */
+    private void discard ( final ResultKey key, final Location location ) {
+        synchronized ( locations ) {
+            locations.remove( key, location );
+        }
+    }
+
+    @Override
+    public void put ( final ResultKey key, final List<SourceCodeChange> changes ) {
+        final byte[] encoded = SourceCodeChangeCodec.encode( changes );
+        final ByteBuffer record = ByteBuffer.allocate( RECORD_HEADER_SIZE + encoded.length );
+        record.put( key.getBytes() ).putInt( encoded.length ).putInt( checksum( encoded ) ).put( encoded );
+        record.flip();
+        synchronized ( locations ) {
+            if ( locations.containsKey( key ) ) {
+                return;
+            }
+            try {
+                if ( activeSegmentSize >= segmentSize ) {
+                    segments.add( openSegment( segments.size() ) );
+                    activeSegmentSize = 0;
+                }
+                final Location location = new Location( segments.size() - 1, activeSegmentSize, encoded.length );
+                writeFully( segments.get( location.segment ), record, location.offset );
+                activeSegmentSize += record.limit();
+                final ByteBuffer entry = ByteBuffer.allocate( INDEX_ENTRY_SIZE );
+                entry.put( key.getBytes() ).putInt( location.segment ).putLong( location.offset )
+                        .putInt( location.length );
+                entry.flip();
+                writeFully( index, entry, indexSize );
+                indexSize += INDEX_ENTRY_SIZE;
+                locations.put( key, location );
+            }
+            catch ( final IOException e ) {
+                throw new UncheckedIOException( "Cannot write cached result: " + key, e );
+            }
+        }
+    }
+
+    /**
+     * Returns the number of results in the cache.
+     *
+     * @return the number of results in the cache
+     */
+    public int size () {
+        synchronized ( locations ) {
+            return locations.size();
+        }
+    }
+
+    /**
+     * Returns the number of segment files of the cache.
+     *
+     * @return the number of segments
+     */
+    public int getSegmentCount () {
+        synchronized ( locations ) {
+            return segments.size();
+        }
+    }
+
+    @Override
+    public void close () throws IOException {
+        synchronized ( locations ) {
+            try {
+                index.close();
+            }
+            finally {
+                closeSegments();
+            }
+        }
+    }
+
+    private void closeSegments () throws IOException {
+        for ( final FileChannel segment : segments ) {
+            segment.close();
+        }
+    }
+
+    private static int checksum ( final byte[] bytes ) {
+        final CRC32 crc = new CRC32();
+        crc.update( bytes, 0, bytes.length );
+        return (int) crc.getValue();
+    }
+
+    private static void readFully ( final FileChannel channel, final ByteBuffer buffer, final long position )
+            throws IOException {
+        long offset = position;
+        while ( buffer.hasRemaining() ) {
+            final int read = channel.read( buffer, offset );
+            if ( read < 0 ) {
+                throw new EOFException( "Unexpected end of cache file" );
+            }
+            offset += read;
+        }
+    }
+
+    private static void writeFully ( final FileChannel channel, final ByteBuffer buffer, final long position )
+            throws IOException {
+        long offset = position;
+        while ( buffer.hasRemaining() ) {
+            offset += channel.write( buffer, offset );
+        }
+    }
+
+    /**
+     * Location of a record in the segments of the cache.
+     */
+    private static final class Location {
+
+        private final int  segment;
+
+        private final long offset;
+
+        private final int  length;
+
+        Location ( final int segment, final long offset, final int length ) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package ch.uzh.ifi.seal.changedistiller.api;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2021 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+/**
+ * Old and new version of a file to extract changes from, either as paths of
+ * files or as contents held in memory together with their logical paths.
+ *
+ * @see ChangeExtractor#extractBatch(java.util.Collection, BatchOptions)
+ */
+public final class FilePair {
+
+    private final String       oldPath;
+
+    private final String       newPath;
+
+    private final CharSequence oldSource;
+
+    private final CharSequence newSource;
+
+    /**
+     * Creates a pair of two files on the file system.
+     *
+     * @param oldFile
+     *            path of the old version
+     * @param newFile
+     *            path of the new version
+     */
+    public FilePair ( final String oldFile, final String newFile ) {
+        this( null, oldFile, null, newFile );
+    }
+
+    /**
+     * Creates a pair of two sources held in memory.
+     *
+     * @param oldSource
+     *            content of the old version; <code>null</code> if the file was
+     *            added
+     * @param oldPath
+     *            logical path of the old version
+     * @param newSource
+     *            content of the new version
+     * @param newPath
+     *            logical path of the new version
+     */
+    public FilePair ( final CharSequence oldSource, final String oldPath, final CharSequence newSource,
+            final String newPath ) {
+        this.oldSource = oldSource;
+        this.oldPath = oldPath;
+        this.newSource = newSource;
+        this.newPath = newPath;
+    }
+
+    public String getOldPath () {
+        return oldPath;
+    }
+
+    public String getNewPath () {
+        return newPath;
+    }
+
+    /**
+     * Returns the content of the old version.
+     *
+     * @return the content, or <code>null</code> if the pair refers to files or
+     *         the file was added
+     */
+    public CharSequence getOldSource () {
+        return oldSource;
+    }
+
+    /**
+     * Returns the content of the new version.
+     *
+     * @return the content, or <code>null</code> if the pair refers to files
+     */
+    public CharSequence getNewSource () {
+        return newSource;
+    }
+
+    /**
+     * Returns whether the pair refers to sources held in memory.
+     *
+     * @return <code>true</code> if the sources are held in memory,
+     *         <code>false</code> if they are read from files
+     */
+    public boolean isInMemory () {
+        return newSource != null;
+    }
+
+    @Override
+    public String toString () {
+        return String.format( "%s -> %s", oldPath, newPath );
+    }
+
+}
@@ -0,0 +1,148 @@
+package ch.uzh.ifi.seal.changedistiller.api;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2021 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
+
+/**
+ * Bounded, thread-safe {@link ResultCache} in memory.
+ * <p>
+ * Results are kept encoded, which is more compact than the object graph of
+ * the changes and hands out changes of their own on each lookup. The least
+ * recently used result is evicted when the capacity is exceeded.
+ * <p>
+ * The cache may be put in front of another, slower cache, e.g., a
+ * {@link DiskResultCache}. Results are written through to the backing cache,
+ * and results found in the backing cache on a miss are kept in memory for the
+ * following lookups.
+ */
+public class MemoryResultCache implements ResultCache {
+
+    /**
+     * Number of results kept if not configured otherwise.
+     */
+    public static final int              DEFAULT_CAPACITY = 4096;
+
+    private final int                    capacity;
+
+    private final ResultCache            backing;
+
+    private final Map<ResultKey, byte[]> entries;
+
+    /**
+     * Creates a new cache with {@link #DEFAULT_CAPACITY}.
+     */
+    public MemoryResultCache () {
+        this( DEFAULT_CAPACITY );
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param capacity
+     *            maximal number of results kept
+     */
+    public MemoryResultCache ( final int capacity ) {
+        this( capacity, null );
+    }
+
+    /**
+     * Creates a new cache in front of the given cache.
+     *
+     * @param capacity
+     *            maximal number of results kept
+     * @param backing
+     *            cache to look up missing results in and to write results
+     *            through to, or <code>null</code> for none
+     */
+    public MemoryResultCache ( final int capacity, final ResultCache backing ) {
+        if ( capacity < 0 ) {
+            throw new IllegalArgumentException( "Capacity must not be negative: " + capacity );
+        }
+        this.capacity = capacity;
+        this.backing = backing;
+        this.entries = new LinkedHashMap<ResultKey, byte[]>( 16, 0.75f, true ) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry ( final Map.Entry<ResultKey, byte[]> eldest ) {
+                return size() > MemoryResultCache.this.capacity;
+            }
+        };
+    }
+
+    @Override
+    public List<SourceCodeChange> get ( final ResultKey key ) {
+        final byte[] encoded;
+        synchronized ( entries ) {
+            encoded = entries.get( key );
+        }
+        if ( encoded != null ) {
+            try {
+                return SourceCodeChangeCodec.decode( encoded );
+            }
+            catch ( final IOException e ) {
+                throw new IllegalStateException( "Cached result cannot be decoded: " + key, e );
+            }
+        }
+        if ( backing == null ) {
+            return null;
+        }
+        final List<SourceCodeChange> changes = backing.get( key );
+        if ( changes != null ) {
+            store( key, SourceCodeChangeCodec.encode( changes ) );
+        }
+        return changes;
+    }
+
+    @Override
+    public void put ( final ResultKey key, final List<SourceCodeChange> changes ) {
+        store( key, SourceCodeChangeCodec.encode( changes ) );
+        if ( backing != null ) {
+            backing.put( key, changes );
+        }
+    }
+
+    private void store ( final ResultKey key, final byte[] encoded ) {
+        synchronized ( entries ) {
+            entries.put( key, encoded );
+        }
+    }
+
+    /**
+     * Returns the number of results kept in memory.
+     *
+     * @return the number of results kept in memory
+     */
+    public int size () {
+        synchronized ( entries ) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Removes all results kept in memory. The backing cache is not affected.
+     */
+    public void clear () {
+        synchronized ( entries ) {
+            entries.clear();
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package ch.uzh.ifi.seal.changedistiller.api;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2021 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+/**
+ * Failure to extract the changes of a single {@link FilePair} of a batch.
+ *
+ * @see ChangeSummariesList#getFailures()
+ */
+public final class PairFailure {
+
+    private final FilePair  pair;
+
+    private final Exception cause;
+
+    public PairFailure ( final FilePair pair, final Exception cause ) {
+        this.pair = pair;
+        this.cause = cause;
+    }
+
+    public FilePair getPair () {
+        return pair;
+    }
+
+    public Exception getCause () {
+        return cause;
+    }
+
+    @Override
+    public String toString () {
+        return String.format( "%s: %s", pair, cause );
+    }
+
+}
@@ -0,0 +1,52 @@
+package ch.uzh.ifi.seal.changedistiller.api;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2021 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import java.util.List;
+
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
+
+/**
+ * Cache of the changes distilled from pairs of sources, consulted by the
+ * {@link ChangeExtractor} before it distills a pair.
+ * <p>
+ * Implementations must be thread-safe, as the pairs of a batch are extracted
+ * concurrently. Each lookup has to return changes of its own, since summaries
+ * of the changes may be modified by their users.
+ *
+ * @see MemoryResultCache
+ * @see DiskResultCache
+ */
+public interface ResultCache {
+
+    /**
+     * Returns the changes cached for the given key.
+     *
+     * @param key
+     *            of the distilled pair
+     * @return the changes, or <code>null</code> if none are cached for the
+     *         key
+     */
+    List<SourceCodeChange> get ( ResultKey key );
+
+    /**
+     * Caches the changes distilled for the given key.
+     *
+     * @param key
+     *            of the distilled pair
+     * @param changes
+     *            distilled from the pair
+     */
+    void put ( ResultKey key, List<SourceCodeChange> changes );
+
+}
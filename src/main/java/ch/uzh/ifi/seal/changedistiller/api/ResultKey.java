@@ -0,0 +1,127 @@
+package ch.uzh.ifi.seal.changedistiller.api;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2021 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Key of a distillation result in a {@link ResultCache}.
+ * <p>
+ * The key is the SHA-256 hash of everything the distilled changes depend on:
+ * the contents of both versions, the Java version used to parse them, the
+ * configuration of the distillation engine and the format of cached results.
+ * Paths are not part of the key, so a pair of blobs that shows up under
+ * another name, e.g., on another branch or after a cherry-pick, hits the same
+ * entry.
+ */
+public final class ResultKey {
+
+    /**
+     * Number of bytes of a key.
+     */
+    static final int     LENGTH = 32;
+
+    private final byte[] hash;
+
+    ResultKey ( final byte[] hash ) {
+        if ( hash.length != LENGTH ) {
+            throw new IllegalArgumentException( "Key must have " + LENGTH + " bytes: " + hash.length );
+        }
+        this.hash = hash;
+    }
+
+    /**
+     * Creates the key of the result of distilling the given sources.
+     *
+     * @param oldSource
+     *            content of the old version, or <code>null</code> if the file
+     *            was added
+     * @param newSource
+     *            content of the new version
+     * @param javaVersion
+     *            version of Java used in both sources
+     * @param configuration
+     *            of the distillation engine, see
+     *            {@link ch.uzh.ifi.seal.changedistiller.distilling.DistillationEngine#getConfiguration()}
+     * @return the key
+     */
+    public static ResultKey of ( final CharSequence oldSource, final CharSequence newSource,
+            final String javaVersion, final String configuration ) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance( "SHA-256" );
+            update( digest, String.valueOf( SourceCodeChangeCodec.FORMAT_VERSION ) );
+            update( digest, configuration );
+            update( digest, javaVersion );
+            update( digest, oldSource );
+            update( digest, newSource );
+            return new ResultKey( digest.digest() );
+        }
+        catch ( final NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( "SHA-256 not supported", e );
+        }
+    }
+
+    /*
+     * Each part is prefixed with its length, so that no two different lists of
+     * parts hash the same bytes. A missing part has a length of -1.
+     */
+    private static void update ( final MessageDigest digest, final CharSequence part ) {
+        if ( part == null ) {
+            updateLength( digest, -1 );
+            return;
+        }
+        final byte[] bytes = part.toString().getBytes( StandardCharsets.UTF_8 );
+        updateLength( digest, bytes.length );
+        digest.update( bytes );
+    }
+
+    private static void updateLength ( final MessageDigest digest, final int length ) {
+        digest.update( (byte) ( length >>> 24 ) );
+        digest.update( (byte) ( length >>> 16 ) );
+        digest.update( (byte) ( length >>> 8 ) );
+        digest.update( (byte) length );
+    }
+
+    byte[] getBytes () {
+        return hash.clone();
+    }
+
+    @Override
+    public int hashCode () {
+        return Arrays.hashCode( hash );
+    }
+
+    @Override
+    public boolean equals ( final Object obj ) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( ! ( obj instanceof ResultKey ) ) {
+            return false;
+        }
+        return Arrays.equals( hash, ( (ResultKey) obj ).hash );
+    }
+
+    @Override
+    public String toString () {
+        final StringBuilder hex = new StringBuilder( LENGTH * 2 );
+        for ( final byte b : hash ) {
+            hex.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+        }
+        return hex.toString();
+    }
+
+}
@@ -0,0 +1,373 @@
+package ch.uzh.ifi.seal.changedistiller.api;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2021 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.uzh.ifi.seal.changedistiller.model.classifiers.ChangeType;
+import ch.uzh.ifi.seal.changedistiller.model.classifiers.EntityType;
+import ch.uzh.ifi.seal.changedistiller.model.classifiers.SourceRange;
+import ch.uzh.ifi.seal.changedistiller.model.classifiers.java.JavaEntityType;
+import ch.uzh.ifi.seal.changedistiller.model.entities.Delete;
+import ch.uzh.ifi.seal.changedistiller.model.entities.Insert;
+import ch.uzh.ifi.seal.changedistiller.model.entities.Move;
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeEntity;
+import ch.uzh.ifi.seal.changedistiller.model.entities.StructureEntityVersion;
+import ch.uzh.ifi.seal.changedistiller.model.entities.Update;
+
+/**
+ * Binary encoding of lists of {@link SourceCodeChange}s for a
+ * {@link ResultCache}.
+ * <p>
+ * Changes share their entities, e.g., all changes of a method refer to the
+ * same {@link StructureEntityVersion}, which in turn lists these changes. The
+ * encoding keeps this object graph: each object is written once and referred
+ * to by its id afterwards, so decoded changes share objects exactly where the
+ * encoded ones did. Significance levels and everything else derived from the
+ * encoded fields are computed again from the decoded objects.
+ */
+final class SourceCodeChangeCodec {
+
+    /**
+     * Version of the encoding. It is part of each {@link ResultKey}, so
+     * results cached in another format are never decoded.
+     */
+    static final int         FORMAT_VERSION = 1;
+
+    private static final int NULL           = -1;
+    private static final int NEW            = -2;
+
+    private static final int INSERT         = 0;
+    private static final int DELETE         = 1;
+    private static final int UPDATE         = 2;
+    private static final int MOVE           = 3;
+
+    private SourceCodeChangeCodec () {
+    }
+
+    /**
+     * Encodes the given changes.
+     *
+     * @param changes
+     *            to encode
+     * @return the encoded changes
+     */
+    static byte[] encode ( final List<SourceCodeChange> changes ) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            final Encoder encoder = new Encoder( new DataOutputStream( bytes ) );
+            encoder.out.writeInt( changes.size() );
+            for ( final SourceCodeChange change : changes ) {
+                encoder.writeChange( change );
+            }
+            encoder.out.flush();
+        }
+        catch ( final IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes changes encoded with {@link #encode(List)}.
+     *
+     * @param encoded
+     *            changes
+     * @return the decoded changes
+     * @throws IOException
+     *             if the changes are not encoded properly
+     */
+    static List<SourceCodeChange> decode ( final byte[] encoded ) throws IOException {
+        final Decoder decoder = new Decoder( new DataInputStream( new ByteArrayInputStream( encoded ) ) );
+        try {
+            final int size = decoder.in.readInt();
+            final List<SourceCodeChange> changes = new ArrayList<SourceCodeChange>( Math.min( size, 1024 ) );
+            for ( int i = 0; i < size; i++ ) {
+                changes.add( decoder.readChange() );
+            }
+            if ( decoder.in.read() != -1 ) {
+                throw new IOException( "Trailing bytes after encoded changes" );
+            }
+            return changes;
+        }
+        catch ( final IllegalArgumentException | ClassCastException | IndexOutOfBoundsException e ) {
+            throw new IOException( "Malformed encoded changes", e );
+        }
+    }
+
+    private static final class Encoder {
+
+        private final DataOutputStream     out;
+        private final Map<Object, Integer> ids = new IdentityHashMap<Object, Integer>();
+
+        Encoder ( final DataOutputStream out ) {
+            this.out = out;
+        }
+
+        /*
+         * Writes a reference to the given object and returns whether the
+         * fields of the object have to follow.
+         */
+        private boolean writeReference ( final Object object ) throws IOException {
+            if ( object == null ) {
+                out.writeInt( NULL );
+                return false;
+            }
+            final Integer id = ids.get( object );
+            if ( id != null ) {
+                out.writeInt( id );
+                return false;
+            }
+            ids.put( object, ids.size() );
+            out.writeInt( NEW );
+            return true;
+        }
+
+        void writeChange ( final SourceCodeChange change ) throws IOException {
+            if ( !writeReference( change ) ) {
+                return;
+            }
+            if ( change.getClass() == Insert.class ) {
+                out.writeByte( INSERT );
+            }
+            else if ( change.getClass() == Delete.class ) {
+                out.writeByte( DELETE );
+            }
+            else if ( change.getClass() == Update.class ) {
+                out.writeByte( UPDATE );
+            }
+            else if ( change.getClass() == Move.class ) {
+                out.writeByte( MOVE );
+            }
+            else {
+                throw new IllegalArgumentException( "Unsupported change: " + change.getClass().getName() );
+            }
+            writeString( change.getChangeType().name() );
+            writeEntity( change.getChangedEntity() );
+            writeEntity( change.getParentEntity() );
+            writeStructureEntity( change.getRootEntity() );
+            if ( change instanceof Update ) {
+                writeEntity( ( (Update) change ).getNewEntity() );
+            }
+            else if ( change instanceof Move ) {
+                writeEntity( ( (Move) change ).getNewEntity() );
+                writeEntity( ( (Move) change ).getNewParentEntity() );
+            }
+        }
+
+        private void writeEntity ( final SourceCodeEntity entity ) throws IOException {
+            if ( !writeReference( entity ) ) {
+                return;
+            }
+            writeString( entity.getUniqueName() );
+            writeType( entity.getType() );
+            out.writeInt( entity.getModifiers() );
+            writeRange( entity.getSourceRange() );
+            out.writeInt( entity.getAssociatedEntities().size() );
+            for ( final SourceCodeEntity associated : entity.getAssociatedEntities() ) {
+                writeEntity( associated );
+            }
+        }
+
+        private void writeStructureEntity ( final StructureEntityVersion entity ) throws IOException {
+            if ( !writeReference( entity ) ) {
+                return;
+            }
+            writeType( entity.getType() );
+            writeString( entity.getUniqueName() );
+            out.writeInt( entity.getModifiers() );
+            writeString( entity.getVersion() );
+            out.writeInt( entity.getSourceCodeChanges().size() );
+            for ( final SourceCodeChange change : entity.getSourceCodeChanges() ) {
+                writeChange( change );
+            }
+        }
+
+        private void writeRange ( final SourceRange range ) throws IOException {
+            if ( !writeReference( range ) ) {
+                return;
+            }
+            out.writeInt( range.getStart() );
+            out.writeInt( range.getEnd() );
+        }
+
+        private void writeType ( final EntityType type ) throws IOException {
+            if ( ( type != null ) && ! ( type instanceof JavaEntityType ) ) {
+                throw new IllegalArgumentException( "Unsupported entity type: " + type.getClass().getName() );
+            }
+            writeString( type != null ? ( (JavaEntityType) type ).name() : null );
+        }
+
+        private void writeString ( final String string ) throws IOException {
+            if ( string == null ) {
+                out.writeInt( NULL );
+                return;
+            }
+            final byte[] bytes = string.getBytes( StandardCharsets.UTF_8 );
+            out.writeInt( bytes.length );
+            out.write( bytes );
+        }
+    }
+
+    private static final class Decoder {
+
+        private static final Object   NEW_OBJECT = new Object();
+
+        private final DataInputStream in;
+        private final List<Object>    objects = new ArrayList<Object>();
+
+        Decoder ( final DataInputStream in ) {
+            this.in = in;
+        }
+
+        /*
+         * Reads a reference. Returns the referenced object, or NEW_OBJECT with
+         * a slot reserved for the object whose fields follow.
+         */
+        private Object readReference () throws IOException {
+            final int id = in.readInt();
+            if ( id == NULL ) {
+                return null;
+            }
+            if ( id == NEW ) {
+                objects.add( null );
+                return NEW_OBJECT;
+            }
+            final Object object = objects.get( id );
+            if ( object == null ) {
+                throw new IOException( "Reference to incomplete object " + id );
+            }
+            return object;
+        }
+
+        private <T> T register ( final int id, final T object ) {
+            objects.set( id, object );
+            return object;
+        }
+
+        SourceCodeChange readChange () throws IOException {
+            final Object reference = readReference();
+            if ( reference != NEW_OBJECT ) {
+                return (SourceCodeChange) reference;
+            }
+            final int id = objects.size() - 1;
+            final SourceCodeChange change;
+            final int kind = in.readByte();
+            switch ( kind ) {
+                case INSERT:
+                    change = register( id, new Insert( null, null, null ) );
+                    break;
+                case DELETE:
+                    change = register( id, new Delete( null, null, null ) );
+                    break;
+                case UPDATE:
+                    change = register( id, new Update( null, null, null, null ) );
+                    break;
+                case MOVE:
+                    change = register( id, new Move( null, null, null, null, null ) );
+                    break;
+                default:
+                    throw new IOException( "Unknown kind of change: " + kind );
+            }
+            change.setChangeType( ChangeType.valueOf( readString() ) );
+            change.setChangedEntity( readEntity() );
+            change.setParentEntity( readEntity() );
+            change.setRootEntity( readStructureEntity() );
+            if ( change instanceof Update ) {
+                ( (Update) change ).setNewEntity( readEntity() );
+            }
+            else if ( change instanceof Move ) {
+                ( (Move) change ).setNewEntity( readEntity() );
+                ( (Move) change ).setNewParentEntity( readEntity() );
+            }
+            return change;
+        }
+
+        private SourceCodeEntity readEntity () throws IOException {
+            final Object reference = readReference();
+            if ( reference != NEW_OBJECT ) {
+                return (SourceCodeEntity) reference;
+            }
+            final int id = objects.size() - 1;
+            final String uniqueName = readString();
+            final EntityType type = readType();
+            final int modifiers = in.readInt();
+            final SourceRange range = readRange();
+            final SourceCodeEntity entity = register( id,
+                    new SourceCodeEntity( uniqueName, type, modifiers, range ) );
+            final int associated = in.readInt();
+            for ( int i = 0; i < associated; i++ ) {
+                entity.addAssociatedEntity( readEntity() );
+            }
+            return entity;
+        }
+
+        private StructureEntityVersion readStructureEntity () throws IOException {
+            final Object reference = readReference();
+            if ( reference != NEW_OBJECT ) {
+                return (StructureEntityVersion) reference;
+            }
+            final int id = objects.size() - 1;
+            final EntityType type = readType();
+            final String uniqueName = readString();
+            final int modifiers = in.readInt();
+            final String version = readString();
+            final StructureEntityVersion entity = register( id,
+                    new StructureEntityVersion( type, uniqueName, modifiers, version ) );
+            final int changes = in.readInt();
+            for ( int i = 0; i < changes; i++ ) {
+                entity.addSourceCodeChange( readChange() );
+            }
+            return entity;
+        }
+
+        private SourceRange readRange () throws IOException {
+            final Object reference = readReference();
+            if ( reference != NEW_OBJECT ) {
+                return (SourceRange) reference;
+            }
+            final int id = objects.size() - 1;
+            return register( id, new SourceRange( in.readInt(), in.readInt() ) );
+        }
+
+        private EntityType readType () throws IOException {
+            final String name = readString();
+            return name != null ? JavaEntityType.valueOf( name ) : null;
+        }
+
+        private String readString () throws IOException {
+            final int length = in.readInt();
+            if ( length == NULL ) {
+                return null;
+            }
+            if ( ( length < 0 ) || ( length > in.available() ) ) {
+                throw new IOException( "Malformed string length: " + length );
+            }
+            final byte[] bytes = new byte[length];
+            in.readFully( bytes );
+            return new String( bytes, StandardCharsets.UTF_8 );
+        }
+    }
+
+}
@@ -40,6 +40,13 @@ import ch.uzh.ifi.seal.changedistiller.treedifferencing.Node;
  */
 public interface ASTHelper<T extends StructureNode> {
 
+    /**
+     * Returns the content of the associated file. The returned array must not be modified.
+     * 
+     * @return the content of the associated file
+     */
+    char[] getSource();
+
     /**
      * Creates and returns a {@link StructureNode} tree of the associated file.
      * 
@@ -47,6 +54,15 @@ public interface ASTHelper<T extends StructureNode> {
      */
     T createStructureTree();
 
+    /**
+     * Returns whether a method body of the associated file that was parsed on demand had syntax errors. A parse of the
+     * whole file recovers from syntax errors differently, so trees built from such bodies differ from those of a full
+     * parse.
+     * 
+     * @return <code>true</code> if a body parsed on demand had syntax errors, <code>false</code> otherwise
+     */
+    boolean hasBodySyntaxErrors();
+
     /**
      * Creates and returns the declaration {@link Node} tree for the {@link StructureNode}.
      * 
@@ -14,6 +14,8 @@ package ch.uzh.ifi.seal.changedistiller.ast;
 
 import java.io.File;
 
+import com.google.inject.assistedinject.Assisted;
+
 /**
  * Factory interface to create {@link ASTHelper} from a {@link File} and a
  * version number.
@@ -35,4 +37,21 @@ public interface ASTHelperFactory {
     @SuppressWarnings ( "rawtypes" )
     ASTHelper create ( File file, String version );
 
+    /**
+     * Creates and returns an {@link ASTHelper} acting on the given source
+     * content. The content is parsed as is; nothing is read from or written to
+     * the file system.
+     *
+     * @param source
+     *            content the AST helper acts on
+     * @param path
+     *            logical path of the source, used for diagnostics only
+     * @param version
+     *            of the language the AST helper uses to parse the source
+     * @return the AST helper acting on the source
+     */
+    @SuppressWarnings ( "rawtypes" )
+    ASTHelper create ( @Assisted ( "source" ) CharSequence source, @Assisted ( "path" ) String path,
+            @Assisted ( "version" ) String version );
+
 }
@@ -0,0 +1,45 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * When the bodies of methods and constructors are parsed.
+ */
+public enum BodyParsing {
+
+    /**
+     * All bodies are parsed with the source. This is the behavior of earlier versions.
+     */
+    EAGER,
+
+    /**
+     * The source is diet parsed, i.e., without the bodies of methods and constructors. A body is parsed when the
+     * structure differencing descends into its member, which it does not for members whose content hashes are equal
+     * on both sides. Hence, the parsing cost of a source is mostly proportional to the number of changed members.
+     * <p>
+     * Results are the same as with {@link #EAGER}. A source with syntax errors outside of method bodies is parsed
+     * fully, and a syntax error in the body of a changed member yields no changes, as a full parse does. Syntax errors
+     * confined to the bodies of unchanged members go unnoticed, though, as these bodies are never parsed. For such
+     * sources, changes are reported where {@link #EAGER} reports none.
+     */
+    LAZY
+
+}
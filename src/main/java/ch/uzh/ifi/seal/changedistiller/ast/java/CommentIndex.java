@@ -0,0 +1,150 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Comments of a source ordered by start position, from which comments are taken out once they are associated to
+ * source code.
+ * <p>
+ * The first remaining comment in a source range is found by a binary search over the start positions. Comments that
+ * were taken out are skipped by following (path-compressed) links to the next remaining comment. Hence, looking up the
+ * comments of a method neither scans the comments of the whole file nor the comments taken out before.
+ *
+ * @see JavaMethodBodyConverter
+ */
+public final class CommentIndex {
+
+    private static final Comparator<Comment> BY_START = new Comparator<Comment>() {
+
+        @Override
+        public int compare ( final Comment left, final Comment right ) {
+            return Integer.compare( left.sourceStart(), right.sourceStart() );
+        }
+    };
+
+    private final Comment[] fComments;
+    private final int[]     fStarts;
+    private final int[]     fNext;
+    private int             fSize;
+
+    /**
+     * Creates a new index containing the given comments. The list is not modified.
+     *
+     * @param comments
+     *            to index
+     */
+    public CommentIndex ( final List<Comment> comments ) {
+        fComments = comments.toArray( new Comment[comments.size()] );
+        // comments are collected in source order, sorting is a safety net only
+        if ( !isSorted( fComments ) ) {
+            Arrays.sort( fComments, BY_START );
+        }
+        fSize = fComments.length;
+        fStarts = new int[fSize];
+        fNext = new int[fSize + 1];
+        for ( int i = 0; i < fSize; i++ ) {
+            fStarts[i] = fComments[i].sourceStart();
+            fNext[i] = i;
+        }
+        fNext[fSize] = fSize;
+    }
+
+    private static boolean isSorted ( final Comment[] comments ) {
+        for ( int i = 1; i < comments.length; i++ ) {
+            if ( comments[i - 1].sourceStart() > comments[i].sourceStart() ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether all comments were taken out.
+     *
+     * @return <code>true</code> if no comment remains, <code>false</code> otherwise
+     */
+    public boolean isEmpty () {
+        return fSize == 0;
+    }
+
+    /**
+     * Returns the number of remaining comments.
+     *
+     * @return the number of remaining comments
+     */
+    public int size () {
+        return fSize;
+    }
+
+    /**
+     * Takes the remaining comment with the smallest start position strictly between the given positions out of the
+     * index.
+     *
+     * @param start
+     *            exclusive lower bound of the start position
+     * @param end
+     *            exclusive upper bound of the start position
+     * @return the comment or <code>null</code> if no remaining comment starts between the positions
+     */
+    public Comment take ( final int start, final int end ) {
+        final int i = findRemaining( firstStartingAfter( start ) );
+        if ( ( i < fComments.length ) && ( fStarts[i] < end ) ) {
+            fNext[i] = i + 1;
+            fSize--;
+            return fComments[i];
+        }
+        return null;
+    }
+
+    private int firstStartingAfter ( final int position ) {
+        int low = 0;
+        int high = fStarts.length;
+        while ( low < high ) {
+            final int middle = ( low + high ) >>> 1;
+            if ( fStarts[middle] <= position ) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int findRemaining ( final int index ) {
+        int remaining = index;
+        while ( fNext[remaining] != remaining ) {
+            remaining = fNext[remaining];
+        }
+        int i = index;
+        while ( i != remaining ) {
+            final int next = fNext[i];
+            fNext[i] = remaining;
+            i = next;
+        }
+        return remaining;
+    }
+
+}
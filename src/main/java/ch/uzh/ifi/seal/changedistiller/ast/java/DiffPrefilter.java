@@ -0,0 +1,43 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * How unchanged members are recognized before their structure is compared.
+ */
+public enum DiffPrefilter {
+
+    /**
+     * Members are recognized as unchanged by equal content hashes of their tokens. The hashes are computed while the
+     * structure tree of a source is built, which scans the whole source. This is the behavior of earlier versions.
+     */
+    NONE,
+
+    /**
+     * A line diff of the two sources is computed before their structure trees are compared. Members that lie at the
+     * same position of unchanged lines on both sides are recognized as unchanged without comparing content hashes.
+     * Content hashes are computed on demand for the members in changed lines, which are compared by hash before their
+     * contents are compared. Hence, the cost of recognizing unchanged members is mostly proportional to the size of
+     * the changes instead of the size of the sources. Results are the same as with {@link #NONE}.
+     */
+    LINES
+
+}
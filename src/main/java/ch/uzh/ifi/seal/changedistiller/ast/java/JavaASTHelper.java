@@ -13,21 +13,24 @@ package ch.uzh.ifi.seal.changedistiller.ast.java;
  */
 
 import java.io.File;
-import java.util.List;
+import java.util.Enumeration;
 
 import org.eclipse.jdt.internal.compiler.ast.ASTNode;
 import org.eclipse.jdt.internal.compiler.ast.AbstractMethodDeclaration;
-import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.FieldDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
 import org.eclipse.jdt.internal.compiler.lookup.ClassScope;
-import org.eclipse.jdt.internal.compiler.lookup.CompilationUnitScope;
 
-import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
+import com.google.inject.assistedinject.AssistedInject;
 
 import ch.uzh.ifi.seal.changedistiller.ast.ASTHelper;
+import ch.uzh.ifi.seal.changedistiller.ast.FileUtils;
+import ch.uzh.ifi.seal.changedistiller.ast.java.JavaCompilationCache.ParsedSource;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Counter;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Phase;
 import ch.uzh.ifi.seal.changedistiller.model.classifiers.ChangeModifier;
 import ch.uzh.ifi.seal.changedistiller.model.classifiers.EntityType;
 import ch.uzh.ifi.seal.changedistiller.model.classifiers.SourceRange;
@@ -37,8 +40,6 @@ import ch.uzh.ifi.seal.changedistiller.model.entities.MethodHistory;
 import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeEntity;
 import ch.uzh.ifi.seal.changedistiller.model.entities.StructureEntityVersion;
 import ch.uzh.ifi.seal.changedistiller.structuredifferencing.java.JavaStructureNode;
-import ch.uzh.ifi.seal.changedistiller.structuredifferencing.java.JavaStructureNode.Type;
-import ch.uzh.ifi.seal.changedistiller.structuredifferencing.java.JavaStructureTreeBuilder;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.Node;
 
 /**
@@ -52,22 +53,42 @@ public class JavaASTHelper implements ASTHelper<JavaStructureNode> {
     private final JavaDeclarationConverter fDeclarationConverter;
     private final JavaMethodBodyConverter  fBodyConverter;
     private final JavaASTNodeTypeConverter fASTHelper;
+    private final ParsedSource             fParsedSource;
     private final JavaCompilation          fCompilation;
-    private List<Comment>                  fComments;
+    private final CommentIndex             fComments;
+    private final DistillerMetrics         fMetrics;
 
-    @Inject
+    @AssistedInject
     JavaASTHelper ( @Assisted final File file, @Assisted final String javaVersion,
             final JavaASTNodeTypeConverter astHelper, final JavaDeclarationConverter declarationConverter,
-            final JavaMethodBodyConverter bodyConverter ) {
-
-        fCompilation = JavaCompilationUtils.compile( file, getVersionNumber( javaVersion ) );
-        prepareComments();
+            final JavaMethodBodyConverter bodyConverter, final JavaCompilationCache compilationCache,
+            final DistillerMetrics metrics ) {
+        this( FileUtils.getContent( file ), file.getName(), javaVersion, astHelper, declarationConverter,
+                bodyConverter, compilationCache, metrics );
+    }
+
+    @AssistedInject
+    JavaASTHelper ( @Assisted ( "source" ) final CharSequence source, @Assisted ( "path" ) final String path,
+            @Assisted ( "version" ) final String javaVersion, final JavaASTNodeTypeConverter astHelper,
+            final JavaDeclarationConverter declarationConverter, final JavaMethodBodyConverter bodyConverter,
+            final JavaCompilationCache compilationCache, final DistillerMetrics metrics ) {
+
+        fParsedSource = compilationCache.get( source.toString(), getFileName( path ),
+                getVersionNumber( javaVersion ) );
+        fCompilation = fParsedSource.getCompilation();
+        fComments = new CommentIndex( fParsedSource.getComments() );
         fASTHelper = astHelper;
         fDeclarationConverter = declarationConverter;
         fBodyConverter = bodyConverter;
+        fMetrics = metrics;
+    }
+
+    private static String getFileName ( final String path ) {
+        final int separator = Math.max( path.lastIndexOf( '/' ), path.lastIndexOf( '\\' ) );
+        return path.substring( separator + 1 );
     }
 
-    private long getVersionNumber ( final String javaVersion ) {
+    static long getVersionNumber ( final String javaVersion ) {
         long versionNumber;
         switch ( javaVersion ) {
             case "1.1":
@@ -129,23 +150,9 @@ public class JavaASTHelper implements ASTHelper<JavaStructureNode> {
         return fCompilation;
     }
 
-    private void prepareComments () {
-        cleanComments( collectComments() );
-    }
-
-    private void cleanComments ( final List<Comment> comments ) {
-        final CommentCleaner visitor = new CommentCleaner( fCompilation.getSource() );
-        for ( final Comment comment : comments ) {
-            visitor.process( comment );
-        }
-        fComments = visitor.getComments();
-    }
-
-    private List<Comment> collectComments () {
-        final CommentCollector collector = new CommentCollector( fCompilation.getCompilationUnit(),
-                fCompilation.getSource() );
-        collector.collect();
-        return collector.getComments();
+    @Override
+    public char[] getSource () {
+        return fCompilation.getScanner().source;
     }
 
     @Override
@@ -156,6 +163,7 @@ public class JavaASTHelper implements ASTHelper<JavaStructureNode> {
     }
 
     private Node createDeclarationTree ( final ASTNode astNode, final Node root ) {
+        final long start = fMetrics.startPhase();
         fDeclarationConverter.initialize( root, fCompilation.getScanner() );
         if ( astNode instanceof TypeDeclaration ) {
             ( (TypeDeclaration) astNode ).traverse( fDeclarationConverter, (ClassScope) null );
@@ -166,7 +174,7 @@ public class JavaASTHelper implements ASTHelper<JavaStructureNode> {
         else if ( astNode instanceof FieldDeclaration ) {
             ( (FieldDeclaration) astNode ).traverse( fDeclarationConverter, null );
         }
-        return root;
+        return built( root, start );
     }
 
     @Override
@@ -187,20 +195,35 @@ public class JavaASTHelper implements ASTHelper<JavaStructureNode> {
     public Node createMethodBodyTree ( final JavaStructureNode node ) {
         final ASTNode astNode = node.getASTNode();
         if ( astNode instanceof AbstractMethodDeclaration ) {
+            final long start = fMetrics.startPhase();
             final Node root = createRootNode( node, astNode );
-            fBodyConverter.initialize( root, astNode, fComments, fCompilation.getScanner() );
+            fBodyConverter.initializeWithCommentIndex( root, astNode, fComments, fCompilation.getScanner() );
             ( (AbstractMethodDeclaration) astNode ).traverse( fBodyConverter, (ClassScope) null );
-            return root;
+            return built( root, start );
         }
         return null;
     }
 
+    private Node built ( final Node root, final long start ) {
+        fMetrics.endPhase( Phase.TREE_BUILD, start );
+        if ( fMetrics.isEnabled() ) {
+            long nodes = 0;
+            for ( final Enumeration< ? > e = root.preorderEnumeration(); e.hasMoreElements(); e.nextElement() ) {
+                nodes++;
+            }
+            fMetrics.count( Counter.NODES_BUILT, nodes );
+        }
+        return root;
+    }
+
     @Override
     public JavaStructureNode createStructureTree () {
-        final CompilationUnitDeclaration cu = fCompilation.getCompilationUnit();
-        final JavaStructureNode node = new JavaStructureNode( Type.CU, null, null, cu );
-        cu.traverse( new JavaStructureTreeBuilder( node ), (CompilationUnitScope) null );
-        return node;
+        return fParsedSource.getStructureTree();
+    }
+
+    @Override
+    public boolean hasBodySyntaxErrors () {
+        return fParsedSource.hasBodySyntaxError();
     }
 
     @Override
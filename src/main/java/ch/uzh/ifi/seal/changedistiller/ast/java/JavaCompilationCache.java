@@ -0,0 +1,292 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.lookup.CompilationUnitScope;
+
+import com.google.inject.Inject;
+
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillerOptions;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Phase;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.java.JavaStructureNode;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.java.JavaStructureNode.Type;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.java.JavaStructureTreeBuilder;
+
+/**
+ * Bounded, thread-safe cache of parsed Java sources.
+ * <p>
+ * Entries are addressed by the SHA-256 hash of the source content together with the Java version used to parse it.
+ * Hence, the right-hand version of one distillation is reused as the left-hand version of the next one when a
+ * history is distilled commit by commit. An entry holds the compilation unit, the cleaned comments and the structure
+ * tree of the source. The least recently used entry is evicted when the capacity is exceeded.
+ * <p>
+ * The compilation unit and the structure tree are shared between all users of an entry and must not be modified.
+ * With {@link BodyParsing#LAZY}, the only modification is the parsing of method bodies on demand, which is done once
+ * per body. With {@link DiffPrefilter#LINES}, the content hashes of the nodes of a structure tree are computed on
+ * demand, once per node.
+ * State that is consumed during tree conversion (the {@link org.eclipse.jdt.internal.compiler.parser.Scanner} and
+ * the comment list) is handed out as a fresh copy on each lookup.
+ */
+public class JavaCompilationCache {
+
+    /**
+     * Number of parsed sources kept if not configured otherwise.
+     */
+    public static final int                 DEFAULT_CAPACITY = 32;
+
+    private final int                       fCapacity;
+    private final Map<String, ParsedSource> fEntries;
+    private final DistillerOptions          fOptions;
+
+    /**
+     * Creates a new cache with {@link #DEFAULT_CAPACITY} and the {@link DistillerOptions#defaults() default options}.
+     */
+    public JavaCompilationCache () {
+        this( DEFAULT_CAPACITY );
+    }
+
+    /**
+     * Creates a new cache with {@link #DEFAULT_CAPACITY}.
+     *
+     * @param options
+     *            that determine how sources are parsed and to which metrics parsing is reported
+     */
+    @Inject
+    public JavaCompilationCache ( final DistillerOptions options ) {
+        this( DEFAULT_CAPACITY, options );
+    }
+
+    /**
+     * Creates a new cache with the {@link DistillerOptions#defaults() default options}.
+     *
+     * @param capacity
+     *            maximal number of parsed sources kept; <code>0</code> disables caching
+     */
+    public JavaCompilationCache ( final int capacity ) {
+        this( capacity, DistillerOptions.defaults() );
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param capacity
+     *            maximal number of parsed sources kept; <code>0</code> disables caching
+     * @param options
+     *            that determine how sources are parsed and to which metrics parsing is reported
+     */
+    public JavaCompilationCache ( final int capacity, final DistillerOptions options ) {
+        if ( capacity < 0 ) {
+            throw new IllegalArgumentException( "Capacity must not be negative: " + capacity );
+        }
+        fCapacity = capacity;
+        fOptions = options;
+        fEntries = new LinkedHashMap<String, ParsedSource>( 16, 0.75f, true ) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry ( final Map.Entry<String, ParsedSource> eldest ) {
+                return size() > fCapacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the parsed source for the given content, parsing it if it is not cached yet.
+     * <p>
+     * Parsing happens outside of the cache lock, so concurrent lookups of different sources do not block each other.
+     * If two threads parse the same source at once, the first parse that is stored wins.
+     *
+     * @param source
+     *            content to parse
+     * @param fileName
+     *            name of the compiled file, used for diagnostics only
+     * @param version
+     *            of Java used in the source (one of the <code>ClassFileConstants.JDK*</code> constants)
+     * @return the parsed source
+     */
+    public ParsedSource get ( final String source, final String fileName, final long version ) {
+        final String key = createKey( source, version );
+        synchronized ( fEntries ) {
+            final ParsedSource cached = fEntries.get( key );
+            if ( cached != null ) {
+                return cached;
+            }
+        }
+        final DistillerMetrics metrics = fOptions.getMetrics();
+        final long start = metrics.startPhase();
+        final ParsedSource parsed;
+        final boolean hashOnDemand = fOptions.getDiffPrefilter() == DiffPrefilter.LINES;
+        final LazyBodyParser bodyParser = fOptions.getBodyParsing() == BodyParsing.LAZY
+                ? new LazyBodyParser( source, fileName, version, metrics ) : null;
+        if ( ( bodyParser != null ) && !bodyParser.hasSyntaxError() ) {
+            parsed = new ParsedSource( bodyParser, version, hashOnDemand );
+        }
+        else {
+            // the diet parse recovers from syntax errors differently than a full parse
+            parsed = new ParsedSource( JavaCompilationUtils.compile( source, fileName, version ), version,
+                    hashOnDemand );
+        }
+        metrics.endPhase( Phase.PARSE, start );
+        synchronized ( fEntries ) {
+            final ParsedSource cached = fEntries.get( key );
+            if ( cached != null ) {
+                return cached;
+            }
+            fEntries.put( key, parsed );
+        }
+        return parsed;
+    }
+
+    /**
+     * Returns the number of cached sources.
+     *
+     * @return the number of cached sources
+     */
+    public int size () {
+        synchronized ( fEntries ) {
+            return fEntries.size();
+        }
+    }
+
+    /**
+     * Removes all cached sources.
+     */
+    public void clear () {
+        synchronized ( fEntries ) {
+            fEntries.clear();
+        }
+    }
+
+    private static String createKey ( final String source, final long version ) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance( "SHA-256" );
+            final byte[] hash = digest.digest( source.getBytes( StandardCharsets.UTF_8 ) );
+            final StringBuilder key = new StringBuilder( hash.length * 2 + 20 );
+            key.append( version ).append( ':' );
+            for ( final byte b : hash ) {
+                key.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+            }
+            return key.toString();
+        }
+        catch ( final NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( "SHA-256 not supported", e );
+        }
+    }
+
+    /**
+     * Parse result of a single source as stored in the {@link JavaCompilationCache}.
+     */
+    public static final class ParsedSource {
+
+        private final CompilationUnitDeclaration fCompilationUnit;
+        private final char[]                     fSource;
+        private final long                       fVersion;
+        private final List<Comment>              fComments;
+        private final LazyBodyParser             fBodyParser;
+        private final boolean                    fHashOnDemand;
+        private JavaStructureNode                fStructureTree;
+
+        ParsedSource ( final JavaCompilation compilation, final long version, final boolean hashOnDemand ) {
+            this( compilation, version, null, hashOnDemand );
+        }
+
+        ParsedSource ( final LazyBodyParser bodyParser, final long version, final boolean hashOnDemand ) {
+            this( bodyParser.getCompilation(), version, bodyParser, hashOnDemand );
+        }
+
+        private ParsedSource ( final JavaCompilation compilation, final long version,
+                final LazyBodyParser bodyParser, final boolean hashOnDemand ) {
+            fCompilationUnit = compilation.getCompilationUnit();
+            fSource = compilation.getScanner().source;
+            fVersion = version;
+            fComments = cleanComments( compilation );
+            fBodyParser = bodyParser;
+            fHashOnDemand = hashOnDemand;
+        }
+
+        private static List<Comment> cleanComments ( final JavaCompilation compilation ) {
+            final CommentCollector collector = new CommentCollector( compilation.getCompilationUnit(),
+                    compilation.getSource() );
+            collector.collect();
+            final CommentCleaner cleaner = new CommentCleaner( compilation.getSource() );
+            for ( final Comment comment : collector.getComments() ) {
+                cleaner.process( comment );
+            }
+            return cleaner.getComments();
+        }
+
+        /**
+         * Returns whether a method body parsed on demand had a syntax error.
+         *
+         * @return <code>true</code> if a body parsed on demand had a syntax error, <code>false</code> otherwise
+         */
+        public boolean hasBodySyntaxError () {
+            return ( fBodyParser != null ) && fBodyParser.hasSyntaxError();
+        }
+
+        /**
+         * Returns a compilation of the cached compilation unit with a scanner of its own.
+         *
+         * @return the compilation
+         */
+        public JavaCompilation getCompilation () {
+            return new JavaCompilation( fCompilationUnit, JavaCompilationUtils.createScanner( fSource, fVersion ) );
+        }
+
+        /**
+         * Returns a modifiable copy of the cleaned comments of the source.
+         *
+         * @return the cleaned comments
+         */
+        public List<Comment> getComments () {
+            return new LinkedList<Comment>( fComments );
+        }
+
+        /**
+         * Returns the structure tree of the source. The tree is built on first access and shared afterwards. If the
+         * source was diet parsed, the bodies of methods are parsed when their nodes are accessed.
+         *
+         * @return the structure tree
+         */
+        public synchronized JavaStructureNode getStructureTree () {
+            if ( fStructureTree == null ) {
+                final JavaStructureNode node = new JavaStructureNode( Type.CU, null, null, fCompilationUnit );
+                fCompilationUnit.traverse(
+                        new JavaStructureTreeBuilder( node, fSource, fVersion, fBodyParser, fHashOnDemand ),
+                        (CompilationUnitScope) null );
+                fStructureTree = node;
+            }
+            return fStructureTree;
+        }
+    }
+
+}
@@ -21,6 +21,7 @@ import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
 import org.eclipse.jdt.internal.compiler.env.ICompilationUnit;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
 import org.eclipse.jdt.internal.compiler.parser.Parser;
+import org.eclipse.jdt.internal.compiler.parser.Scanner;
 import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
 import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
 import org.eclipse.jdt.internal.core.util.CommentRecorderParser;
@@ -78,23 +79,54 @@ public final class JavaCompilationUtils {
      *             if the file has syntax errors.
      */
     public static JavaCompilation compile ( final File file, final long version ) {
+        return compile( FileUtils.getContent( file ), file.getName(), version );
+    }
+
+    /**
+     * Returns the compiled source as a {@link JavaCompilation}.
+     *
+     * @param source
+     *            Java source to compile
+     * @param fileName
+     *            name of the compiled file
+     * @param version
+     *            of Java used in the source
+     * @return the compilation of the source
+     */
+    public static JavaCompilation compile ( final String source, final String fileName, final long version ) {
         final CompilerOptions options = getDefaultCompilerOptions( version );
         final Parser parser = createCommentRecorderParser( options );
-        final ICompilationUnit cu = createCompilationUnit( FileUtils.getContent( file ), file.getName() );
+        final ICompilationUnit cu = createCompilationUnit( source, fileName );
         final CompilationResult compilationResult = createDefaultCompilationResult( cu, options );
         return new JavaCompilation( parser.parse( cu, compilationResult ), parser.scanner );
     }
 
-    private static CompilationResult createDefaultCompilationResult ( final ICompilationUnit cu,
+    /**
+     * Returns a new scanner for the given source configured like the scanner of the parser used in
+     * {@link #compile(String, String, long)}.
+     *
+     * @param source
+     *            the scanner is reset to
+     * @param version
+     *            of Java used in the source
+     * @return the scanner
+     */
+    public static Scanner createScanner ( final char[] source, final long version ) {
+        final Scanner scanner = new Scanner( false, false, false, version, null, null, true );
+        scanner.setSource( source );
+        return scanner;
+    }
+
+    static CompilationResult createDefaultCompilationResult ( final ICompilationUnit cu,
             final CompilerOptions options ) {
         return new CompilationResult( cu, 0, 0, options.maxProblemsPerUnit );
     }
 
-    private static ICompilationUnit createCompilationUnit ( final String source, final String filename ) {
+    static ICompilationUnit createCompilationUnit ( final String source, final String filename ) {
         return new CompilationUnit( source.toCharArray(), filename, null );
     }
 
-    private static CompilerOptions getDefaultCompilerOptions ( final long version ) {
+    static CompilerOptions getDefaultCompilerOptions ( final long version ) {
         final CompilerOptions options = new CompilerOptions();
         options.docCommentSupport = true;
         options.complianceLevel = version;
@@ -113,7 +145,7 @@ public final class JavaCompilationUtils {
         return options;
     }
 
-    private static Parser createCommentRecorderParser ( final CompilerOptions options ) {
+    static Parser createCommentRecorderParser ( final CompilerOptions options ) {
         return new CommentRecorderParser( new ProblemReporter( DefaultErrorHandlingPolicies.proceedWithAllProblems(),
                 options, new DefaultProblemFactory() ), false );
     }
@@ -22,6 +22,7 @@ import java.util.Stack;
 import org.eclipse.jdt.core.compiler.InvalidInputException;
 import org.eclipse.jdt.internal.compiler.ASTVisitor;
 import org.eclipse.jdt.internal.compiler.ast.ASTNode;
+import org.eclipse.jdt.internal.compiler.ast.AbstractMethodDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.AllocationExpression;
 import org.eclipse.jdt.internal.compiler.ast.AssertStatement;
 import org.eclipse.jdt.internal.compiler.ast.Assignment;
@@ -79,7 +80,7 @@ import ch.uzh.ifi.seal.changedistiller.treedifferencing.Node;
 public class JavaMethodBodyConverter extends ASTVisitor {
 
     private static final String        COLON = ":";
-    private List<Comment>              fComments;
+    private CommentIndex               fComments;
     private final Stack<Node>          fNodeStack;
     private String                     fSource;
     private Scanner                    fScanner;
@@ -90,13 +91,15 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     private final Stack<ASTNode[]>     fLastAssociationCandidate;
     private final Stack<Node[]>        fLastCommentNodeTuples;
     private final ASTNodeTypeConverter fASTHelper;
+    private final SourceSlicer         fSlicer;
 
     @Inject
-    JavaMethodBodyConverter ( final ASTNodeTypeConverter astHelper ) {
+    JavaMethodBodyConverter ( final ASTNodeTypeConverter astHelper, final NodeValueStyle valueStyle ) {
         fNodeStack = new Stack<Node>();
         fLastAssociationCandidate = new Stack<ASTNode[]>();
         fLastCommentNodeTuples = new Stack<Node[]>();
         fASTHelper = astHelper;
+        fSlicer = valueStyle == NodeValueStyle.SOURCE_SLICE ? new SourceSlicer() : null;
     }
 
     /**
@@ -107,12 +110,30 @@ public class JavaMethodBodyConverter extends ASTVisitor {
      * @param methodRoot
      *            the method AST root node, necessary for comment attachment
      * @param comments
-     *            to associate
+     *            to associate; the list is not modified
      * @param scanner
      *            the scanner with which the AST was created
      */
     public void initialize ( final Node root, final ASTNode methodRoot, final List<Comment> comments,
             final Scanner scanner ) {
+        initializeWithCommentIndex( root, methodRoot, comments != null ? new CommentIndex( comments ) : null,
+                scanner );
+    }
+
+    /**
+     * Initializes the method body converter with comments that are shared by the method bodies of a file.
+     *
+     * @param root
+     *            the root node of the tree to generate
+     * @param methodRoot
+     *            the method AST root node, necessary for comment attachment
+     * @param comments
+     *            to associate; associated comments are taken out of the index
+     * @param scanner
+     *            the scanner with which the AST was created
+     */
+    public void initializeWithCommentIndex ( final Node root, final ASTNode methodRoot,
+            final CommentIndex comments, final Scanner scanner ) {
         fNodeStack.clear();
         fLastAssociationCandidate.clear();
         fLastCommentNodeTuples.clear();
@@ -122,6 +143,9 @@ public class JavaMethodBodyConverter extends ASTVisitor {
         fComments = comments;
         fScanner = scanner;
         fSource = String.valueOf( scanner.getSource() );
+        if ( fSlicer != null ) {
+            fSlicer.initialize( scanner.getSource() );
+        }
     }
 
     /**
@@ -134,20 +158,20 @@ public class JavaMethodBodyConverter extends ASTVisitor {
         if ( !hasComments() || isUnusableNode( node ) ) {
             return;
         }
-        int i = 0;
-        while ( i < fComments.size() ) {
-            final Comment comment = fComments.get( i );
-            if ( previousNodeExistsAndIsNotTheFirstNode() && isCommentBetweenCurrentNodeAndLastNode( comment, node ) ) {
-                final ASTNode[] candidate = new ASTNode[] { fLastVisitedNode, comment, node };
-                fLastAssociationCandidate.push( candidate );
-                final Node[] nodeTuple = new Node[2];
-                nodeTuple[0] = fLastAddedNode; // preceeding node
-                insertCommentIntoTree( comment );
-                nodeTuple[1] = fLastAddedNode; // comment
-                fLastCommentNodeTuples.push( nodeTuple );
-                fComments.remove( i-- );
+        // inserting a comment makes it the last visited node, so the comments between the last node and the current
+        // node are taken in source order
+        while ( previousNodeExistsAndIsNotTheFirstNode() ) {
+            final Comment comment = fComments.take( fLastVisitedNode.sourceStart(), node.sourceStart() );
+            if ( comment == null ) {
+                return;
             }
-            i++;
+            final ASTNode[] candidate = new ASTNode[] { fLastVisitedNode, comment, node };
+            fLastAssociationCandidate.push( candidate );
+            final Node[] nodeTuple = new Node[2];
+            nodeTuple[0] = fLastAddedNode; // preceeding node
+            insertCommentIntoTree( comment );
+            nodeTuple[1] = fLastAddedNode; // comment
+            fLastCommentNodeTuples.push( nodeTuple );
         }
     }
 
@@ -165,11 +189,6 @@ public class JavaMethodBodyConverter extends ASTVisitor {
         return ( fLastVisitedNode != null ) && ( fLastVisitedNode.sourceStart() > 0 );
     }
 
-    private boolean isCommentBetweenCurrentNodeAndLastNode ( final Comment comment, final ASTNode currentNode ) {
-        return ( fLastVisitedNode.sourceStart() < comment.sourceStart() )
-                && ( comment.sourceStart() < currentNode.sourceStart() );
-    }
-
     private boolean hasComments () {
         return ( fComments != null ) && !fComments.isEmpty();
     }
@@ -329,6 +348,16 @@ public class JavaMethodBodyConverter extends ASTVisitor {
         if ( node instanceof CompilationUnitDeclaration ) {
             return "";
         }
+        if ( fSlicer != null ) {
+            if ( node instanceof Comment ) {
+                return getCommentString( node );
+            }
+            // the slice of a method starts at its name, hence does not contain the javadoc
+            if ( node instanceof AbstractMethodDeclaration ) {
+                return fSlicer.slice( node.sourceStart(), ( (AbstractMethodDeclaration) node ).declarationSourceEnd );
+            }
+            return print( node );
+        }
         final String result = node.toString();
         // method and type declaration strings contain their javadoc
         // get rid of the javadoc
@@ -345,6 +374,57 @@ public class JavaMethodBodyConverter extends ASTVisitor {
         return ( (Comment) node ).getComment();
     }
 
+    /**
+     * Returns the value of the given node in the configured {@link NodeValueStyle}.
+     */
+    private String print ( final ASTNode node ) {
+        if ( fSlicer == null ) {
+            return node.toString();
+        }
+        if ( node instanceof LocalDeclaration ) {
+            return printLocalDeclaration( (LocalDeclaration) node );
+        }
+        return fSlicer.slice( node.sourceStart(), node.sourceEnd() );
+    }
+
+    private String printAll ( final Expression[] expressions ) {
+        if ( fSlicer == null ) {
+            return Arrays.toString( expressions );
+        }
+        final StringBuilder result = new StringBuilder().append( '[' );
+        for ( int i = 0; i < expressions.length; i++ ) {
+            if ( i > 0 ) {
+                result.append( ", " );
+            }
+            result.append( print( expressions[i] ) );
+        }
+        return result.append( ']' ).toString();
+    }
+
+    private String printElementVariable ( final LocalDeclaration elementVariable ) {
+        if ( fSlicer == null ) {
+            return elementVariable.printAsExpression( 0, new StringBuffer() ).toString();
+        }
+        return fSlicer.slice( elementVariable.declarationSourceStart, elementVariable.sourceEnd() );
+    }
+
+    private String printLocalDeclaration ( final LocalDeclaration localDeclaration ) {
+        if ( fSlicer == null ) {
+            return localDeclaration.toString();
+        }
+        // declarations of several variables share the modifiers and the type, hence the type is sliced separately
+        final int typeEnd = fSlicer.findEndOfType( localDeclaration.type.sourceEnd(), localDeclaration.sourceStart() );
+        return fSlicer.slice( localDeclaration.declarationSourceStart, typeEnd ) + ' '
+                + fSlicer.slice( localDeclaration.sourceStart(), getEnd( localDeclaration ) ) + ';';
+    }
+
+    private static int getEnd ( final LocalDeclaration localDeclaration ) {
+        if ( localDeclaration.initialization != null ) {
+            return localDeclaration.initialization.sourceEnd();
+        }
+        return localDeclaration.sourceEnd;
+    }
+
     @Override
     public boolean visit ( final Assignment assignment, final BlockScope scope ) {
         return visitExpression( assignment, scope );
@@ -408,9 +488,9 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     @Override
     public boolean visit ( final AssertStatement assertStatement, final BlockScope scope ) {
         preVisit( assertStatement );
-        String value = assertStatement.assertExpression.toString();
+        String value = print( assertStatement.assertExpression );
         if ( assertStatement.exceptionArgument != null ) {
-            value += COLON + assertStatement.exceptionArgument.toString();
+            value += COLON + print( assertStatement.exceptionArgument );
         }
         push( fASTHelper.convertNode( assertStatement ), value, assertStatement.sourceStart(),
                 assertStatement.sourceEnd() + 1 );
@@ -450,7 +530,9 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     @Override
     public boolean visit ( final ExplicitConstructorCall explicitConstructor, final BlockScope scope ) {
         preVisit( explicitConstructor );
-        pushValuedNode( explicitConstructor, explicitConstructor.toString() );
+        // an implicit super constructor call has no source
+        pushValuedNode( explicitConstructor, explicitConstructor.isImplicitSuper() ? explicitConstructor.toString()
+                : print( explicitConstructor ) );
         return false;
     }
 
@@ -477,7 +559,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     @Override
     public boolean visit ( final DoStatement doStatement, final BlockScope scope ) {
         preVisit( doStatement );
-        pushValuedNode( doStatement, doStatement.condition.toString() );
+        pushValuedNode( doStatement, print( doStatement.condition ) );
         doStatement.action.traverse( this, scope );
         return false;
     }
@@ -504,9 +586,8 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     @Override
     public boolean visit ( final ForeachStatement foreachStatement, final BlockScope scope ) {
         preVisit( foreachStatement );
-        pushValuedNode( foreachStatement,
-                foreachStatement.elementVariable.printAsExpression( 0, new StringBuffer() ).toString() + COLON
-                        + foreachStatement.collection.toString() );
+        pushValuedNode( foreachStatement, printElementVariable( foreachStatement.elementVariable ) + COLON
+                + print( foreachStatement.collection ) );
         foreachStatement.action.traverse( this, scope );
         return false;
     }
@@ -532,7 +613,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
         // all expression processed in this method are statements
         // - use printStatement to get the ';' at the end of the expression
         // - extend the length of the statement by 1 to add ';'
-        push( fASTHelper.convertNode( expression ), expression.toString() + ';', expression.sourceStart(),
+        push( fASTHelper.convertNode( expression ), print( expression ) + ';', expression.sourceStart(),
                 expression.sourceEnd() + 1 );
         return false;
     }
@@ -560,7 +641,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
         // loop condition
         String value = "";
         if ( forStatement.condition != null ) {
-            value = forStatement.condition.toString();
+            value = print( forStatement.condition );
         }
         pushValuedNode( forStatement, value );
         forStatement.action.traverse( this, scope );
@@ -568,7 +649,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
         // loop init
         if ( forStatement.initializations != null && forStatement.initializations.length > 0 ) {
             for ( final Statement initStatement : forStatement.initializations ) {
-                push( JavaEntityType.FOR_INIT, initStatement.toString(), initStatement.sourceStart(),
+                push( JavaEntityType.FOR_INIT, print( initStatement ), initStatement.sourceStart(),
                         initStatement.sourceEnd() );
 
                 initStatement.traverse( this, scope );
@@ -580,7 +661,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
         // loop afterthought
         if ( forStatement.increments != null && forStatement.increments.length > 0 ) {
             for ( final Statement incrementStatement : forStatement.increments ) {
-                push( JavaEntityType.FOR_INCR, incrementStatement.toString(), incrementStatement.sourceStart(),
+                push( JavaEntityType.FOR_INCR, print( incrementStatement ), incrementStatement.sourceStart(),
                         incrementStatement.sourceEnd() );
 
                 incrementStatement.traverse( this, scope );
@@ -601,7 +682,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     @Override
     public boolean visit ( final IfStatement ifStatement, final BlockScope scope ) {
         preVisit( ifStatement );
-        final String expression = ifStatement.condition.toString();
+        final String expression = print( ifStatement.condition );
         push( JavaEntityType.IF_STATEMENT, expression, ifStatement.sourceStart(), ifStatement.sourceEnd() );
         if ( ifStatement.thenStatement != null ) {
             push( JavaEntityType.THEN_STATEMENT, expression, ifStatement.thenStatement.sourceStart(),
@@ -642,14 +723,8 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     public boolean visit ( final LocalDeclaration localDeclaration, final BlockScope scope ) {
         preVisit( localDeclaration );
         final int start = localDeclaration.type.sourceStart();
-        int end = start;
-        if ( localDeclaration.initialization != null ) {
-            end = localDeclaration.initialization.sourceEnd();
-        }
-        else {
-            end = localDeclaration.sourceEnd;
-        }
-        push( fASTHelper.convertNode( localDeclaration ), localDeclaration.toString(), start, end + 1 );
+        final int end = getEnd( localDeclaration );
+        push( fASTHelper.convertNode( localDeclaration ), printLocalDeclaration( localDeclaration ), start, end + 1 );
         return true;
     }
 
@@ -675,7 +750,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     public boolean visit ( final ReturnStatement returnStatement, final BlockScope scope ) {
         preVisit( returnStatement );
         pushValuedNode( returnStatement,
-                returnStatement.expression != null ? "return " + returnStatement.expression.toString() + ';' : "" );
+                returnStatement.expression != null ? "return " + print( returnStatement.expression ) + ';' : "" );
         return false;
     }
 
@@ -689,7 +764,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     public boolean visit ( final CaseStatement caseStatement, final BlockScope scope ) {
         preVisit( caseStatement );
         pushValuedNode( caseStatement,
-                caseStatement.constantExpressions != null ? Arrays.toString( caseStatement.constantExpressions )
+                caseStatement.constantExpressions != null ? printAll( caseStatement.constantExpressions )
                         : "default" );
         return false;
     }
@@ -703,7 +778,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     @Override
     public boolean visit ( final SwitchStatement switchStatement, final BlockScope scope ) {
         preVisit( switchStatement );
-        pushValuedNode( switchStatement, switchStatement.expression.toString() );
+        pushValuedNode( switchStatement, print( switchStatement.expression ) );
         visitNodes( switchStatement.statements, scope );
         return true;
     }
@@ -717,7 +792,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     @Override
     public boolean visit ( final SynchronizedStatement synchronizedStatement, final BlockScope scope ) {
         preVisit( synchronizedStatement );
-        pushValuedNode( synchronizedStatement, synchronizedStatement.expression.toString() );
+        pushValuedNode( synchronizedStatement, print( synchronizedStatement.expression ) );
         return true;
     }
 
@@ -730,7 +805,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     @Override
     public boolean visit ( final ThrowStatement throwStatement, final BlockScope scope ) {
         preVisit( throwStatement );
-        pushValuedNode( throwStatement, throwStatement.exception.toString() + ';' );
+        pushValuedNode( throwStatement, print( throwStatement.exception ) + ';' );
         return false;
     }
 
@@ -744,7 +819,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     @Override
     public boolean visit ( final YieldStatement yieldStatement, final BlockScope scope ) {
         preVisit( yieldStatement );
-        pushValuedNode( yieldStatement, yieldStatement.toString() );
+        pushValuedNode( yieldStatement, print( yieldStatement ) );
         return true;
     }
 
@@ -758,7 +833,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     public boolean visit ( final LambdaExpression lambdaExpression, final BlockScope blockScope ) {
 
         preVisit( lambdaExpression );
-        pushValuedNode( lambdaExpression, lambdaExpression.toString() );
+        pushValuedNode( lambdaExpression, print( lambdaExpression ) );
         return true;
 
     }
@@ -799,7 +874,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
             for ( int i = 0; i < node.catchArguments.length; i++ ) {
                 final int catchClauseSourceStart = retrieveStartingCatchPosition( start,
                         node.catchArguments[i].sourceStart );
-                push( JavaEntityType.CATCH_CLAUSE, node.catchArguments[i].type.toString(), catchClauseSourceStart,
+                push( JavaEntityType.CATCH_CLAUSE, print( node.catchArguments[i].type ), catchClauseSourceStart,
                         node.catchBlocks[i].sourceEnd );
                 node.catchBlocks[i].traverse( this, scope );
                 pop( node.catchArguments[i].type );
@@ -838,7 +913,7 @@ public class JavaMethodBodyConverter extends ASTVisitor {
     @Override
     public boolean visit ( final WhileStatement whileStatement, final BlockScope scope ) {
         preVisit( whileStatement );
-        push( fASTHelper.convertNode( whileStatement ), whileStatement.condition.toString(),
+        push( fASTHelper.convertNode( whileStatement ), print( whileStatement.condition ),
                 whileStatement.sourceStart(), whileStatement.sourceEnd );
         whileStatement.action.traverse( this, scope );
         return false;
@@ -20,9 +20,16 @@ package ch.uzh.ifi.seal.changedistiller.ast.java;
  * #L%
  */
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import ch.uzh.ifi.seal.changedistiller.distilling.SourceCodeChangeClassifier;
 import ch.uzh.ifi.seal.changedistiller.model.classifiers.ChangeType;
@@ -38,6 +45,10 @@ import ch.uzh.ifi.seal.changedistiller.model.entities.Update;
 
 /**
  * Implementation of {@link SourceCodeChangeClassifier} for the Java language.
+ * <p>
+ * The operations of the edit script are indexed by their root and parent entity, so finding the counterpart of an
+ * operation (e.g., the deleted modifier an inserted modifier replaces) does not scan all operations. Operations are
+ * removed by identity.
  * 
  * @author Beat Fluri
  */
@@ -50,26 +61,32 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
     private static final String PUBLIC = "public";
     private static final String VOID_RETURN = ": void";
 
-    private List<Insert> fInserts;
-    private List<Delete> fDeletes;
-    private List<Move> fMoves;
-    private List<Update> fUpdates;
+    /**
+     * Index key of the deletes that may replace an inserted parent class.
+     */
+    private static final Object PARENT_CLASS_TYPES = new Object();
 
-    private List<Insert> fInsertsToDelete;
+    private Operations<Insert> fInserts;
+    private Operations<Delete> fDeletes;
+    private Operations<Move> fMoves;
+    private Operations<Update> fUpdates;
+
+    private Set<Insert> fInsertsToDelete;
 
     @Override
     public List<SourceCodeChange> classifySourceCodeChanges(List<? extends SourceCodeChange> sourceCodeChanges) {
-    	List<SourceCodeChange> classifiedChanges = new LinkedList<SourceCodeChange>();
-    	
+        List<SourceCodeChange> classifiedChanges = new ArrayList<SourceCodeChange>();
+        Set<SourceCodeChange> classified = new HashSet<SourceCodeChange>();
+
         splitOperations(sourceCodeChanges);
-        
-        fInsertsToDelete = new LinkedList<Insert>();
+
+        fInsertsToDelete = Collections.newSetFromMap(new IdentityHashMap<Insert, Boolean>());
         SourceCodeChange scc = null;
         for (Iterator<Insert> it = fInserts.iterator(); it.hasNext();) {
             Insert ins = it.next();
             if (!fInsertsToDelete.contains(ins)) {
                 scc = classify(ins);
-                if ((scc != null) && !classifiedChanges.contains(scc)) {
+                if ((scc != null) && classified.add(scc)) {
                     classifiedChanges.add(scc);
                     it.remove();
                 }
@@ -82,7 +99,7 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
         for (Iterator<Delete> it = fDeletes.iterator(); it.hasNext();) {
             Delete del = it.next();
             scc = classify(del);
-            if ((scc != null) && !classifiedChanges.contains(scc)) {
+            if ((scc != null) && classified.add(scc)) {
                 classifiedChanges.add(scc);
                 it.remove();
             }
@@ -90,7 +107,7 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
         for (Iterator<Move> it = fMoves.iterator(); it.hasNext();) {
             Move mov = it.next();
             scc = classify(mov);
-            if ((scc != null) && !classifiedChanges.contains(scc)) {
+            if ((scc != null) && classified.add(scc)) {
                 classifiedChanges.add(scc);
                 it.remove();
             }
@@ -98,7 +115,7 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
         for (Iterator<Update> it = fUpdates.iterator(); it.hasNext();) {
             Update upd = it.next();
             scc = classify(upd);
-            if ((scc != null) && !classifiedChanges.contains(scc)) {
+            if ((scc != null) && classified.add(scc)) {
                 classifiedChanges.add(scc);
                 it.remove();
             }
@@ -155,20 +172,13 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
                 insert.setChangeType(ChangeType.PARENT_INTERFACE_INSERT);
                 result = insert;
             } else {
-                boolean check = true;
-                Delete del = null;
-                for (Iterator<Delete> it = fDeletes.iterator(); it.hasNext() && check;) {
-                    del = it.next();
-                    if ((del.getRootEntity().getType() == JavaEntityType.CLASS)
-                            && (del.getParentEntity().getType() != JavaEntityType.SUPER_INTERFACE_TYPES)
-                            && del.getChangedEntity().getType().isType()) {
-                        check = false;
-                    }
-                }
-                if (check) {
+                // any deleted type of a class that is not an interface is the replaced parent class
+                Iterator<Delete> candidates = fDeletes.get(PARENT_CLASS_TYPES).iterator();
+                if (!candidates.hasNext()) {
                     insert.setChangeType(ChangeType.PARENT_CLASS_INSERT);
                     result = insert;
                 } else {
+                    Delete del = candidates.next();
                     result =
                             new Update(
                                     insert.getRootEntity(),
@@ -338,7 +348,13 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
                 boolean check = true;
                 // if a non-void type deletion in method declaration occurred
                 // => RETURN_TYPE_CHANGE
-                for (Iterator<Delete> it = fDeletes.iterator(); it.hasNext() && check;) {
+                Iterable<Delete> candidates =
+                        fDeletes.select(
+                                insert.getRootEntity().getType(),
+                                insert.getRootEntity().getUniqueName(),
+                                JavaEntityType.METHOD_DECLARATION,
+                                insert.getParentEntity().getUniqueName());
+                for (Iterator<Delete> it = candidates.iterator(); it.hasNext() && check;) {
                     del = it.next();
                     if ((insert.getRootEntity().getType() == del.getRootEntity().getType())
                             && insert.getRootEntity().getUniqueName().equals(del.getRootEntity().getUniqueName())
@@ -1019,7 +1035,7 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
             String structureEntityName,
             EntityType parentEntityType,
             String parentEntityName) {
-        for (Delete del : fDeletes) {
+        for (Delete del : fDeletes.select(structureEntityType, structureEntityName, parentEntityType, parentEntityName)) {
             if (isEqual(del.getRootEntity(), structureEntityType, structureEntityName)
                     && isEqual(del.getParentEntity(), parentEntityType, parentEntityName)
                     && del.getChangedEntity().getType().isType()) {
@@ -1036,7 +1052,7 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
             String parentEntityName,
             EntityType entityType,
             String entityName) {
-        for (Delete del : fDeletes) {
+        for (Delete del : fDeletes.select(structureEntityType, structureEntityName, parentEntityType, parentEntityName)) {
             if (isEqual(del.getRootEntity(), structureEntityType, structureEntityName)
                     && isEqual(del.getParentEntity(), parentEntityType, parentEntityName)
                     && isEqual(del.getChangedEntity(), entityType, entityName)) {
@@ -1053,7 +1069,7 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
             String parentEntityName,
             EntityType entityType,
             String entityName) {
-        for (Insert ins : fInserts) {
+        for (Insert ins : fInserts.select(structureEntityType, structureEntityName, parentEntityType, parentEntityName)) {
             if (isEqual(ins.getRootEntity(), structureEntityType, structureEntityName)
                     && isEqual(ins.getParentEntity(), parentEntityType, parentEntityName)
                     && isEqual(ins.getChangedEntity(), entityType, entityName)) {
@@ -1072,7 +1088,9 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
             String newParentEntityName,
             EntityType entityType,
             String entityName) {
-        for (Move mov : fMoves) {
+        Iterable<Move> candidates =
+                fMoves.select(structureEntityType, structureEntityName, newParentEntityType, newParentEntityName);
+        for (Move mov : candidates) {
             if (isEqual(mov.getRootEntity(), structureEntityType, structureEntityName)
                     && isEqual(mov.getParentEntity(), oldParentEntityType, oldParentEntityName)
                     && isEqual(mov.getNewParentEntity(), newParentEntityType, newParentEntityName)
@@ -1118,18 +1136,22 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
     }
 
     private void splitOperations(List<? extends SourceCodeChange> operations) {
-        fInserts = new LinkedList<Insert>();
-        fDeletes = new LinkedList<Delete>();
-        fMoves = new LinkedList<Move>();
-        fUpdates = new LinkedList<Update>();
+        fInserts = new Operations<Insert>();
+        fDeletes = new Operations<Delete>();
+        fMoves = new Operations<Move>();
+        fUpdates = new Operations<Update>();
         for (SourceCodeChange op : operations) {
             if (isConsistent(op)) {
                 if (op instanceof Insert) {
-                    fInserts.add((Insert) op);
+                    fInserts.add((Insert) op, new Key(op.getRootEntity(), op.getParentEntity()));
                 } else if (op instanceof Delete) {
-                    fDeletes.add((Delete) op);
+                    if (isParentClassType(op)) {
+                        fDeletes.add((Delete) op, new Key(op.getRootEntity(), op.getParentEntity()), PARENT_CLASS_TYPES);
+                    } else {
+                        fDeletes.add((Delete) op, new Key(op.getRootEntity(), op.getParentEntity()));
+                    }
                 } else if (op instanceof Move) {
-                    fMoves.add((Move) op);
+                    fMoves.add((Move) op, new Key(op.getRootEntity(), ((Move) op).getNewParentEntity()));
                 } else {
                     fUpdates.add((Update) op);
                 }
@@ -1137,6 +1159,12 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
         }
     }
 
+    private boolean isParentClassType(SourceCodeChange op) {
+        return (op.getRootEntity().getType() == JavaEntityType.CLASS)
+                && (op.getParentEntity().getType() != JavaEntityType.SUPER_INTERFACE_TYPES)
+                && op.getChangedEntity().getType().isType();
+    }
+
     private boolean isConsistent(SourceCodeChange op) {
         boolean result = op.getChangedEntity() != null;
         result &= op.getParentEntity() != null;
@@ -1150,4 +1178,163 @@ public class JavaSourceCodeChangeClassifier implements SourceCodeChangeClassifie
         return result;
     }
 
+    /**
+     * Index key of an operation: the type and name of its root entity and of its parent entity. Names and types are
+     * compared by value, like {@link #isEqual(SourceCodeEntity, EntityType, String)} does.
+     */
+    private static final class Key {
+
+        private final EntityType fRootType;
+        private final String fRootName;
+        private final EntityType fParentType;
+        private final String fParentName;
+
+        Key(StructureEntityVersion root, SourceCodeEntity parent) {
+            this(root.getType(), root.getUniqueName(), parent.getType(), parent.getUniqueName());
+        }
+
+        Key(EntityType rootType, String rootName, EntityType parentType, String parentName) {
+            fRootType = rootType;
+            fRootName = rootName;
+            fParentType = parentType;
+            fParentName = parentName;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = hash(fRootType);
+            hash = 31 * hash + hash(fRootName);
+            hash = 31 * hash + hash(fParentType);
+            return 31 * hash + hash(fParentName);
+        }
+
+        private static int hash(Object o) {
+            return o != null ? o.hashCode() : 0;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return (fRootType == other.fRootType) && (fParentType == other.fParentType)
+                    && same(fRootName, other.fRootName) && same(fParentName, other.fParentName);
+        }
+
+        private static boolean same(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    /**
+     * Operations of one kind in edit script order. Operations are indexed by the keys given when adding them and are
+     * removed by identity. Removed operations are skipped by all iterators.
+     */
+    private static final class Operations<T extends SourceCodeChange> implements Iterable<T> {
+
+        private final List<T> fOperations = new ArrayList<T>();
+        private final Map<Object, List<T>> fIndex = new HashMap<Object, List<T>>();
+        private final Set<T> fRemoved = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+
+        void add(T operation, Object... keys) {
+            fOperations.add(operation);
+            for (Object key : keys) {
+                List<T> operations = fIndex.get(key);
+                if (operations == null) {
+                    operations = new ArrayList<T>(2);
+                    fIndex.put(key, operations);
+                }
+                operations.add(operation);
+            }
+        }
+
+        void remove(T operation) {
+            fRemoved.add(operation);
+        }
+
+        /**
+         * Returns the operations added with the given key.
+         */
+        Iterable<T> get(Object key) {
+            List<T> operations = fIndex.get(key);
+            if (operations == null) {
+                return Collections.emptyList();
+            }
+            return live(operations);
+        }
+
+        /**
+         * Returns the candidates for a search by root and parent entity. All operations are returned if any of the
+         * criteria is a wildcard (i.e., <code>null</code>), as such searches are not covered by the index.
+         */
+        Iterable<T> select(EntityType rootType, String rootName, EntityType parentType, String parentName) {
+            if ((rootType == null) || (rootName == null) || (parentType == null) || (parentName == null)) {
+                return this;
+            }
+            return get(new Key(rootType, rootName, parentType, parentName));
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return live(fOperations).iterator();
+        }
+
+        private Iterable<T> live(final List<T> operations) {
+            return new Iterable<T>() {
+
+                @Override
+                public Iterator<T> iterator() {
+                    return new LiveIterator(operations.iterator());
+                }
+            };
+        }
+
+        private final class LiveIterator implements Iterator<T> {
+
+            private final Iterator<T> fIterator;
+            private T fNext;
+            private T fCurrent;
+
+            LiveIterator(Iterator<T> iterator) {
+                fIterator = iterator;
+            }
+
+            @Override
+            public boolean hasNext() {
+                // operations may be removed while iterating, hence removal is checked as late as possible
+                while ((fNext == null) || fRemoved.contains(fNext)) {
+                    if (!fIterator.hasNext()) {
+                        fNext = null;
+                        return false;
+                    }
+                    fNext = fIterator.next();
+                }
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                fCurrent = fNext;
+                fNext = null;
+                return fCurrent;
+            }
+
+            @Override
+            public void remove() {
+                if (fCurrent == null) {
+                    throw new IllegalStateException();
+                }
+                fRemoved.add(fCurrent);
+                fCurrent = null;
+            }
+        }
+    }
+
 }
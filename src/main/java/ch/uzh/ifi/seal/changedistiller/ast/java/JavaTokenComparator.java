@@ -0,0 +1,155 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.internal.compiler.parser.Scanner;
+import org.eclipse.jdt.internal.compiler.parser.TerminalTokens;
+
+/**
+ * Classifies the difference between two Java sources by comparing their tokens, without parsing them.
+ * <p>
+ * The sources are scanned in lockstep until their tokens differ, hence the cost of classifying sources with code
+ * changes is proportional to the length of their common beginning. Javadoc comments count as code, as they are part of
+ * the AST and changes to them are distilled.
+ */
+public final class JavaTokenComparator {
+
+    /**
+     * Differences between two sources, from the least to the most significant.
+     */
+    public enum Difference {
+
+        /**
+         * The sources are equal.
+         */
+        IDENTICAL,
+
+        /**
+         * The sources differ in whitespace only.
+         */
+        FORMATTING,
+
+        /**
+         * The sources differ in whitespace and in line or block comments only. Their content hashes are equal (see
+         * {@link ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureNode#getContentHash()}), hence no
+         * changes are distilled from them.
+         */
+        COMMENTS,
+
+        /**
+         * The sources differ in code or Javadoc comments, or cannot be scanned.
+         */
+        CODE
+    }
+
+    private JavaTokenComparator () {
+    }
+
+    /**
+     * Classifies the difference between the given sources.
+     *
+     * @param left
+     *            source to compare with right
+     * @param right
+     *            source to compare with left
+     * @param javaVersion
+     *            version of Java used in both sources, as passed to the {@link JavaASTHelper}
+     * @return the most significant difference between the sources
+     */
+    public static Difference compare ( final CharSequence left, final CharSequence right, final String javaVersion ) {
+        final String leftSource = left.toString();
+        final String rightSource = right.toString();
+        if ( leftSource.equals( rightSource ) ) {
+            return Difference.IDENTICAL;
+        }
+        final long version = JavaASTHelper.getVersionNumber( javaVersion );
+        final Scanner leftScanner = createScanner( leftSource.toCharArray(), version );
+        final Scanner rightScanner = createScanner( rightSource.toCharArray(), version );
+        boolean skipComments = false;
+        try {
+            int leftToken = leftScanner.getNextToken();
+            int rightToken = rightScanner.getNextToken();
+            while ( ( leftToken != TerminalTokens.TokenNameEOF ) || ( rightToken != TerminalTokens.TokenNameEOF ) ) {
+                if ( !tokensEqual( leftScanner, leftToken, rightScanner, rightToken ) ) {
+                    if ( skipComments || ( !isComment( leftToken ) && !isComment( rightToken ) ) ) {
+                        return Difference.CODE;
+                    }
+                    // the tokens so far are equal, so comparing the code tokens can continue from here
+                    skipComments = true;
+                    leftToken = skipComments( leftScanner, leftToken );
+                    rightToken = skipComments( rightScanner, rightToken );
+                    continue;
+                }
+                leftToken = nextToken( leftScanner, skipComments );
+                rightToken = nextToken( rightScanner, skipComments );
+            }
+        }
+        catch ( final InvalidInputException e ) {
+            return Difference.CODE;
+        }
+        return skipComments ? Difference.COMMENTS : Difference.FORMATTING;
+    }
+
+    /*
+     * Scans like the scanner of the content hashes of structure nodes, so that equal tokens imply equal hashes.
+     */
+    private static Scanner createScanner ( final char[] source, final long version ) {
+        final Scanner scanner = new Scanner( true, false, false, version, null, null, true );
+        scanner.setSource( source );
+        return scanner;
+    }
+
+    private static int nextToken ( final Scanner scanner, final boolean skipComments ) throws InvalidInputException {
+        final int token = scanner.getNextToken();
+        return skipComments ? skipComments( scanner, token ) : token;
+    }
+
+    private static int skipComments ( final Scanner scanner, final int token ) throws InvalidInputException {
+        int next = token;
+        while ( isComment( next ) ) {
+            next = scanner.getNextToken();
+        }
+        return next;
+    }
+
+    private static boolean isComment ( final int token ) {
+        return ( token == TerminalTokens.TokenNameCOMMENT_LINE ) || ( token == TerminalTokens.TokenNameCOMMENT_BLOCK );
+    }
+
+    private static boolean tokensEqual ( final Scanner left, final int leftToken, final Scanner right,
+            final int rightToken ) {
+        if ( leftToken != rightToken ) {
+            return false;
+        }
+        final int length = left.currentPosition - left.startPosition;
+        if ( right.currentPosition - right.startPosition != length ) {
+            return false;
+        }
+        for ( int i = 0; i < length; i++ ) {
+            if ( left.source[left.startPosition + i] != right.source[right.startPosition + i] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,105 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.eclipse.jdt.internal.compiler.ast.AbstractMethodDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.FieldDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.Initializer;
+import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
+import org.eclipse.jdt.internal.compiler.env.ICompilationUnit;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.parser.Parser;
+
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Phase;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.java.MethodBodyParser;
+
+/**
+ * Diet parses a source and parses the bodies of its methods and constructors on demand.
+ * <p>
+ * A diet parse skips the bodies of methods, constructors and initializers. The bodies of initializers are parsed right
+ * away, as the types declared in them are part of the structure tree. Body parses share the parser of the diet parse
+ * and are therefore serialized.
+ */
+final class LazyBodyParser implements MethodBodyParser {
+
+    private final Parser                     fParser;
+    private final CompilationUnitDeclaration fCompilationUnit;
+    private final JavaCompilation            fCompilation;
+    private final DistillerMetrics           fMetrics;
+
+    LazyBodyParser ( final String source, final String fileName, final long version,
+            final DistillerMetrics metrics ) {
+        final CompilerOptions options = JavaCompilationUtils.getDefaultCompilerOptions( version );
+        final ICompilationUnit cu = JavaCompilationUtils.createCompilationUnit( source, fileName );
+        fParser = JavaCompilationUtils.createCommentRecorderParser( options );
+        fCompilationUnit = fParser.dietParse( cu, JavaCompilationUtils.createDefaultCompilationResult( cu, options ) );
+        fCompilation = new JavaCompilation( fCompilationUnit, fParser.scanner );
+        fMetrics = metrics;
+        if ( fCompilationUnit.types != null ) {
+            for ( final TypeDeclaration type : fCompilationUnit.types ) {
+                parseInitializers( type );
+            }
+        }
+    }
+
+    private void parseInitializers ( final TypeDeclaration type ) {
+        if ( type.fields != null ) {
+            for ( final FieldDeclaration field : type.fields ) {
+                if ( field instanceof Initializer ) {
+                    ( (Initializer) field ).parseStatements( fParser, type, fCompilationUnit );
+                }
+            }
+        }
+        if ( type.memberTypes != null ) {
+            for ( final TypeDeclaration memberType : type.memberTypes ) {
+                parseInitializers( memberType );
+            }
+        }
+    }
+
+    /**
+     * Returns the diet parsed compilation. Its scanner is reused by body parses.
+     *
+     * @return the compilation
+     */
+    JavaCompilation getCompilation () {
+        return fCompilation;
+    }
+
+    /**
+     * Returns whether the diet parse or one of the body parses so far had a syntax error.
+     *
+     * @return <code>true</code> if a syntax error was reported, <code>false</code> otherwise
+     */
+    synchronized boolean hasSyntaxError () {
+        return fCompilationUnit.compilationResult.hasSyntaxError;
+    }
+
+    @Override
+    public synchronized void parse ( final AbstractMethodDeclaration method ) {
+        final long start = fMetrics.startPhase();
+        method.parseStatements( fParser, fCompilationUnit );
+        fMetrics.endPhase( Phase.PARSE, start );
+    }
+
+}
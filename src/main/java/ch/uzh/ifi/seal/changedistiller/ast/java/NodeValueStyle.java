@@ -0,0 +1,41 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * How {@link JavaMethodBodyConverter} computes the values of the nodes of a method body tree.
+ */
+public enum NodeValueStyle {
+
+    /**
+     * Values are printed from the ecj AST, e.g., <code>a = (b + c);</code>. This is the style of earlier versions;
+     * distillation results are comparable to results computed by them.
+     */
+    PRINTED,
+
+    /**
+     * Values are slices of the source, with comments stripped and whitespace collapsed, e.g.,
+     * <code>a = b + c;</code>. Slicing does not print the AST, which makes building method body trees considerably
+     * cheaper, but values differ from {@link #PRINTED} ones in parentheses and spacing.
+     */
+    SOURCE_SLICE
+
+}
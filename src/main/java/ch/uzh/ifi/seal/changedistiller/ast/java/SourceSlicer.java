@@ -0,0 +1,176 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Computes normalized slices of a source: comments are stripped and whitespace outside of literals is collapsed to
+ * a single space. All slices of a slicer are built in one shared buffer, so slicing only allocates the resulting
+ * strings.
+ *
+ * @see NodeValueStyle#SOURCE_SLICE
+ */
+final class SourceSlicer {
+
+    private final StringBuilder fBuffer = new StringBuilder( 64 );
+    private char[]              fSource;
+
+    /**
+     * Initializes the slicer.
+     *
+     * @param source
+     *            to slice; the array is read, but not modified
+     */
+    void initialize ( final char[] source ) {
+        fSource = source;
+    }
+
+    /**
+     * Returns the normalized slice between the given positions.
+     *
+     * @param start
+     *            of the slice
+     * @param end
+     *            of the slice (inclusive)
+     * @return the normalized slice
+     */
+    String slice ( final int start, final int end ) {
+        fBuffer.setLength( 0 );
+        final int last = Math.min( end, fSource.length - 1 );
+        boolean space = false;
+        int i = Math.max( start, 0 );
+        while ( i <= last ) {
+            final char c = fSource[i];
+            if ( ( c == '/' ) && ( i < last ) && ( fSource[i + 1] == '/' ) ) {
+                i = skipLineComment( i + 2, last );
+                space = true;
+            }
+            else if ( ( c == '/' ) && ( i < last ) && ( fSource[i + 1] == '*' ) ) {
+                i = skipBlockComment( i + 2, last );
+                space = true;
+            }
+            else if ( Character.isWhitespace( c ) ) {
+                i++;
+                space = true;
+            }
+            else {
+                if ( space && ( fBuffer.length() > 0 ) ) {
+                    fBuffer.append( ' ' );
+                }
+                space = false;
+                if ( ( c == '"' ) || ( c == '\'' ) ) {
+                    i = copyLiteral( i, last );
+                }
+                else {
+                    fBuffer.append( c );
+                    i++;
+                }
+            }
+        }
+        return fBuffer.toString();
+    }
+
+    /**
+     * Returns the end of a type in a declaration. The end position of a type reference does not cover type arguments
+     * and dimensions, which are added up to the given limit.
+     *
+     * @param typeEnd
+     *            end position of the type reference
+     * @param limit
+     *            position of the declared name
+     * @return the end position of the type including its type arguments and dimensions
+     */
+    int findEndOfType ( final int typeEnd, final int limit ) {
+        int end = typeEnd;
+        int depth = 0;
+        for ( int i = typeEnd + 1; ( i < limit ) && ( i < fSource.length ); i++ ) {
+            final char c = fSource[i];
+            if ( c == '<' ) {
+                depth++;
+            }
+            else if ( c == '>' ) {
+                depth--;
+            }
+            else if ( ( depth == 0 ) && ( c != '[' ) && ( c != ']' ) && !Character.isWhitespace( c ) ) {
+                break;
+            }
+            if ( !Character.isWhitespace( c ) ) {
+                end = i;
+            }
+        }
+        return end;
+    }
+
+    private int skipLineComment ( final int start, final int last ) {
+        int i = start;
+        while ( ( i <= last ) && ( fSource[i] != '\n' ) && ( fSource[i] != '\r' ) ) {
+            i++;
+        }
+        return i;
+    }
+
+    private int skipBlockComment ( final int start, final int last ) {
+        int i = start;
+        while ( ( i < last ) && !( ( fSource[i] == '*' ) && ( fSource[i + 1] == '/' ) ) ) {
+            i++;
+        }
+        return i + 2;
+    }
+
+    private int copyLiteral ( final int start, final int last ) {
+        final char quote = fSource[start];
+        if ( isTextBlockDelimiter( start, last ) ) {
+            fBuffer.append( fSource, start, 3 );
+            int i = start + 3;
+            while ( i <= last ) {
+                if ( isTextBlockDelimiter( i, last ) ) {
+                    fBuffer.append( fSource, i, 3 );
+                    return i + 3;
+                }
+                i = copyCharacter( i, last );
+            }
+            return i;
+        }
+        fBuffer.append( quote );
+        int i = start + 1;
+        while ( i <= last ) {
+            final char c = fSource[i];
+            i = copyCharacter( i, last );
+            if ( c == quote ) {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private boolean isTextBlockDelimiter ( final int i, final int last ) {
+        return ( i + 2 <= last ) && ( fSource[i] == '"' ) && ( fSource[i + 1] == '"' ) && ( fSource[i + 2] == '"' );
+    }
+
+    private int copyCharacter ( final int i, final int last ) {
+        fBuffer.append( fSource[i] );
+        if ( ( fSource[i] == '\\' ) && ( i < last ) ) {
+            fBuffer.append( fSource[i + 1] );
+            return i + 2;
+        }
+        return i + 1;
+    }
+
+}
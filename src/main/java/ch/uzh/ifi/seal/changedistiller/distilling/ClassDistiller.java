@@ -14,9 +14,15 @@ import java.util.ArrayList;
  * governing permissions and limitations under the License. #L%
  */
 
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -41,6 +47,11 @@ import ch.uzh.ifi.seal.changedistiller.treedifferencing.Node;
 
 /**
  * Extracts changes from a class {@link StructureDiffNode}.
+ * <p>
+ * If an {@link Executor} is set, the fine-grained changes of changed methods and fields are distilled on the executor.
+ * Trees are still built and class histories still updated by the calling thread, and the distilled changes are merged
+ * in the same order as if they were distilled one after the other. Refactoring candidates are processed after all
+ * members are distilled.
  *
  * @author Beat Fluri
  * @author Giacomo Ghezzi
@@ -59,6 +70,9 @@ public class ClassDistiller {
     private final List<SourceCodeChange>        fChanges;
     private final RefactoringCandidateContainer fRefactoringContainer;
     private String                              fVersion;
+    private Executor                            fExecutor;
+    private final List<PendingMember>           fPendingMembers;
+    private final Map<StructureNode, Node>      fBodyTrees;
 
     /**
      * Creates a new class distiller.
@@ -87,6 +101,8 @@ public class ClassDistiller {
         fDistillerFactory = distillerFactory;
         fChanges = new LinkedList<SourceCodeChange>();
         fRefactoringContainer = new RefactoringCandidateContainer();
+        fPendingMembers = new ArrayList<PendingMember>();
+        fBodyTrees = new IdentityHashMap<StructureNode, Node>();
     }
 
     /**
@@ -120,9 +136,23 @@ public class ClassDistiller {
         fDistillerFactory = distillerFactory;
         fChanges = new LinkedList<SourceCodeChange>();
         fRefactoringContainer = new RefactoringCandidateContainer();
+        fPendingMembers = new ArrayList<PendingMember>();
+        fBodyTrees = new IdentityHashMap<StructureNode, Node>();
         fVersion = version;
     }
 
+    /**
+     * Sets the executor on which changed members are distilled. Inner classes
+     * are distilled with the same executor.
+     *
+     * @param executor
+     *            to distill changed members on; <code>null</code> distills
+     *            them on the calling thread
+     */
+    public void setExecutor ( final Executor executor ) {
+        fExecutor = executor;
+    }
+
     /**
      * Extract the {@link SourceCodeChange}s of the {@link StructureDiffNode}
      * with which the class distiller was initialized.
@@ -165,6 +195,32 @@ public class ClassDistiller {
         for ( final StructureDiffNode child : fClassDiffNode.getChildren() ) {
             processChildDiffNode( child );
         }
+        mergePendingMembers();
+    }
+
+    /*
+     * Waits for the members distilled on the executor and inserts their
+     * changes where they would have been added by sequential distillation.
+     */
+    private void mergePendingMembers () {
+        final ListIterator<SourceCodeChange> changes = fChanges.listIterator();
+        int position = 0;
+        for ( final PendingMember member : fPendingMembers ) {
+            member.await();
+            while ( position < member.fPosition ) {
+                changes.next();
+                position++;
+            }
+            if ( !member.fEntity.getSourceCodeChanges().isEmpty() ) {
+                for ( final SourceCodeChange change : member.fEntity.getSourceCodeChanges() ) {
+                    changes.add( change );
+                }
+            }
+            else {
+                deleteFromClassHistory( member.fDiffNode, member.fEntity );
+            }
+        }
+        fPendingMembers.clear();
     }
 
     private void processChildDiffNode ( final StructureDiffNode diffNode ) {
@@ -196,6 +252,7 @@ public class ClassDistiller {
             classDistiller = new ClassDistiller( diffNode, classHistory, fLeftASTHelper, fRightASTHelper,
                     fRefactoringProcessor, fDistillerFactory );
         }
+        classDistiller.setExecutor( fExecutor );
         classDistiller.extractChanges();
         fChanges.addAll( classDistiller.getSourceCodeChanges() );
     }
@@ -213,7 +270,7 @@ public class ClassDistiller {
          * </pre>
          */
         JavaStructureNode change = null;
-        Boolean addition = null;
+        boolean addition = false;
 
         if ( diffNode.isAddition() ) {
             change = (JavaStructureNode) diffNode.getRight();
@@ -235,65 +292,15 @@ public class ClassDistiller {
                 return;
             }
 
-            /* Find getters */
-            /* Getter methods match on name, and presence of no parameters */
-            /* And a single return statement */
-            final Pattern getterRegex = Pattern.compile( "get[a-zA-Z0-9]*\\(\\)" );
-            if ( getterRegex.matcher( methodName ).matches() ) {
-
-                final Node newNode = ( null == addition ) ? null
-                        : addition ? createNodeAdd( diffNode ) : createNodeRemove( diffNode );
-                if ( null != newNode ) {
-                    final Iterator<TreeNode> it = newNode.postorderEnumeration().asIterator();
-
-                    final List<ch.uzh.ifi.seal.changedistiller.treedifferencing.Node> nodes = new ArrayList<ch.uzh.ifi.seal.changedistiller.treedifferencing.Node>();
-                    it.forEachRemaining( node -> nodes.add( (Node) node ) );
-
-                    /*
-                     * 2, because the method declaration is included here too.
-                     * Simple getter methods will have just a single field, the
-                     * return statement if it has anything else, it's
-                     * interesting enough we don't want to skip it
-                     */
-                    if ( 2 == nodes.size() && nodes.get( 0 ).getEntity().getLabel().equals( "RETURN_STATEMENT" ) ) {
-                        System.out.println( "Found getter method -- SKIPPING!" );
+            /* Skip simple getters and setters */
+            for ( final AccessorRule rule : AccessorRule.values() ) {
+                if ( rule.matchesName( methodName ) ) {
+                    final Node newNode = addition ? createNodeAdd( diffNode ) : createNodeRemove( diffNode );
+                    if ( rule.matchesBody( newNode ) ) {
+                        System.out.println( rule.fMessage );
                         return;
                     }
-
                 }
-
-            }
-
-            /* Find setters */
-            /* Setter methods are easy: name match, one parameter */
-            final Pattern setterRegex = Pattern.compile( "set[a-zA-Z0-9]*\\([^,]*\\)" );
-            if ( setterRegex.matcher( methodName ).matches() ) {
-
-                final Node newNode = ( null == addition ) ? null
-                        : addition ? createNodeAdd( diffNode ) : createNodeRemove( diffNode );
-                if ( null != newNode ) {
-                    final Iterator<TreeNode> it = newNode.postorderEnumeration().asIterator();
-
-                    final List<ch.uzh.ifi.seal.changedistiller.treedifferencing.Node> nodes = new ArrayList<ch.uzh.ifi.seal.changedistiller.treedifferencing.Node>();
-                    it.forEachRemaining( node -> nodes.add( (Node) node ) );
-
-                    /*
-                     * 2, because the method declaration is included here too.
-                     * Simple setter methods will have just a single field, the
-                     * assignment statement if it has anything else, it's
-                     * interesting enough we don't want to skip it
-                     */
-                    if ( 2 == nodes.size() && nodes.get( 0 ).getEntity().getLabel().equals( "ASSIGNMENT" ) ) {
-                        System.out.println( "Found setter method -- SKIPPING!" );
-                        return;
-                    }
-
-                }
-
-                /*
-                 * System.out.println( "Found setter method -- SKIPPING!" );
-                 * return;
-                 */
             }
         }
 
@@ -443,21 +450,47 @@ public class ClassDistiller {
         else if ( diffNode.isClassOrInterfaceDiffNode() ) {
             entity = createInnerClassStructureEntity( diffNode );
         }
+        if ( fExecutor != null ) {
+            distillOnExecutor( diffNode, entity );
+            return;
+        }
         processBodyChanges( diffNode, entity );
         processDeclarationChanges( diffNode, entity );
         if ( !entity.getSourceCodeChanges().isEmpty() ) {
             fChanges.addAll( entity.getSourceCodeChanges() );
         }
         else {
-            if ( diffNode.isMethodOrConstructorDiffNode() ) {
-                fClassHistory.deleteMethod( entity );
-            }
-            else if ( diffNode.isFieldDiffNode() ) {
-                fClassHistory.deleteAttribute( entity );
-            }
+            deleteFromClassHistory( diffNode, entity );
+        }
+    }
+
+    private void deleteFromClassHistory ( final StructureDiffNode diffNode, final StructureEntityVersion entity ) {
+        if ( diffNode.isMethodOrConstructorDiffNode() ) {
+            fClassHistory.deleteMethod( entity );
+        }
+        else if ( diffNode.isFieldDiffNode() ) {
+            fClassHistory.deleteAttribute( entity );
         }
     }
 
+    /*
+     * The AST helpers are not thread-safe, hence the trees are built here and
+     * only the tree differencing and classification run on the executor.
+     */
+    private void distillOnExecutor ( final StructureDiffNode diffNode, final StructureEntityVersion entity ) {
+        final Node leftBody = fLeftASTHelper.createMethodBodyTree( diffNode.getLeft() );
+        final Node rightBody = fRightASTHelper.createMethodBodyTree( diffNode.getRight() );
+        final Node leftDeclaration = fLeftASTHelper.createDeclarationTree( diffNode.getLeft() );
+        final Node rightDeclaration = fRightASTHelper.createDeclarationTree( diffNode.getRight() );
+        final FutureTask<Void> task = new FutureTask<Void>( () -> {
+            extractChanges( leftBody, rightBody, entity );
+            extractChanges( leftDeclaration, rightDeclaration, entity );
+            return null;
+        } );
+        fPendingMembers.add( new PendingMember( diffNode, entity, fChanges.size(), task ) );
+        fExecutor.execute( task );
+    }
+
     private StructureEntityVersion createInnerClassStructureEntity ( final StructureDiffNode diffNode ) {
         if ( fVersion != null ) {
             return fRightASTHelper.createInnerClassInClassHistory( fClassHistory, diffNode.getRight(), fVersion );
@@ -518,7 +551,7 @@ public class ClassDistiller {
         }
 
         if ( null != diffNode.getRight() ) {
-            final Node method = fRightASTHelper.createMethodBodyTree( diffNode.getRight() );
+            final Node method = getMethodBodyTree( fRightASTHelper, diffNode.getRight() );
 
             if ( null != method ) {
                 return method;
@@ -553,7 +586,7 @@ public class ClassDistiller {
         }
 
         if ( null != diffNode.getLeft() ) {
-            final Node method = fLeftASTHelper.createMethodBodyTree( diffNode.getLeft() );
+            final Node method = getMethodBodyTree( fLeftASTHelper, diffNode.getLeft() );
 
             if ( null != method ) {
                 return method;
@@ -571,9 +604,98 @@ public class ClassDistiller {
         return null;
     }
 
+    /*
+     * Body trees of added and deleted members are checked by the accessor
+     * rules before their nodes are reported. They are only read, hence each
+     * of them is built once and shared between the checks and the report.
+     */
+    private Node getMethodBodyTree ( final ASTHelper<StructureNode> astHelper, final StructureNode node ) {
+        if ( fBodyTrees.containsKey( node ) ) {
+            return fBodyTrees.get( node );
+        }
+        final Node tree = astHelper.createMethodBodyTree( node );
+        fBodyTrees.put( node, tree );
+        return tree;
+    }
+
     private void extractChanges ( final Node left, final Node right, final StructureEntityVersion rootEntity ) {
         final Distiller distiller = fDistillerFactory.create( rootEntity );
         distiller.extractClassifiedSourceCodeChanges( left, right );
     }
 
+    /**
+     * Added or deleted accessor that is not reported as a change. An accessor
+     * is recognized by its name and by a body that consists of a single
+     * statement of the expected type.
+     */
+    private enum AccessorRule {
+
+        GETTER ( "get[a-zA-Z0-9]*\\(\\)", "RETURN_STATEMENT", "Found getter method -- SKIPPING!" ),
+        SETTER ( "set[a-zA-Z0-9]*\\([^,]*\\)", "ASSIGNMENT", "Found setter method -- SKIPPING!" );
+
+        private final Pattern fNamePattern;
+        private final String  fStatementLabel;
+        private final String  fMessage;
+
+        AccessorRule ( final String namePattern, final String statementLabel, final String message ) {
+            fNamePattern = Pattern.compile( namePattern );
+            fStatementLabel = statementLabel;
+            fMessage = message;
+        }
+
+        boolean matchesName ( final String methodName ) {
+            return fNamePattern.matcher( methodName ).matches();
+        }
+
+        /*
+         * The body tree includes the method declaration, hence a simple
+         * accessor has a root with a single leaf.
+         */
+        boolean matchesBody ( final Node body ) {
+            if ( ( body == null ) || ( body.getChildCount() != 1 ) ) {
+                return false;
+            }
+            final Node statement = (Node) body.getFirstChild();
+            return statement.isLeaf() && statement.getEntity().getLabel().equals( fStatementLabel );
+        }
+    }
+
+    /**
+     * Changed member that is distilled on the executor.
+     */
+    private static final class PendingMember {
+
+        private final StructureDiffNode      fDiffNode;
+        private final StructureEntityVersion fEntity;
+        private final int                    fPosition;
+        private final FutureTask<Void>       fTask;
+
+        PendingMember ( final StructureDiffNode diffNode, final StructureEntityVersion entity, final int position,
+                final FutureTask<Void> task ) {
+            fDiffNode = diffNode;
+            fEntity = entity;
+            fPosition = position;
+            fTask = task;
+        }
+
+        void await () {
+            try {
+                fTask.get();
+            }
+            catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( "Interrupted while distilling " + fEntity.getUniqueName(), e );
+            }
+            catch ( final ExecutionException e ) {
+                if ( e.getCause() instanceof RuntimeException ) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if ( e.getCause() instanceof Error ) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException( e.getCause() );
+            }
+        }
+    }
+
 }
@@ -0,0 +1,142 @@
+package ch.uzh.ifi.seal.changedistiller.distilling;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.File;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller;
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
+
+/**
+ * Thread-safe entry point to distill {@link SourceCodeChange}s between two files or two sources held in memory.
+ * <p>
+ * Unlike a {@link FileDistiller}, the engine keeps no state between distillations. It is meant to be created once,
+ * e.g., with {@link ChangeDistiller#getDistillationEngine(ChangeDistiller.Language)}, and to be shared between all
+ * threads that distill changes. Each call runs on a {@link FileDistiller} of its own, whereas the injected
+ * dependencies, among them the cache of parsed sources, are shared.
+ *
+ * @see DistillationResult
+ */
+public class DistillationEngine {
+
+    private final Provider<FileDistiller> fFileDistillers;
+    private final DistillerOptions        fOptions;
+
+    @Inject
+    DistillationEngine ( final Provider<FileDistiller> fileDistillers, final DistillerOptions options ) {
+        fFileDistillers = fileDistillers;
+        fOptions = options;
+    }
+
+    /**
+     * Returns a description of the options of this engine that affect the distilled changes. Engines with equal
+     * configurations distill equal changes from equal sources. The
+     * {@link ch.uzh.ifi.seal.changedistiller.ast.java.BodyParsing} is part of the configuration, as lazy body parsing
+     * may report changes for sources with syntax errors where eager body parsing reports none. The
+     * {@link ch.uzh.ifi.seal.changedistiller.ast.java.DiffPrefilter} only affects the performance and is not.
+     *
+     * @return the configuration of this engine
+     */
+    public String getConfiguration () {
+        return "JAVA:" + fOptions.getValueStyle() + ":" + fOptions.getBodyParsing();
+    }
+
+    /**
+     * Distills the {@link SourceCodeChange}s between two files.
+     *
+     * @param left
+     *            file to extract changes
+     * @param right
+     *            file to extract changes
+     * @return the distilled changes
+     */
+    public DistillationResult distill ( final File left, final File right ) {
+        final FileDistiller distiller = fFileDistillers.get();
+        distiller.extractClassifiedSourceCodeChanges( left, right );
+        return new DistillationResult( distiller.getSourceCodeChanges(), distiller.getClassHistory() );
+    }
+
+    /**
+     * Distills the {@link SourceCodeChange}s between two files.
+     *
+     * @param left
+     *            file to extract changes
+     * @param leftVersion
+     *            version of the language in the left file
+     * @param right
+     *            file to extract changes
+     * @param rightVersion
+     *            version of the language in the right file
+     * @return the distilled changes
+     */
+    public DistillationResult distill ( final File left, final String leftVersion, final File right,
+            final String rightVersion ) {
+        final FileDistiller distiller = fFileDistillers.get();
+        distiller.extractClassifiedSourceCodeChanges( left, leftVersion, right, rightVersion, false );
+        return new DistillationResult( distiller.getSourceCodeChanges(), distiller.getClassHistory() );
+    }
+
+    /**
+     * Distills the {@link SourceCodeChange}s between two sources held in memory.
+     *
+     * @param left
+     *            source to extract changes
+     * @param leftPath
+     *            logical path of the left source
+     * @param right
+     *            source to extract changes
+     * @param rightPath
+     *            logical path of the right source
+     * @return the distilled changes
+     */
+    public DistillationResult distill ( final CharSequence left, final String leftPath, final CharSequence right,
+            final String rightPath ) {
+        return distill( left, leftPath, "default", right, rightPath, "default" );
+    }
+
+    /**
+     * Distills the {@link SourceCodeChange}s between two sources held in memory.
+     *
+     * @param left
+     *            source to extract changes
+     * @param leftPath
+     *            logical path of the left source
+     * @param leftVersion
+     *            version of the language in the left source
+     * @param right
+     *            source to extract changes
+     * @param rightPath
+     *            logical path of the right source
+     * @param rightVersion
+     *            version of the language in the right source
+     * @return the distilled changes
+     */
+    public DistillationResult distill ( final CharSequence left, final String leftPath, final String leftVersion,
+            final CharSequence right, final String rightPath, final String rightVersion ) {
+        final FileDistiller distiller = fFileDistillers.get();
+        distiller.extractClassifiedSourceCodeChanges( left, leftPath, leftVersion, right, rightPath, rightVersion );
+        return new DistillationResult( distiller.getSourceCodeChanges(), distiller.getClassHistory() );
+    }
+
+}
@@ -0,0 +1,64 @@
+package ch.uzh.ifi.seal.changedistiller.distilling;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ch.uzh.ifi.seal.changedistiller.model.entities.ClassHistory;
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
+
+/**
+ * Result of a single distillation of a {@link DistillationEngine}.
+ * <p>
+ * The list of changes cannot be modified. The result is the only owner of the changes and of the class history, so
+ * it can be handed to other threads without further synchronization.
+ */
+public final class DistillationResult {
+
+    private final List<SourceCodeChange> fChanges;
+    private final ClassHistory           fClassHistory;
+
+    DistillationResult ( final List<SourceCodeChange> changes, final ClassHistory classHistory ) {
+        fChanges = Collections.unmodifiableList( new ArrayList<SourceCodeChange>( changes ) );
+        fClassHistory = classHistory;
+    }
+
+    /**
+     * Returns the distilled changes in the order {@link FileDistiller#getSourceCodeChanges()} returns them.
+     *
+     * @return the unmodifiable list of changes
+     */
+    public List<SourceCodeChange> getSourceCodeChanges () {
+        return fChanges;
+    }
+
+    /**
+     * Returns the history of the distilled class.
+     *
+     * @return the class history, or <code>null</code> if no class changed
+     */
+    public ClassHistory getClassHistory () {
+        return fClassHistory;
+    }
+
+}
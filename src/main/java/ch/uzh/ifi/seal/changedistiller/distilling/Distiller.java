@@ -23,6 +23,9 @@ package ch.uzh.ifi.seal.changedistiller.distilling;
 import java.util.List;
 
 
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Counter;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Phase;
 import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
 import ch.uzh.ifi.seal.changedistiller.model.entities.StructureEntityVersion;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.Node;
@@ -44,16 +47,19 @@ public class Distiller {
     private TreeDifferencer fTreeDifferencer;
     private SourceCodeChangeConverter fChangeConverter;
     private SourceCodeChangeClassifier fClassifier;
+    private DistillerMetrics fMetrics;
 
     @Inject
     Distiller(
             @Assisted StructureEntityVersion structureEntity,
             TreeDifferencer treeDifferencer,
-            SourceCodeChangeClassifier classifier) {
+            SourceCodeChangeClassifier classifier,
+            DistillerMetrics metrics) {
         fStructureEntity = structureEntity;
         fChangeConverter = new SourceCodeChangeConverter(fStructureEntity);
         fTreeDifferencer = treeDifferencer;
         fClassifier = classifier;
+        fMetrics = metrics;
     }
 
     /**
@@ -69,9 +75,12 @@ public class Distiller {
         if ((leftRoot != null) && (rightRoot != null)) {
             fTreeDifferencer.calculateEditScript(leftRoot, rightRoot);
             List<TreeEditOperation> ops = fTreeDifferencer.getEditScript();
+            long start = fMetrics.startPhase();
             fChangeConverter.addTreeEditOperationsAsSourceCodeChanges(ops);
             List<SourceCodeChange> classifiedChanges =
                     fClassifier.classifySourceCodeChanges(fChangeConverter.getSourceCodeChanges());
+            fMetrics.endPhase(Phase.CLASSIFY, start);
+            fMetrics.count(Counter.CHANGES_CLASSIFIED, classifiedChanges.size());
             fStructureEntity.addAllSourceCodeChanges(classifiedChanges);
         }
     }
@@ -0,0 +1,122 @@
+package ch.uzh.ifi.seal.changedistiller.distilling;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import ch.uzh.ifi.seal.changedistiller.ast.java.BodyParsing;
+import ch.uzh.ifi.seal.changedistiller.ast.java.DiffPrefilter;
+import ch.uzh.ifi.seal.changedistiller.ast.java.NodeValueStyle;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics;
+
+/**
+ * Options of the distillers created by an injector. Instances are immutable; the <code>with*</code> methods return
+ * modified copies.
+ *
+ * @see ch.uzh.ifi.seal.changedistiller.ChangeDistiller
+ * @see ch.uzh.ifi.seal.changedistiller.JavaChangeDistillerModule
+ */
+public final class DistillerOptions {
+
+    private final DistillerMetrics fMetrics;
+    private final NodeValueStyle   fValueStyle;
+    private final BodyParsing      fBodyParsing;
+    private final DiffPrefilter    fDiffPrefilter;
+
+    private DistillerOptions ( final DistillerMetrics metrics, final NodeValueStyle valueStyle,
+            final BodyParsing bodyParsing, final DiffPrefilter diffPrefilter ) {
+        fMetrics = metrics;
+        fValueStyle = valueStyle;
+        fBodyParsing = bodyParsing;
+        fDiffPrefilter = diffPrefilter;
+    }
+
+    /**
+     * Returns the default options, which report to no metrics, print node values from the AST, parse method bodies
+     * eagerly and compare the structure of all members.
+     *
+     * @return the default options
+     */
+    public static DistillerOptions defaults () {
+        return new DistillerOptions( DistillerMetrics.NONE, NodeValueStyle.PRINTED, BodyParsing.EAGER,
+                DiffPrefilter.NONE );
+    }
+
+    /**
+     * Returns a copy of these options with the given metrics.
+     *
+     * @param metrics
+     *            to report the phases of all distillations to
+     * @return the modified options
+     */
+    public DistillerOptions withMetrics ( final DistillerMetrics metrics ) {
+        return new DistillerOptions( metrics, fValueStyle, fBodyParsing, fDiffPrefilter );
+    }
+
+    /**
+     * Returns a copy of these options with the given style of node values.
+     *
+     * @param valueStyle
+     *            how the values of method body nodes are computed
+     * @return the modified options
+     */
+    public DistillerOptions withValueStyle ( final NodeValueStyle valueStyle ) {
+        return new DistillerOptions( fMetrics, valueStyle, fBodyParsing, fDiffPrefilter );
+    }
+
+    /**
+     * Returns a copy of these options with the given parsing of method bodies.
+     *
+     * @param bodyParsing
+     *            when the bodies of methods are parsed
+     * @return the modified options
+     */
+    public DistillerOptions withBodyParsing ( final BodyParsing bodyParsing ) {
+        return new DistillerOptions( fMetrics, fValueStyle, bodyParsing, fDiffPrefilter );
+    }
+
+    /**
+     * Returns a copy of these options with the given prefilter.
+     *
+     * @param diffPrefilter
+     *            how unchanged members are recognized before their structure is compared
+     * @return the modified options
+     */
+    public DistillerOptions withDiffPrefilter ( final DiffPrefilter diffPrefilter ) {
+        return new DistillerOptions( fMetrics, fValueStyle, fBodyParsing, diffPrefilter );
+    }
+
+    public DistillerMetrics getMetrics () {
+        return fMetrics;
+    }
+
+    public NodeValueStyle getValueStyle () {
+        return fValueStyle;
+    }
+
+    public BodyParsing getBodyParsing () {
+        return fBodyParsing;
+    }
+
+    public DiffPrefilter getDiffPrefilter () {
+        return fDiffPrefilter;
+    }
+
+}
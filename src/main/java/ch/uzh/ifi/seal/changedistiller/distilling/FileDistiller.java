@@ -1,7 +1,5 @@
 package ch.uzh.ifi.seal.changedistiller.distilling;
 
-import java.io.BufferedWriter;
-
 /*
  * #%L ChangeDistiller %% Copyright (C) 2011 - 2013 Software Architecture and
  * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
@@ -15,14 +13,11 @@ import java.io.BufferedWriter;
  */
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
 
@@ -30,8 +25,14 @@ import com.google.inject.Inject;
 
 import ch.uzh.ifi.seal.changedistiller.ast.ASTHelper;
 import ch.uzh.ifi.seal.changedistiller.ast.ASTHelperFactory;
+import ch.uzh.ifi.seal.changedistiller.ast.FileUtils;
+import ch.uzh.ifi.seal.changedistiller.ast.java.DiffPrefilter;
 import ch.uzh.ifi.seal.changedistiller.ast.java.JavaASTHelper;
+import ch.uzh.ifi.seal.changedistiller.ast.java.JavaTokenComparator;
+import ch.uzh.ifi.seal.changedistiller.ast.java.JavaTokenComparator.Difference;
 import ch.uzh.ifi.seal.changedistiller.distilling.refactoring.RefactoringCandidateProcessor;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Phase;
 import ch.uzh.ifi.seal.changedistiller.model.classifiers.java.JavaEntityType;
 import ch.uzh.ifi.seal.changedistiller.model.entities.ClassHistory;
 import ch.uzh.ifi.seal.changedistiller.model.entities.Delete;
@@ -41,9 +42,15 @@ import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeEntity;
 import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureDiffNode;
 import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureDifferencer;
 import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureNode;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.java.JavaLineDiffPrefilter;
 
 /**
- * Distills {@link SourceCodeChange}s between two {@link File}.
+ * Distills {@link SourceCodeChange}s between two {@link File}s or two sources
+ * held in memory.
+ * <p>
+ * Sources of the same Java version are compared token by token before they
+ * are parsed. Sources that differ in formatting or in line and block comments
+ * only have no changes, so they are not parsed at all.
  *
  * @author Beat Fluri
  * @author Giacomo Ghezzi
@@ -53,19 +60,36 @@ public class FileDistiller {
     private final DistillerFactory              fDistillerFactory;
     private final ASTHelperFactory              fASTHelperFactory;
     private final RefactoringCandidateProcessor fRefactoringProcessor;
+    private final DistillerMetrics              fMetrics;
+    private final DiffPrefilter                 fDiffPrefilter;
 
     private List<SourceCodeChange>              fChanges;
     private ASTHelper<StructureNode>            fLeftASTHelper;
     private ASTHelper<StructureNode>            fRightASTHelper;
     private ClassHistory                        fClassHistory;
     private String                              fVersion;
+    private Executor                            fExecutor;
 
     @Inject
     FileDistiller ( final DistillerFactory distillerFactory, final ASTHelperFactory factory,
-            final RefactoringCandidateProcessor refactoringProcessor ) {
+            final RefactoringCandidateProcessor refactoringProcessor, final DistillerOptions options ) {
         fDistillerFactory = distillerFactory;
         fASTHelperFactory = factory;
         fRefactoringProcessor = refactoringProcessor;
+        fMetrics = options.getMetrics();
+        fDiffPrefilter = options.getDiffPrefilter();
+    }
+
+    /**
+     * Sets the executor on which changed methods and fields are distilled.
+     *
+     * @param executor
+     *            to distill changed members on; <code>null</code> (the default)
+     *            distills them on the calling thread
+     * @see ClassDistiller#setExecutor(Executor)
+     */
+    public void setExecutor ( final Executor executor ) {
+        fExecutor = executor;
     }
 
     /**
@@ -95,87 +119,137 @@ public class FileDistiller {
     @SuppressWarnings ( "unchecked" )
     public void extractClassifiedSourceCodeChanges ( final File left, final String leftVersion, final File right,
             final String rightVersion, final boolean createLeftIfNotExists ) {
+        if ( left.exists() ) {
+            final String rightSource = FileUtils.getContent( right );
+            extractClassifiedSourceCodeChanges( FileUtils.getContent( left ), left.getPath(), leftVersion,
+                    rightSource, right.getPath(), rightVersion );
+            return;
+        }
         fRightASTHelper = fASTHelperFactory.create( right, rightVersion );
+        final Insert insert = createLeftStub( left.getPath(), leftVersion );
+        extractDifferences();
+        addStubInsert( insert );
+    }
 
-        /*
-         * If the old file is empty, or doesn't contain a class(/module/etc) by
-         * the same name, there are no differences reported. So, catch an empty
-         * file, and create it with a shim of what should be there
-         */
-
-        // If we create a new file, delete it when we're done
-        boolean created = false;
+    /**
+     * Extracts classified {@link SourceCodeChange}s between two sources held in
+     * memory. Nothing is read from or written to the file system.
+     *
+     * @param left
+     *            source to extract changes
+     * @param leftPath
+     *            logical path of the left source
+     * @param right
+     *            source to extract changes
+     * @param rightPath
+     *            logical path of the right source
+     */
+    public void extractClassifiedSourceCodeChanges ( final CharSequence left, final String leftPath,
+            final CharSequence right, final String rightPath ) {
+        extractClassifiedSourceCodeChanges( left, leftPath, "default", right, rightPath, "default" );
+    }
 
-        // represents the class we're faking
+    /**
+     * Extracts classified {@link SourceCodeChange}s between two sources held in
+     * memory. Nothing is read from or written to the file system.
+     *
+     * @param left
+     *            source to extract changes; <code>null</code> if the file was
+     *            added, in which case the first type of the right source is
+     *            reported as inserted
+     * @param leftPath
+     *            logical path of the left source
+     * @param leftVersion
+     *            version of the language in the left source
+     * @param right
+     *            source to extract changes
+     * @param rightPath
+     *            logical path of the right source
+     * @param rightVersion
+     *            version of the language in the right source
+     */
+    @SuppressWarnings ( "unchecked" )
+    public void extractClassifiedSourceCodeChanges ( final CharSequence left, final String leftPath,
+            final String leftVersion, final CharSequence right, final String rightPath, final String rightVersion ) {
+        if ( ( left != null ) && hasNoChanges( left, leftVersion, right, rightVersion ) ) {
+            fChanges = new LinkedList<SourceCodeChange>();
+            return;
+        }
+        fRightASTHelper = fASTHelperFactory.create( right, rightPath, rightVersion );
         Insert insert = null;
-
-        try {
-            fLeftASTHelper = fASTHelperFactory.create( left, leftVersion );
+        if ( left != null ) {
+            fLeftASTHelper = fASTHelperFactory.create( left, leftPath, leftVersion );
         }
-        catch ( final Exception e ) {
-
-            if ( e.getCause() instanceof FileNotFoundException || e.getCause() instanceof NoSuchFileException ) {
-                final CompilationUnitDeclaration cud = ( (JavaASTHelper) (Object) fRightASTHelper ).getCompilation()
-                        .getCompilationUnit();
-
-                final StringBuffer out = new StringBuffer();
-
-                final String packageName = null == cud.currentPackage ? "(default package)"
-                        : cud.currentPackage.toString();
-
-                final String className = String.valueOf( cud.types[0].name );
-
-                cud.types[0].printHeader( 0, out );
+        else {
+            insert = createLeftStub( leftPath, leftVersion );
+        }
+        extractDifferences();
+        addStubInsert( insert );
+    }
 
-                final String newClassContents = String.format( "%s { }", out.toString() );
+    /*
+     * If the old file is missing, there would be no differences reported, as
+     * the new file does not contain a class by the same name. So, the old file
+     * is replaced with a shim of what should be there, i.e., the header of the
+     * first type of the new file with an empty body. The shim is parsed in
+     * memory, and the returned Insert represents the class being faked.
+     */
+    @SuppressWarnings ( "unchecked" )
+    private Insert createLeftStub ( final String leftPath, final String leftVersion ) {
+        final CompilationUnitDeclaration cud = ( (JavaASTHelper) (Object) fRightASTHelper ).getCompilation()
+                .getCompilationUnit();
+        if ( ( cud.types == null ) || ( cud.types.length == 0 ) ) {
+            fLeftASTHelper = fASTHelperFactory.create( "", leftPath, leftVersion );
+            return null;
+        }
 
-                try {
-                    left.getParentFile().mkdirs();
-                    left.createNewFile();
-                    final BufferedWriter output = new BufferedWriter( new FileWriter( left ) );
-                    output.write( newClassContents );
-                    output.close();
-                    created = true;
-                    Thread.sleep( 100 );
+        final StringBuffer out = new StringBuffer();
 
-                }
-                catch ( final IOException | InterruptedException e1 ) {
-                    e1.printStackTrace();
-                    throw new IllegalArgumentException( e1 );
-                }
+        final String packageName = null == cud.currentPackage ? "(default package)" : cud.currentPackage.toString();
 
-                final SourceCodeEntity sce = new SourceCodeEntity( String.format( "%s.%s", packageName, className ),
-                        JavaEntityType.CLASS, null );
+        final String className = String.valueOf( cud.types[0].name );
 
-                insert = new Insert( null, sce, null );
+        cud.types[0].printHeader( 0, out );
 
-                fLeftASTHelper = fASTHelperFactory.create( left, leftVersion );
-            }
-            else {
-                throw e;
-            }
+        final String newClassContents = String.format( "%s { }", out.toString() );
+        fLeftASTHelper = fASTHelperFactory.create( newClassContents, leftPath, leftVersion );
 
-        }
+        final SourceCodeEntity sce = new SourceCodeEntity( String.format( "%s.%s", packageName, className ),
+                JavaEntityType.CLASS, null );
+        return new Insert( null, sce, null );
+    }
 
-        // delete new class, if we made one
-        if ( created ) {
-            left.delete();
+    /*
+     * Sources whose tokens other than line and block comments are equal have
+     * equal content hashes, for which the structure differencing reports no
+     * differences.
+     */
+    private boolean hasNoChanges ( final CharSequence left, final String leftVersion, final CharSequence right,
+            final String rightVersion ) {
+        if ( !leftVersion.equals( rightVersion ) ) {
+            return false;
         }
+        final long start = fMetrics.startPhase();
+        final Difference difference = JavaTokenComparator.compare( left, right, leftVersion );
+        fMetrics.endPhase( Phase.TOKEN_COMPARE, start );
+        return difference != Difference.CODE;
+    }
 
-        extractDifferences();
-
-        // if we faked a class, add the Insert for it
+    private void addStubInsert ( final Insert insert ) {
         if ( null != insert ) {
             fChanges.add( insert );
         }
     }
 
     private void extractDifferences () {
-        final StructureDifferencer structureDifferencer = new StructureDifferencer();
-        structureDifferencer.extractDifferences( fLeftASTHelper.createStructureTree(),
-                fRightASTHelper.createStructureTree() );
+        final StructureNode leftTree = fLeftASTHelper.createStructureTree();
+        final StructureNode rightTree = fRightASTHelper.createStructureTree();
+        final long start = fMetrics.startPhase();
+        final StructureDifferencer structureDifferencer = createStructureDifferencer();
+        structureDifferencer.extractDifferences( leftTree, rightTree );
+        fMetrics.endPhase( Phase.STRUCTURE_DIFF, start );
         final StructureDiffNode structureDiff = structureDifferencer.getDifferences();
-        if ( structureDiff != null ) {
+        if ( ( structureDiff != null ) && !hasBodySyntaxErrors( structureDiff ) ) {
             fChanges = new LinkedList<SourceCodeChange>();
             // first node is (usually) the compilation unit
             processRootChildren( structureDiff );
@@ -185,6 +259,41 @@ public class FileDistiller {
         }
     }
 
+    /*
+     * A full parse of a source with syntax errors yields a compilation unit
+     * whose types are not traversed, so there are no changes. Bodies that are
+     * parsed on demand are recovered one by one instead. Hence, the bodies of
+     * the differing members are parsed before changes are extracted from
+     * them, and a syntax error in one of them leads to no changes as well.
+     */
+    private boolean hasBodySyntaxErrors ( final StructureDiffNode diffNode ) {
+        parseBodies( diffNode );
+        return fLeftASTHelper.hasBodySyntaxErrors() || fRightASTHelper.hasBodySyntaxErrors();
+    }
+
+    private static void parseBodies ( final StructureDiffNode diffNode ) {
+        for ( final StructureDiffNode child : diffNode.getChildren() ) {
+            parseBody( child.getLeft() );
+            parseBody( child.getRight() );
+            parseBodies( child );
+        }
+    }
+
+    private static void parseBody ( final StructureNode node ) {
+        if ( ( node != null ) && node.isMethodOrConstructor() ) {
+            // the body of a method is parsed when its children are accessed
+            node.getChildren();
+        }
+    }
+
+    private StructureDifferencer createStructureDifferencer () {
+        if ( fDiffPrefilter == DiffPrefilter.LINES ) {
+            return new StructureDifferencer(
+                    new JavaLineDiffPrefilter( fLeftASTHelper.getSource(), fRightASTHelper.getSource() ) );
+        }
+        return new StructureDifferencer();
+    }
+
     public void extractClassifiedSourceCodeChanges ( final File left, final File right, final String version ) {
         fVersion = version;
         this.extractClassifiedSourceCodeChanges( left, right );
@@ -218,6 +327,7 @@ public class FileDistiller {
             classDistiller = new ClassDistiller( child, fClassHistory, fLeftASTHelper, fRightASTHelper,
                     fRefactoringProcessor, fDistillerFactory );
         }
+        classDistiller.setExecutor( fExecutor );
         classDistiller.extractChanges();
         fChanges.addAll( classDistiller.getSourceCodeChanges() );
     }
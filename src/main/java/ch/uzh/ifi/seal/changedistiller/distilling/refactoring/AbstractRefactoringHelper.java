@@ -134,7 +134,7 @@ public abstract class AbstractRefactoringHelper {
      * @return <code>true</code> if the two entities are subject of a refactoring, <code>false</code> otherwise
      */
     public final boolean isRefactoring(StructureNode left, StructureNode right) {
-        return similarity(left, right) >= getThreshold();
+        return similarity(left, right, getThreshold()) >= getThreshold();
     }
 
     /**
@@ -159,6 +159,23 @@ public abstract class AbstractRefactoringHelper {
      */
     public abstract double similarity(StructureNode left, StructureNode right);
 
+    /**
+     * Calculates the similarity between two entities as far as it is needed to compare it with the given threshold.
+     * Heirs with an expensive similarity override this method to stop early if the threshold cannot be reached.
+     * 
+     * @param left
+     *            the old entity
+     * @param right
+     *            the new entity
+     * @param threshold
+     *            the similarity is compared with
+     * @return the same similarity value as {@link #similarity(StructureNode, StructureNode)} if it is at least
+     *         <code>threshold</code>; some value below <code>threshold</code> otherwise
+     */
+    public double similarity(StructureNode left, StructureNode right, double threshold) {
+        return similarity(left, right);
+    }
+
     protected ClassHistory getClassHistory() {
         return fClassHistory;
     }
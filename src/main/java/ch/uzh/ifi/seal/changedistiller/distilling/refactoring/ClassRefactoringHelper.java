@@ -34,6 +34,8 @@ import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.Levensh
  */
 public class ClassRefactoringHelper extends AbstractRefactoringHelper {
 
+    private final LevenshteinSimilarityCalculator fNameSimilarityCalculator = new LevenshteinSimilarityCalculator();
+
     /**
      * Creates a new refactoring helper.
      * 
@@ -84,6 +86,11 @@ public class ClassRefactoringHelper extends AbstractRefactoringHelper {
 
     @Override
     public double similarity(StructureNode left, StructureNode right) {
-        return new LevenshteinSimilarityCalculator().calculateSimilarity(left.getName(), right.getName());
+        return fNameSimilarityCalculator.calculateSimilarity(left.getName(), right.getName());
+    }
+
+    @Override
+    public double similarity(StructureNode left, StructureNode right, double threshold) {
+        return fNameSimilarityCalculator.calculateSimilarity(left.getName(), right.getName(), threshold);
     }
 }
@@ -34,6 +34,8 @@ import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.Levensh
  */
 public class FieldRefactoringHelper extends AbstractRefactoringHelper {
 
+    private final LevenshteinSimilarityCalculator fContentSimilarityCalculator = new LevenshteinSimilarityCalculator();
+
     /**
      * Creates a new refactoring helper.
      * 
@@ -89,7 +91,16 @@ public class FieldRefactoringHelper extends AbstractRefactoringHelper {
     @Override
     public double similarity(StructureNode left, StructureNode right) {
         if (!left.getName().equals(right.getName())) {
-            return new LevenshteinSimilarityCalculator().calculateSimilarity(left.getContent(), right.getContent());
+            return fContentSimilarityCalculator.calculateSimilarity(left.getContent(), right.getContent());
+        } else {
+            return 1.0;
+        }
+    }
+
+    @Override
+    public double similarity(StructureNode left, StructureNode right, double threshold) {
+        if (!left.getName().equals(right.getName())) {
+            return fContentSimilarityCalculator.calculateSimilarity(left.getContent(), right.getContent(), threshold);
         } else {
             return 1.0;
         }
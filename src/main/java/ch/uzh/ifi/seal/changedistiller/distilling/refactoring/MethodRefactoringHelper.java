@@ -34,6 +34,8 @@ import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.NGramsC
  */
 public class MethodRefactoringHelper extends AbstractRefactoringHelper {
 
+    private final NGramsCalculator fNameSimilarityCalculator = new NGramsCalculator(2);
+
     /**
      * Creates a new refactoring helper.
      * 
@@ -91,7 +93,7 @@ public class MethodRefactoringHelper extends AbstractRefactoringHelper {
 
     @Override
     public double similarity(StructureNode left, StructureNode right) {
-        return new NGramsCalculator(2).calculateSimilarity(left.getName(), right.getName());
+        return fNameSimilarityCalculator.calculateSimilarity(left.getName(), right.getName());
     }
 
 }
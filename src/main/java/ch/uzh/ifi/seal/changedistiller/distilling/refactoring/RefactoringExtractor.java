@@ -62,9 +62,11 @@ public final class RefactoringExtractor {
 
             for (RefactoringCandidate leftCandidate : deletedEntities) {
                 StructureNode left = leftCandidate.getDiffNode().getLeft();
-                if (left.isOfSameTypeAs(right) && refactoringHelper.isRefactoring(left, right)) {
-                    double similarity = refactoringHelper.similarity(left, right);
-                    refactoringCandidates.add(new RefactoringPair(leftCandidate, rightCandidate, similarity));
+                if (left.isOfSameTypeAs(right)) {
+                    double similarity = refactoringHelper.similarity(left, right, refactoringHelper.getThreshold());
+                    if (similarity >= refactoringHelper.getThreshold()) {
+                        refactoringCandidates.add(new RefactoringPair(leftCandidate, rightCandidate, similarity));
+                    }
                 }
             }
         }
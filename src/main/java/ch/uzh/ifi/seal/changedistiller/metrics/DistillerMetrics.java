@@ -0,0 +1,149 @@
+package ch.uzh.ifi.seal.changedistiller.metrics;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Listener for timings and counters of the phases of a distillation.
+ * <p>
+ * A phase is timed by taking a timestamp with {@link #startPhase()} before and passing it to
+ * {@link #endPhase(Phase, long)} after the phase. Listeners are shared by all distillations of an injector, possibly
+ * running on several threads at once, hence implementations have to be thread-safe.
+ * <p>
+ * {@link #NONE} is bound by default. It neither reads the clock nor records anything, and callers skip work that is
+ * only needed for a counter (e.g., counting the nodes of a tree) if {@link #isEnabled()} returns <code>false</code>.
+ *
+ * @see MetricsRegistry
+ */
+public interface DistillerMetrics {
+
+    /**
+     * Listener that records nothing.
+     */
+    DistillerMetrics NONE = new DistillerMetrics() {
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public long startPhase() {
+            return 0L;
+        }
+
+        @Override
+        public void endPhase(Phase phase, long start) {}
+
+        @Override
+        public void count(Counter counter, long delta) {}
+    };
+
+    /**
+     * Timed phases of a distillation.
+     */
+    enum Phase {
+        /**
+         * Comparing the tokens of two sources before they are parsed.
+         */
+        TOKEN_COMPARE,
+        /**
+         * Parsing a source, including the collection of its comments.
+         */
+        PARSE,
+        /**
+         * Differencing the structure trees of two sources.
+         */
+        STRUCTURE_DIFF,
+        /**
+         * Building the node tree of a declaration or method body.
+         */
+        TREE_BUILD,
+        /**
+         * Matching the nodes of two node trees.
+         */
+        MATCH,
+        /**
+         * Calculating the edit script of two matched node trees.
+         */
+        EDIT_SCRIPT,
+        /**
+         * Classifying the changes of an edit script.
+         */
+        CLASSIFY
+    }
+
+    /**
+     * Counted events of a distillation.
+     */
+    enum Counter {
+        /**
+         * Nodes of built node trees.
+         */
+        NODES_BUILT,
+        /**
+         * Leaf pairs whose similarity was calculated during matching.
+         */
+        LEAF_PAIRS_SCORED,
+        /**
+         * Operations of calculated edit scripts.
+         */
+        EDIT_OPERATIONS,
+        /**
+         * Classified source code changes.
+         */
+        CHANGES_CLASSIFIED
+    }
+
+    /**
+     * Returns whether this listener records anything.
+     *
+     * @return <code>true</code> if timings and counts are recorded, <code>false</code> otherwise
+     */
+    boolean isEnabled();
+
+    /**
+     * Returns the timestamp to pass to {@link #endPhase(Phase, long)} at the end of a phase.
+     *
+     * @return the start of the phase in nanoseconds
+     */
+    long startPhase();
+
+    /**
+     * Records the end of a phase.
+     *
+     * @param phase
+     *            that ended
+     * @param start
+     *            timestamp returned by {@link #startPhase()} at the start of the phase
+     */
+    void endPhase(Phase phase, long start);
+
+    /**
+     * Adds to a counter.
+     *
+     * @param counter
+     *            to add to
+     * @param delta
+     *            to add
+     */
+    void count(Counter counter, long delta);
+
+}
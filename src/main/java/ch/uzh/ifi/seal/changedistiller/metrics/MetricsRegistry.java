@@ -0,0 +1,197 @@
+package ch.uzh.ifi.seal.changedistiller.metrics;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process {@link DistillerMetrics} that keeps a histogram of the durations of each phase and the totals of all
+ * counters.
+ * <p>
+ * Durations are binned by powers of two: bin <code>i</code> counts the durations <code>d</code> with
+ * <code>2^(i-1) &lt;= d &lt; 2^i</code> nanoseconds, bin <code>0</code> the durations below one nanosecond.
+ * Recording is lock-free, hence the registry can be shared by all threads that distill changes.
+ */
+public class MetricsRegistry implements DistillerMetrics {
+
+    private static final int BINS = 64;
+
+    private final Map<Phase, Histogram> fHistograms = new EnumMap<Phase, Histogram>(Phase.class);
+    private final Map<Counter, LongAdder> fCounters = new EnumMap<Counter, LongAdder>(Counter.class);
+
+    /**
+     * Creates a new empty registry.
+     */
+    public MetricsRegistry() {
+        for (Phase phase : Phase.values()) {
+            fHistograms.put(phase, new Histogram());
+        }
+        for (Counter counter : Counter.values()) {
+            fCounters.put(counter, new LongAdder());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public long startPhase() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void endPhase(Phase phase, long start) {
+        fHistograms.get(phase).record(System.nanoTime() - start);
+    }
+
+    @Override
+    public void count(Counter counter, long delta) {
+        fCounters.get(counter).add(delta);
+    }
+
+    /**
+     * Returns how often the given phase was recorded.
+     *
+     * @param phase
+     *            to get the count for
+     * @return the number of recorded durations of the phase
+     */
+    public long getCount(Phase phase) {
+        return fHistograms.get(phase).fCount.sum();
+    }
+
+    /**
+     * Returns the total duration of the given phase.
+     *
+     * @param phase
+     *            to get the duration for
+     * @return the sum of the recorded durations of the phase in nanoseconds
+     */
+    public long getTotalNanos(Phase phase) {
+        return fHistograms.get(phase).fTotal.sum();
+    }
+
+    /**
+     * Returns the histogram of the durations of the given phase.
+     *
+     * @param phase
+     *            to get the histogram for
+     * @return the number of durations per bin; the array is a copy
+     */
+    public long[] getHistogram(Phase phase) {
+        AtomicLongArray bins = fHistograms.get(phase).fBins;
+        long[] result = new long[BINS];
+        for (int i = 0; i < BINS; i++) {
+            result[i] = bins.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total of the given counter.
+     *
+     * @param counter
+     *            to get the total for
+     * @return the total of the counter
+     */
+    public long getCount(Counter counter) {
+        return fCounters.get(counter).sum();
+    }
+
+    /**
+     * Discards everything recorded so far.
+     */
+    public void reset() {
+        for (Histogram histogram : fHistograms.values()) {
+            histogram.reset();
+        }
+        for (LongAdder counter : fCounters.values()) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * Writes the counts, total durations and non-empty histogram bins of all phases as well as the totals of all
+     * counters in a human readable form.
+     *
+     * @param out
+     *            to write to
+     */
+    public void dump(Appendable out) {
+        try {
+            for (Phase phase : Phase.values()) {
+                long count = getCount(phase);
+                long total = getTotalNanos(phase);
+                out.append(String.format("%-15s count=%d total=%.3fms mean=%dns%n", phase, count, total / 1e6,
+                        count > 0 ? total / count : 0));
+                long[] histogram = getHistogram(phase);
+                for (int i = 0; i < BINS; i++) {
+                    if (histogram[i] > 0) {
+                        out.append(String.format("    < %-20d %d%n", i < BINS - 1 ? 1L << i : Long.MAX_VALUE,
+                                histogram[i]));
+                    }
+                }
+            }
+            for (Counter counter : Counter.values()) {
+                out.append(String.format("%-18s %d%n", counter, getCount(counter)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        dump(result);
+        return result.toString();
+    }
+
+    private static final class Histogram {
+
+        private final AtomicLongArray fBins = new AtomicLongArray(BINS);
+        private final LongAdder fCount = new LongAdder();
+        private final LongAdder fTotal = new LongAdder();
+
+        void record(long nanos) {
+            int bin = nanos > 0 ? Math.min(BINS - 1, 64 - Long.numberOfLeadingZeros(nanos)) : 0;
+            fBins.incrementAndGet(bin);
+            fCount.increment();
+            fTotal.add(Math.max(nanos, 0L));
+        }
+
+        void reset() {
+            for (int i = 0; i < BINS; i++) {
+                fBins.set(i, 0L);
+            }
+            fCount.reset();
+            fTotal.reset();
+        }
+    }
+
+}
@@ -0,0 +1,263 @@
+package ch.uzh.ifi.seal.changedistiller.structuredifferencing;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Line-level difference between two sources.
+ * <p>
+ * Lines are compared by hash and, if the hashes are equal, by their characters, including line terminators. Lines
+ * that the sources have in common at their beginning and end are matched directly, the remaining lines are matched
+ * with the greedy algorithm of Myers (An O(ND) Difference Algorithm and Its Variations, 1986). The cost is linear in
+ * the length of the sources plus the product of the number of remaining lines and the number of inserted and deleted
+ * lines. If more than {@link #MAX_EDIT_DISTANCE} lines are inserted or deleted, the remaining lines are left
+ * unmatched.
+ * <p>
+ * Matched lines are grouped into runs of consecutive lines that are matched with consecutive lines. A source range
+ * that lies within a single run is identical to the range at the same position of the matched lines.
+ */
+public final class LineDiff {
+
+    /**
+     * Maximal number of inserted and deleted lines for which the lines between the common beginning and end of two
+     * sources are matched.
+     */
+    public static final int MAX_EDIT_DISTANCE = 1024;
+
+    private final char[]    fLeft;
+    private final char[]    fRight;
+    private final int[]     fLeftLineStarts;
+    private final int[]     fRightLineStarts;
+    private final int[]     fLeftHashes;
+    private final int[]     fRightHashes;
+    private final int[]     fMatches;
+    private final int[]     fRuns;
+
+    private LineDiff ( final char[] left, final char[] right ) {
+        fLeft = left;
+        fRight = right;
+        fLeftLineStarts = getLineStarts( left );
+        fRightLineStarts = getLineStarts( right );
+        fLeftHashes = getLineHashes( left, fLeftLineStarts );
+        fRightHashes = getLineHashes( right, fRightLineStarts );
+        fMatches = new int[fLeftHashes.length];
+        Arrays.fill( fMatches, -1 );
+        fRuns = new int[fLeftHashes.length];
+    }
+
+    /**
+     * Computes the line difference between two sources.
+     *
+     * @param left
+     *            source to compare with right
+     * @param right
+     *            source to compare with left
+     * @return the line difference
+     */
+    public static LineDiff of ( final char[] left, final char[] right ) {
+        final LineDiff diff = new LineDiff( left, right );
+        diff.matchLines();
+        diff.computeRuns();
+        return diff;
+    }
+
+    /**
+     * Returns whether the given ranges of the left and right source are identical because they lie at the same
+     * position of matched lines. Identical ranges at different positions, e.g., in moved lines, are not recognized.
+     *
+     * @param leftStart
+     *            of the range in the left source
+     * @param leftEnd
+     *            of the range in the left source (inclusive)
+     * @param rightStart
+     *            of the range in the right source
+     * @param rightEnd
+     *            of the range in the right source (inclusive)
+     * @return <code>true</code> if the ranges are known to be identical, <code>false</code> otherwise
+     */
+    public boolean isUnchanged ( final int leftStart, final int leftEnd, final int rightStart, final int rightEnd ) {
+        if ( ( leftStart < 0 ) || ( leftStart > leftEnd ) || ( leftEnd >= fLeft.length ) || ( rightStart < 0 )
+                || ( rightEnd >= fRight.length ) || ( leftEnd - leftStart != rightEnd - rightStart ) ) {
+            return false;
+        }
+        final int firstLine = getLine( fLeftLineStarts, leftStart );
+        final int lastLine = getLine( fLeftLineStarts, leftEnd );
+        final int rightLine = fMatches[firstLine];
+        return ( rightLine >= 0 ) && ( fRuns[firstLine] == fRuns[lastLine] )
+                && ( rightLine == getLine( fRightLineStarts, rightStart ) )
+                && ( leftStart - fLeftLineStarts[firstLine] == rightStart - fRightLineStarts[rightLine] );
+    }
+
+    private void matchLines () {
+        final int leftCount = fLeftHashes.length;
+        final int rightCount = fRightHashes.length;
+        int prefix = 0;
+        while ( ( prefix < leftCount ) && ( prefix < rightCount ) && linesEqual( prefix, prefix ) ) {
+            fMatches[prefix] = prefix;
+            prefix++;
+        }
+        int suffix = 0;
+        while ( ( suffix < leftCount - prefix ) && ( suffix < rightCount - prefix )
+                && linesEqual( leftCount - 1 - suffix, rightCount - 1 - suffix ) ) {
+            fMatches[leftCount - 1 - suffix] = rightCount - 1 - suffix;
+            suffix++;
+        }
+        matchLines( prefix, leftCount - suffix, prefix, rightCount - suffix );
+    }
+
+    /*
+     * Myers' greedy algorithm. For each edit distance d, the furthest reaching paths on the diagonals k = x - y in
+     * [-d, d] are recorded, so that the matched lines can be collected backwards from the end.
+     */
+    private void matchLines ( final int leftStart, final int leftEnd, final int rightStart, final int rightEnd ) {
+        final int n = leftEnd - leftStart;
+        final int m = rightEnd - rightStart;
+        if ( ( n == 0 ) || ( m == 0 ) ) {
+            return;
+        }
+        final int max = Math.min( n + m, MAX_EDIT_DISTANCE );
+        final int offset = max + 1;
+        final int[] v = new int[2 * max + 3];
+        final int[][] trace = new int[max + 1][];
+        for ( int d = 0; d <= max; d++ ) {
+            for ( int k = -d; k <= d; k += 2 ) {
+                int x;
+                if ( ( k == -d ) || ( ( k != d ) && ( v[offset + k - 1] < v[offset + k + 1] ) ) ) {
+                    x = v[offset + k + 1];
+                }
+                else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while ( ( x < n ) && ( y < m ) && linesEqual( leftStart + x, rightStart + y ) ) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if ( ( x >= n ) && ( y >= m ) ) {
+                    collectMatches( trace, d, n, m, leftStart, rightStart );
+                    return;
+                }
+            }
+            trace[d] = Arrays.copyOfRange( v, offset - d, offset + d + 1 );
+        }
+    }
+
+    private void collectMatches ( final int[][] trace, final int distance, final int n, final int m,
+            final int leftStart, final int rightStart ) {
+        int x = n;
+        int y = m;
+        for ( int d = distance; d > 0; d-- ) {
+            final int[] previous = trace[d - 1];
+            final int k = x - y;
+            final int previousK;
+            if ( ( k == -d ) || ( ( k != d ) && ( previous[k - 1 + d - 1] < previous[k + 1 + d - 1] ) ) ) {
+                previousK = k + 1;
+            }
+            else {
+                previousK = k - 1;
+            }
+            final int previousX = previous[previousK + d - 1];
+            final int snakeStart = previousK == k + 1 ? previousX : previousX + 1;
+            while ( x > snakeStart ) {
+                x--;
+                y--;
+                fMatches[leftStart + x] = rightStart + y;
+            }
+            x = previousX;
+            y = previousX - previousK;
+        }
+        while ( ( x > 0 ) && ( y > 0 ) ) {
+            x--;
+            y--;
+            fMatches[leftStart + x] = rightStart + y;
+        }
+    }
+
+    private void computeRuns () {
+        int run = 0;
+        for ( int line = 1; line < fMatches.length; line++ ) {
+            if ( ( fMatches[line] < 0 ) || ( fMatches[line - 1] < 0 )
+                    || ( fMatches[line] != fMatches[line - 1] + 1 ) ) {
+                run++;
+            }
+            fRuns[line] = run;
+        }
+    }
+
+    private boolean linesEqual ( final int leftLine, final int rightLine ) {
+        if ( fLeftHashes[leftLine] != fRightHashes[rightLine] ) {
+            return false;
+        }
+        final int leftStart = fLeftLineStarts[leftLine];
+        final int rightStart = fRightLineStarts[rightLine];
+        final int length = getLineEnd( fLeftLineStarts, fLeft, leftLine ) - leftStart;
+        if ( getLineEnd( fRightLineStarts, fRight, rightLine ) - rightStart != length ) {
+            return false;
+        }
+        for ( int i = 0; i < length; i++ ) {
+            if ( fLeft[leftStart + i] != fRight[rightStart + i] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] getLineStarts ( final char[] source ) {
+        int count = 1;
+        for ( final char c : source ) {
+            if ( c == '\n' ) {
+                count++;
+            }
+        }
+        final int[] starts = new int[count];
+        int line = 1;
+        for ( int i = 0; i < source.length; i++ ) {
+            if ( source[i] == '\n' ) {
+                starts[line++] = i + 1;
+            }
+        }
+        return starts;
+    }
+
+    private static int[] getLineHashes ( final char[] source, final int[] lineStarts ) {
+        final int[] hashes = new int[lineStarts.length];
+        for ( int line = 0; line < lineStarts.length; line++ ) {
+            int hash = 0;
+            for ( int i = lineStarts[line]; i < getLineEnd( lineStarts, source, line ); i++ ) {
+                hash = 31 * hash + source[i];
+            }
+            hashes[line] = hash;
+        }
+        return hashes;
+    }
+
+    private static int getLineEnd ( final int[] lineStarts, final char[] source, final int line ) {
+        return line + 1 < lineStarts.length ? lineStarts[line + 1] : source.length;
+    }
+
+    private static int getLine ( final int[] lineStarts, final int position ) {
+        final int index = Arrays.binarySearch( lineStarts, position );
+        return index >= 0 ? index : -index - 2;
+    }
+
+}
@@ -27,7 +27,28 @@ import java.util.Set;
  */
 public class StructureDifferencer {
 
-    private StructureDiffNode fDifferences;
+    private final StructurePrefilter fPrefilter;
+    private StructureDiffNode        fDifferences;
+
+    /**
+     * Creates a new differencer that skips nodes with equal content hashes.
+     */
+    public StructureDifferencer () {
+        this( null );
+    }
+
+    /**
+     * Creates a new differencer that skips the nodes the given prefilter recognizes as unchanged. The content hashes
+     * of other nodes are only compared when the nodes are compared as leaves; for nodes with children, comparing the
+     * children finds no differences either if the hashes are equal, and the hashes of large nodes need not be
+     * computed.
+     *
+     * @param prefilter
+     *            to recognize unchanged nodes with; <code>null</code> to compare content hashes instead
+     */
+    public StructureDifferencer ( final StructurePrefilter prefilter ) {
+        fPrefilter = prefilter;
+    }
 
     /**
      * Types of differences.
@@ -57,6 +78,10 @@ public class StructureDifferencer {
     }
 
     private StructureDiffNode traverse ( final StructureNode left, final StructureNode right ) {
+        if ( ( left != null ) && ( right != null ) && isUnchanged( left, right ) ) {
+            // neither the nodes nor any of their descendants changed
+            return null;
+        }
         final StructureNode[] leftChildren = getChildren( left );
         final StructureNode[] rightChildren = getChildren( right );
         StructureDiffNode root = new StructureDiffNode( left, right );
@@ -131,7 +156,21 @@ public class StructureDifferencer {
         return ( root != null ) && ( !root.getChildren().isEmpty() || ( root.getDiffType() != DiffType.NO_CHANGE ) );
     }
 
+    private boolean isUnchanged ( final StructureNode left, final StructureNode right ) {
+        if ( fPrefilter != null ) {
+            return fPrefilter.isUnchanged( left, right );
+        }
+        return contentHashesEqual( left, right );
+    }
+
+    private boolean contentHashesEqual ( final StructureNode left, final StructureNode right ) {
+        return left.hasContentHash() && right.hasContentHash() && ( left.getContentHash() == right.getContentHash() );
+    }
+
     private boolean contentsEqual ( final StructureNode left, final StructureNode right ) {
+        if ( contentHashesEqual( left, right ) ) {
+            return true;
+        }
         if ( ( left.getContent() == null ) && ( right.getContent() == null ) ) {
             return true;
         }
@@ -44,6 +44,23 @@ public interface StructureNode {
      */
     String getContent();
 
+    /**
+     * Returns whether or not the node knows a hash of its content.
+     * 
+     * @return <code>true</code> if the node has a content hash, <code>false</code> otherwise
+     * @see #getContentHash()
+     */
+    boolean hasContentHash();
+
+    /**
+     * Returns the hash of the content of this structure node and its children. Two nodes with equal content hashes
+     * have equal content and equal children, hence the comparison of their contents can be skipped. The converse does
+     * not hold.
+     * 
+     * @return the content hash of the node; only valid if {@link #hasContentHash()}
+     */
+    long getContentHash();
+
     /**
      * Returns the name of this structure node.
      * 
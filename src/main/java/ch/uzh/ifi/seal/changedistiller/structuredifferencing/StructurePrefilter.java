@@ -0,0 +1,45 @@
+package ch.uzh.ifi.seal.changedistiller.structuredifferencing;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Recognizes pairs of {@link StructureNode}s that are unchanged before the {@link StructureDifferencer} compares them.
+ * <p>
+ * A prefilter replaces the comparison of content hashes with which the differencer skips unchanged nodes and their
+ * descendants. Hence, it must only report nodes as unchanged whose hashes would be equal.
+ *
+ * @see StructureDifferencer#StructureDifferencer(StructurePrefilter)
+ */
+public interface StructurePrefilter {
+
+    /**
+     * Returns whether the given nodes, which have the same name and type, are known to be unchanged.
+     *
+     * @param left
+     *            node to compare with right
+     * @param right
+     *            node to compare with left
+     * @return <code>true</code> if neither the nodes nor any of their descendants changed, <code>false</code> if
+     *         this is not known
+     */
+    boolean isUnchanged ( StructureNode left, StructureNode right );
+
+}
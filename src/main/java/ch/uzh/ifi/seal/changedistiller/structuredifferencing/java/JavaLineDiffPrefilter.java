@@ -0,0 +1,63 @@
+package ch.uzh.ifi.seal.changedistiller.structuredifferencing.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.LineDiff;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureNode;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructurePrefilter;
+
+/**
+ * Recognizes {@link JavaStructureNode}s as unchanged if the {@link LineDiff} of their sources shows that the source
+ * ranges they were parsed from are identical. The tokens of identical ranges are identical, hence so are the content
+ * hashes of the nodes.
+ * <p>
+ * The line diff is computed once per pair of sources. Nodes without a known source range are never recognized as
+ * unchanged.
+ */
+public class JavaLineDiffPrefilter implements StructurePrefilter {
+
+    private final LineDiff fLineDiff;
+
+    /**
+     * Creates a new prefilter for the structure trees of the given sources.
+     *
+     * @param left
+     *            source the left structure tree was built from
+     * @param right
+     *            source the right structure tree was built from
+     */
+    public JavaLineDiffPrefilter ( final char[] left, final char[] right ) {
+        fLineDiff = LineDiff.of( left, right );
+    }
+
+    @Override
+    public boolean isUnchanged ( final StructureNode left, final StructureNode right ) {
+        if ( ( left instanceof JavaStructureNode ) && ( right instanceof JavaStructureNode ) ) {
+            final JavaStructureNode leftNode = (JavaStructureNode) left;
+            final JavaStructureNode rightNode = (JavaStructureNode) right;
+            return leftNode.hasSourceRange() && rightNode.hasSourceRange()
+                    && fLineDiff.isUnchanged( leftNode.getSourceStart(), leftNode.getSourceEnd(),
+                            rightNode.getSourceStart(), rightNode.getSourceEnd() );
+        }
+        return false;
+    }
+
+}
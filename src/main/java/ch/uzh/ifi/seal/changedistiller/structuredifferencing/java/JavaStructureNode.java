@@ -18,9 +18,14 @@ import java.util.List;
 import org.eclipse.jdt.internal.compiler.ast.ASTNode;
 
 import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureNode;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.java.JavaStructureTreeBuilder.PendingBody;
 
 /**
  * Node for Java structure differencing.
+ * <p>
+ * The node of a method that was diet parsed holds a pending body. The body is parsed, and the nodes declared in it are
+ * added as children, before the children, the content or the AST node of the node are returned. Likewise, the content
+ * hash of a node whose hash is computed on demand is computed when it is first requested.
  *
  * @author Beat Fluri
  */
@@ -31,6 +36,12 @@ public class JavaStructureNode implements StructureNode {
     private final String                  fQualifier;
     private final ASTNode                 fASTNode;
     private final List<JavaStructureNode> fChildren;
+    private boolean                       fHasContentHash;
+    private long                          fContentHash;
+    private volatile TokenStreamHash      fPendingContentHash;
+    private volatile PendingBody          fPendingBody;
+    private int                           fSourceStart = -1;
+    private int                           fSourceEnd   = -1;
 
     /**
      * Creates a new Java structure node
@@ -64,6 +75,7 @@ public class JavaStructureNode implements StructureNode {
 
     @Override
     public List<JavaStructureNode> getChildren () {
+        loadBody();
         return fChildren;
     }
 
@@ -107,9 +119,122 @@ public class JavaStructureNode implements StructureNode {
 
     @Override
     public String getContent () {
+        loadBodies();
         return fASTNode.toString();
     }
 
+    @Override
+    public boolean hasContentHash () {
+        computeContentHash();
+        return fHasContentHash;
+    }
+
+    @Override
+    public long getContentHash () {
+        computeContentHash();
+        return fContentHash;
+    }
+
+    /**
+     * Sets the hash of the token stream this node was parsed from.
+     *
+     * @param contentHash
+     *            of the node
+     * @see JavaStructureTreeBuilder
+     */
+    void setContentHash ( final long contentHash ) {
+        fContentHash = contentHash;
+        fHasContentHash = true;
+    }
+
+    /**
+     * Sets the hashes on demand the hash of the source range of this node is computed with when it is first
+     * requested.
+     *
+     * @param tokenStreamHash
+     *            of the source
+     * @see #setSourceRange(int, int)
+     */
+    void setContentHash ( final TokenStreamHash tokenStreamHash ) {
+        fPendingContentHash = tokenStreamHash;
+    }
+
+    /**
+     * Sets the range of the source this node was parsed from, including its Javadoc.
+     *
+     * @param start
+     *            of the range
+     * @param end
+     *            of the range (inclusive)
+     * @see JavaStructureTreeBuilder
+     */
+    void setSourceRange ( final int start, final int end ) {
+        fSourceStart = start;
+        fSourceEnd = end;
+    }
+
+    /**
+     * Returns whether the range of the source this node was parsed from is known.
+     *
+     * @return <code>true</code> if the source range is known, <code>false</code> otherwise
+     */
+    boolean hasSourceRange () {
+        return fSourceStart >= 0;
+    }
+
+    int getSourceStart () {
+        return fSourceStart;
+    }
+
+    int getSourceEnd () {
+        return fSourceEnd;
+    }
+
+    /**
+     * Sets the body of this node that is not parsed yet.
+     *
+     * @param pendingBody
+     *            of the node
+     * @see JavaStructureTreeBuilder
+     */
+    void setPendingBody ( final PendingBody pendingBody ) {
+        fPendingBody = pendingBody;
+    }
+
+    private void loadBody () {
+        if ( fPendingBody != null ) {
+            synchronized ( this ) {
+                if ( fPendingBody != null ) {
+                    fPendingBody.load( this );
+                    fPendingBody = null;
+                }
+            }
+        }
+    }
+
+    private void computeContentHash () {
+        if ( fPendingContentHash != null ) {
+            synchronized ( this ) {
+                if ( fPendingContentHash != null ) {
+                    final long contentHash = fPendingContentHash.hash( fSourceStart, fSourceEnd );
+                    if ( contentHash != TokenStreamHash.NONE ) {
+                        setContentHash( contentHash );
+                    }
+                    fPendingContentHash = null;
+                }
+            }
+        }
+    }
+
+    /*
+     * The content of a type includes the bodies of its members.
+     */
+    private void loadBodies () {
+        for ( final JavaStructureNode child : getChildren() ) {
+            child.loadBodies();
+        }
+    }
+
     @Override
     public int hashCode () {
         return toString().hashCode();
@@ -125,6 +250,7 @@ public class JavaStructureNode implements StructureNode {
     }
 
     public ASTNode getASTNode () {
+        loadBody();
         return fASTNode;
     }
 
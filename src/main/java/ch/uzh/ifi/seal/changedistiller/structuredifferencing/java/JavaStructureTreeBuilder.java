@@ -12,19 +12,23 @@ package ch.uzh.ifi.seal.changedistiller.structuredifferencing.java;
  * governing permissions and limitations under the License. #L%
  */
 
+import java.util.Arrays;
 import java.util.Stack;
 
 import org.eclipse.jdt.internal.compiler.ASTVisitor;
 import org.eclipse.jdt.internal.compiler.ast.ASTNode;
 import org.eclipse.jdt.internal.compiler.ast.AbstractMethodDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.Annotation;
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.ConstructorDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.FieldDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.Javadoc;
 import org.eclipse.jdt.internal.compiler.ast.MarkerAnnotation;
 import org.eclipse.jdt.internal.compiler.ast.MethodDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.NormalAnnotation;
 import org.eclipse.jdt.internal.compiler.ast.SingleMemberAnnotation;
 import org.eclipse.jdt.internal.compiler.ast.SingleNameReference;
+import org.eclipse.jdt.internal.compiler.ast.Statement;
 import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.lookup.BlockScope;
 import org.eclipse.jdt.internal.compiler.lookup.ClassScope;
@@ -35,6 +39,16 @@ import ch.uzh.ifi.seal.changedistiller.structuredifferencing.java.JavaStructureN
 
 /**
  * Creates a tree of {@link JavaStructureNode}s.
+ * <p>
+ * If the builder knows the source of the traversed compilation unit, it attaches the hash of the tokens each node was
+ * parsed from to the node (see {@link JavaStructureNode#getContentHash()}). Nodes that the parser generates without
+ * own source, such as default constructors, get no hash. Each hashed node also knows the range of the source it was
+ * parsed from. The hashes are either computed while the tree is built, which scans the whole source once, or on demand
+ * for the range of each node, which pays off if the hashes of few nodes are requested.
+ * <p>
+ * If the compilation unit was diet parsed, the nodes of methods and constructors get a pending body that is parsed with
+ * a {@link MethodBodyParser} when the node is accessed (see {@link JavaStructureNode}). The nodes declared in the body
+ * of a method, i.e., local and anonymous types and annotations, are added then.
  *
  * @author Beat Fluri
  */
@@ -42,6 +56,9 @@ public class JavaStructureTreeBuilder extends ASTVisitor {
 
     private final Stack<JavaStructureNode> fNodeStack;
     private final Stack<char[]>            fQualifiers;
+    private final TokenStreamHash          fTokenStreamHash;
+    private final int                      fSourceLength;
+    private final MethodBodyParser         fBodyParser;
 
     /**
      * Creates a new Java structure tree builder.
@@ -53,11 +70,89 @@ public class JavaStructureTreeBuilder extends ASTVisitor {
         fNodeStack = new Stack<JavaStructureNode>();
         fNodeStack.push( root );
         fQualifiers = new Stack<char[]>();
+        fTokenStreamHash = null;
+        fSourceLength = 0;
+        fBodyParser = null;
+    }
+
+    /**
+     * Creates a new Java structure tree builder that attaches content hashes to the created nodes.
+     *
+     * @param root
+     *            of the structure tree
+     * @param source
+     *            of the compilation unit the tree is built for
+     * @param version
+     *            of Java used in the source (one of the <code>ClassFileConstants.JDK*</code> constants)
+     */
+    public JavaStructureTreeBuilder ( final JavaStructureNode root, final char[] source, final long version ) {
+        this( root, source, version, null );
+    }
+
+    /**
+     * Creates a new Java structure tree builder that attaches content hashes to the created nodes and parses the
+     * bodies of methods and constructors on demand.
+     *
+     * @param root
+     *            of the structure tree
+     * @param source
+     *            of the compilation unit the tree is built for
+     * @param version
+     *            of Java used in the source (one of the <code>ClassFileConstants.JDK*</code> constants)
+     * @param bodyParser
+     *            to parse the bodies that were skipped by the diet parse of the compilation unit; <code>null</code> if
+     *            the compilation unit was fully parsed
+     */
+    public JavaStructureTreeBuilder ( final JavaStructureNode root, final char[] source, final long version,
+            final MethodBodyParser bodyParser ) {
+        this( root, source, version, bodyParser, false );
+    }
+
+    /**
+     * Creates a new Java structure tree builder that attaches content hashes to the created nodes and parses the
+     * bodies of methods and constructors on demand.
+     *
+     * @param root
+     *            of the structure tree
+     * @param source
+     *            of the compilation unit the tree is built for
+     * @param version
+     *            of Java used in the source (one of the <code>ClassFileConstants.JDK*</code> constants)
+     * @param bodyParser
+     *            to parse the bodies that were skipped by the diet parse of the compilation unit; <code>null</code> if
+     *            the compilation unit was fully parsed
+     * @param hashOnDemand
+     *            whether the content hash of a node is computed when it is first requested instead of while the tree
+     *            is built
+     */
+    public JavaStructureTreeBuilder ( final JavaStructureNode root, final char[] source, final long version,
+            final MethodBodyParser bodyParser, final boolean hashOnDemand ) {
+        fNodeStack = new Stack<JavaStructureNode>();
+        fNodeStack.push( root );
+        fQualifiers = new Stack<char[]>();
+        fTokenStreamHash = hashOnDemand ? TokenStreamHash.onDemand( source, version )
+                : TokenStreamHash.of( source, version );
+        fSourceLength = source.length;
+        fBodyParser = bodyParser;
+    }
+
+    private JavaStructureTreeBuilder ( final JavaStructureNode node, final char[][] qualifiers,
+            final TokenStreamHash tokenStreamHash, final int sourceLength ) {
+        fNodeStack = new Stack<JavaStructureNode>();
+        fNodeStack.push( node );
+        fQualifiers = new Stack<char[]>();
+        fQualifiers.addAll( Arrays.asList( qualifiers ) );
+        fTokenStreamHash = tokenStreamHash;
+        fSourceLength = sourceLength;
+        fBodyParser = null;
     }
 
     @Override
     public boolean visit ( final CompilationUnitDeclaration compilationUnitDeclaration,
             final CompilationUnitScope scope ) {
+        if ( fSourceLength > 0 ) {
+            setContentHash( fNodeStack.peek(), 0, fSourceLength - 1 );
+        }
         if ( compilationUnitDeclaration.currentPackage != null ) {
             for ( final char[] qualifier : compilationUnitDeclaration.currentPackage.tokens ) {
                 fQualifiers.push( qualifier );
@@ -283,10 +378,62 @@ public class JavaStructureTreeBuilder extends ASTVisitor {
 
     private void push ( final Type type, final String name, final ASTNode astNode ) {
         final JavaStructureNode node = new JavaStructureNode( type, getQualifier(), name, astNode );
+        setContentHash( node, astNode );
+        if ( ( fBodyParser != null ) && ( astNode instanceof AbstractMethodDeclaration ) ) {
+            node.setPendingBody( new PendingBody( (AbstractMethodDeclaration) astNode,
+                    fQualifiers.toArray( new char[fQualifiers.size()][] ), fTokenStreamHash, fSourceLength,
+                    fBodyParser ) );
+        }
         fNodeStack.peek().addChild( node );
         fNodeStack.push( node );
     }
 
+    private void setContentHash ( final JavaStructureNode node, final ASTNode astNode ) {
+        if ( astNode instanceof TypeDeclaration ) {
+            final TypeDeclaration type = (TypeDeclaration) astNode;
+            setContentHash( node, getStart( type.declarationSourceStart, type.javadoc ), type.declarationSourceEnd );
+        }
+        else if ( astNode instanceof AbstractMethodDeclaration ) {
+            final AbstractMethodDeclaration method = (AbstractMethodDeclaration) astNode;
+            // default and canonical constructors are printed with parts of the type declaration
+            if ( !method.isDefaultConstructor() && !method.isCanonicalConstructor() ) {
+                setContentHash( node, getStart( method.declarationSourceStart, method.javadoc ),
+                        method.declarationSourceEnd );
+            }
+        }
+        else if ( astNode instanceof FieldDeclaration ) {
+            final FieldDeclaration field = (FieldDeclaration) astNode;
+            setContentHash( node, getStart( field.declarationSourceStart, field.javadoc ), field.declarationSourceEnd );
+        }
+        else if ( astNode instanceof Annotation ) {
+            final Annotation annotation = (Annotation) astNode;
+            setContentHash( node, annotation.sourceStart, annotation.declarationSourceEnd );
+        }
+    }
+
+    private int getStart ( final int declarationSourceStart, final Javadoc javadoc ) {
+        if ( javadoc != null ) {
+            return Math.min( declarationSourceStart, javadoc.sourceStart );
+        }
+        return declarationSourceStart;
+    }
+
+    private void setContentHash ( final JavaStructureNode node, final int start, final int end ) {
+        if ( ( start < 0 ) || ( start > end ) || ( end >= fSourceLength ) ) {
+            return;
+        }
+        node.setSourceRange( start, end );
+        if ( fTokenStreamHash == null ) {
+            return;
+        }
+        if ( fTokenStreamHash.isOnDemand() ) {
+            node.setContentHash( fTokenStreamHash );
+        }
+        else {
+            node.setContentHash( fTokenStreamHash.hash( start, end ) );
+        }
+    }
+
     private String getQualifier () {
         if ( !fQualifiers.isEmpty() ) {
             final StringBuilder qualifier = new StringBuilder();
@@ -305,4 +452,43 @@ public class JavaStructureTreeBuilder extends ASTVisitor {
         fNodeStack.pop();
     }
 
+    /**
+     * Body of a method or constructor that was skipped by the diet parse of the compilation unit.
+     */
+    static final class PendingBody {
+
+        private final AbstractMethodDeclaration fMethod;
+        private final char[][]                  fQualifiers;
+        private final TokenStreamHash           fTokenStreamHash;
+        private final int                       fSourceLength;
+        private final MethodBodyParser          fBodyParser;
+
+        PendingBody ( final AbstractMethodDeclaration method, final char[][] qualifiers,
+                final TokenStreamHash tokenStreamHash, final int sourceLength, final MethodBodyParser bodyParser ) {
+            fMethod = method;
+            fQualifiers = qualifiers;
+            fTokenStreamHash = tokenStreamHash;
+            fSourceLength = sourceLength;
+            fBodyParser = bodyParser;
+        }
+
+        /**
+         * Parses the body and adds the nodes declared in it to the given node, like the builder does when it
+         * traverses a fully parsed method. Constructors are not traversed.
+         *
+         * @param node
+         *            of the method
+         */
+        void load ( final JavaStructureNode node ) {
+            fBodyParser.parse( fMethod );
+            if ( ( fMethod instanceof MethodDeclaration ) && ( fMethod.statements != null ) ) {
+                final JavaStructureTreeBuilder builder = new JavaStructureTreeBuilder( node, fQualifiers,
+                        fTokenStreamHash, fSourceLength );
+                for ( final Statement statement : fMethod.statements ) {
+                    statement.traverse( builder, fMethod.scope );
+                }
+            }
+        }
+    }
+
 }
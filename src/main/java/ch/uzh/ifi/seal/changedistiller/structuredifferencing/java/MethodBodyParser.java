@@ -0,0 +1,40 @@
+package ch.uzh.ifi.seal.changedistiller.structuredifferencing.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.eclipse.jdt.internal.compiler.ast.AbstractMethodDeclaration;
+
+/**
+ * Parses the bodies of methods and constructors that were skipped by a diet parse.
+ *
+ * @see JavaStructureTreeBuilder#JavaStructureTreeBuilder(JavaStructureNode, char[], long, MethodBodyParser)
+ */
+public interface MethodBodyParser {
+
+    /**
+     * Parses the statements of the given method. Implementations have to be thread-safe.
+     *
+     * @param method
+     *            of which the body should be parsed
+     */
+    void parse ( AbstractMethodDeclaration method );
+
+}
@@ -0,0 +1,220 @@
+package ch.uzh.ifi.seal.changedistiller.structuredifferencing.java;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2013 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.internal.compiler.parser.Scanner;
+import org.eclipse.jdt.internal.compiler.parser.TerminalTokens;
+
+/**
+ * Hashes of the token stream of arbitrary ranges of a Java source.
+ * <p>
+ * The source is scanned once. Whitespace, line comments and block comments are skipped, every other token (including
+ * Javadoc comments, which are part of the AST) contributes the hash of its characters. Prefix hashes of the resulting
+ * sequence allow to compute the polynomial hash (modulo the Mersenne prime <code>2^61 - 1</code>) of the tokens in any
+ * source range in constant time after a binary search for the range.
+ * <p>
+ * Sources that differ in formatting and non-Javadoc comments only have equal hashes, as have equal sources.
+ * <p>
+ * Hashes {@link #onDemand(char[], long) on demand} do not scan the source up front, but the requested range each time
+ * a hash is computed. They are equal to the hashes of a scanned source, but are only computed for ranges that can be
+ * scanned on their own, even if the rest of the source cannot.
+ */
+final class TokenStreamHash {
+
+    /**
+     * Hash on demand of a range that cannot be scanned.
+     */
+    static final long         NONE    = -1;
+
+    private static final long MODULUS = ( 1L << 61 ) - 1;
+    private static final long BASE    = 1_000_003L;
+    private static final long MASK30  = ( 1L << 30 ) - 1;
+    private static final long MASK31  = ( 1L << 31 ) - 1;
+
+    private final int[]       fTokenStarts;
+    private final long[]      fPrefixes;
+    private final long[]      fPowers;
+    private final int         fTokenCount;
+    private final char[]      fSource;
+    private final long        fVersion;
+
+    private TokenStreamHash ( final int[] tokenStarts, final long[] prefixes, final long[] powers,
+            final int tokenCount ) {
+        fTokenStarts = tokenStarts;
+        fPrefixes = prefixes;
+        fPowers = powers;
+        fTokenCount = tokenCount;
+        fSource = null;
+        fVersion = 0;
+    }
+
+    private TokenStreamHash ( final char[] source, final long version ) {
+        fTokenStarts = null;
+        fPrefixes = null;
+        fPowers = null;
+        fTokenCount = 0;
+        fSource = source;
+        fVersion = version;
+    }
+
+    /**
+     * Scans the given source.
+     *
+     * @param source
+     *            to scan
+     * @param version
+     *            of Java used in the source (one of the <code>ClassFileConstants.JDK*</code> constants)
+     * @return the token stream hashes of the source or <code>null</code> if the source cannot be scanned
+     */
+    static TokenStreamHash of ( final char[] source, final long version ) {
+        final Scanner scanner = new Scanner( true, false, false, version, null, null, true );
+        scanner.setSource( source );
+        int[] starts = new int[Math.max( 16, source.length / 4 )];
+        long[] prefixes = new long[starts.length + 1];
+        long[] powers = new long[starts.length + 1];
+        powers[0] = 1;
+        int count = 0;
+        try {
+            int token;
+            while ( ( token = scanner.getNextToken() ) != TerminalTokens.TokenNameEOF ) {
+                if ( ( token == TerminalTokens.TokenNameCOMMENT_LINE )
+                        || ( token == TerminalTokens.TokenNameCOMMENT_BLOCK ) ) {
+                    continue;
+                }
+                if ( count == starts.length ) {
+                    starts = Arrays.copyOf( starts, count * 2 );
+                    prefixes = Arrays.copyOf( prefixes, count * 2 + 1 );
+                    powers = Arrays.copyOf( powers, count * 2 + 1 );
+                }
+                starts[count] = scanner.startPosition;
+                final long tokenHash = hashChars( source, scanner.startPosition, scanner.currentPosition );
+                prefixes[count + 1] = reduce( multiply( prefixes[count], BASE ) + tokenHash );
+                powers[count + 1] = multiply( powers[count], BASE );
+                count++;
+            }
+        }
+        catch ( final InvalidInputException e ) {
+            return null;
+        }
+        return new TokenStreamHash( starts, prefixes, powers, count );
+    }
+
+    /**
+     * Returns hashes of the given source that are computed on demand.
+     *
+     * @param source
+     *            to hash
+     * @param version
+     *            of Java used in the source (one of the <code>ClassFileConstants.JDK*</code> constants)
+     * @return the token stream hashes of the source
+     */
+    static TokenStreamHash onDemand ( final char[] source, final long version ) {
+        return new TokenStreamHash( source, version );
+    }
+
+    /**
+     * Returns whether hashes are computed on demand.
+     *
+     * @return <code>true</code> if hashes are computed on demand, <code>false</code> if the source was scanned
+     */
+    boolean isOnDemand () {
+        return fSource != null;
+    }
+
+    /**
+     * Returns the hash of the tokens that start within the given source range.
+     *
+     * @param start
+     *            of the range
+     * @param end
+     *            of the range (inclusive)
+     * @return the hash of the tokens in the range; {@link #NONE} if hashes are computed on demand and the range
+     *         cannot be scanned
+     */
+    long hash ( final int start, final int end ) {
+        if ( isOnDemand() ) {
+            return scan( start, end );
+        }
+        final int first = firstTokenAtOrAfter( start );
+        final int last = firstTokenAtOrAfter( end + 1 );
+        final long hash = reduce( fPrefixes[last] + MODULUS - multiply( fPrefixes[first], fPowers[last - first] ) );
+        // distinguishes ranges of different length that happen to have the same polynomial value
+        return reduce( multiply( hash, BASE ) + ( last - first ) );
+    }
+
+    private long scan ( final int start, final int end ) {
+        final Scanner scanner = new Scanner( true, false, false, fVersion, null, null, true );
+        scanner.setSource( fSource );
+        scanner.resetTo( start, fSource.length - 1 );
+        long hash = 0;
+        int count = 0;
+        try {
+            int token;
+            while ( ( ( token = scanner.getNextToken() ) != TerminalTokens.TokenNameEOF )
+                    && ( scanner.startPosition <= end ) ) {
+                if ( ( token == TerminalTokens.TokenNameCOMMENT_LINE )
+                        || ( token == TerminalTokens.TokenNameCOMMENT_BLOCK ) ) {
+                    continue;
+                }
+                hash = reduce( multiply( hash, BASE ) + hashChars( fSource, scanner.startPosition,
+                        scanner.currentPosition ) );
+                count++;
+            }
+        }
+        catch ( final InvalidInputException e ) {
+            return NONE;
+        }
+        return reduce( multiply( hash, BASE ) + count );
+    }
+
+    private int firstTokenAtOrAfter ( final int position ) {
+        int low = 0;
+        int high = fTokenCount;
+        while ( low < high ) {
+            final int mid = ( low + high ) >>> 1;
+            if ( fTokenStarts[mid] < position ) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long hashChars ( final char[] source, final int start, final int end ) {
+        long hash = 0xcbf29ce484222325L;
+        for ( int i = start; i < end; i++ ) {
+            hash = ( hash ^ source[i] ) * 0x100000001b3L;
+        }
+        return reduce( hash >>> 3 );
+    }
+
+    private static long multiply ( final long a, final long b ) {
+        final long au = a >>> 31;
+        final long ad = a & MASK31;
+        final long bu = b >>> 31;
+        final long bd = b & MASK31;
+        final long mid = ad * bu + au * bd;
+        return reduce( ( au * bu << 1 ) + ( mid >>> 30 ) + ( ( mid & MASK30 ) << 31 ) + ad * bd );
+    }
+
+    private static long reduce ( final long value ) {
+        final long reduced = ( value >>> 61 ) + ( value & MODULUS );
+        return reduced >= MODULUS ? reduced - MODULUS : reduced;
+    }
+
+}
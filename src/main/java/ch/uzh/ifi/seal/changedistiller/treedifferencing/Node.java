@@ -45,6 +45,10 @@ public class Node extends DefaultMutableTreeNode implements TreeNode {
     private SourceCodeEntity  fEntity;
     private final List<Node>  fAssociatedNodes = new ArrayList<Node>();
 
+    private int               fPreOrderIndex   = -1;
+    private int               fSubtreeEnd      = -1;
+    private int               fNonCommentLeafCount;
+
     /**
      * Creates a new node.
      *
@@ -249,4 +253,89 @@ public class Node extends DefaultMutableTreeNode implements TreeNode {
         return candidate.isLeaf() && isNodeDescendant( candidate );
     }
 
+    /**
+     * Numbers the nodes of the tree rooted at this node in pre-order. Each node
+     * gets its pre-order index, the highest index within its subtree, and the
+     * number of leaves in its subtree minus the number of comment nodes in its
+     * subtree.
+     *
+     * <p>
+     * The numbering is a snapshot. It is not updated when the tree is modified
+     * and has to be renewed afterwards.
+     */
+    public void numberNodes () {
+        numberNodes( 0 );
+    }
+
+    private int numberNodes ( final int index ) {
+        fPreOrderIndex = index;
+        int next = index + 1;
+        int nonCommentLeafCount = isLeaf() ? 1 : 0;
+        if ( ( fLabel != null ) && fLabel.isComment() ) {
+            nonCommentLeafCount--;
+        }
+        for ( int i = 0; i < getChildCount(); i++ ) {
+            final Node child = (Node) getChildAt( i );
+            next = child.numberNodes( next );
+            nonCommentLeafCount += child.fNonCommentLeafCount;
+        }
+        fSubtreeEnd = next - 1;
+        fNonCommentLeafCount = nonCommentLeafCount;
+        return next;
+    }
+
+    /**
+     * Returns whether this node was numbered by {@link #numberNodes()}.
+     *
+     * @return <code>true</code> if this node is numbered, <code>false</code>
+     *         otherwise
+     */
+    public boolean isNumbered () {
+        return fPreOrderIndex >= 0;
+    }
+
+    /**
+     * Returns the pre-order index of this node assigned by
+     * {@link #numberNodes()}.
+     *
+     * @return the pre-order index of this node, <code>-1</code> if not numbered
+     */
+    public int getPreOrderIndex () {
+        return fPreOrderIndex;
+    }
+
+    /**
+     * Returns the highest pre-order index within the subtree of this node
+     * assigned by {@link #numberNodes()}.
+     *
+     * @return the highest pre-order index within the subtree of this node
+     */
+    public int getSubtreeEnd () {
+        return fSubtreeEnd;
+    }
+
+    /**
+     * Returns the number of leaves in the subtree of this node minus the
+     * number of comment nodes in it, as counted by {@link #numberNodes()}.
+     *
+     * @return the number of non-comment leaves in the subtree of this node
+     */
+    public int getNonCommentLeafCount () {
+        return fNonCommentLeafCount;
+    }
+
+    /**
+     * Returns true if the candidate is a descendant of this node or this node
+     * itself according to the numbering of {@link #numberNodes()}. Both nodes
+     * have to belong to the same numbered tree.
+     *
+     * @param candidate
+     *            to check for descendant
+     * @return <code>true</code> if the pre-order index of the candidate lies
+     *         within the subtree of this node, <code>false</code> otherwise
+     */
+    public boolean isNumberedDescendant ( final Node candidate ) {
+        return ( fPreOrderIndex <= candidate.fPreOrderIndex ) && ( candidate.fPreOrderIndex <= fSubtreeEnd );
+    }
+
 }
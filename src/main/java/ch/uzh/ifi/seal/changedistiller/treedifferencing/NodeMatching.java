@@ -0,0 +1,187 @@
+package ch.uzh.ifi.seal.changedistiller.treedifferencing;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Matching between the nodes of two {@link Node} trees.
+ * <p>
+ * The matching is a set of {@link NodePair}s that is indexed by both the left and the right node of each pair. Nodes
+ * are compared by identity, hence membership tests and partner lookups take constant time instead of a scan over all
+ * pairs. As the set describes a matching, each node is part of at most one pair. Adding a pair replaces the pairs
+ * either of its nodes was part of before.
+ *
+ * @see TreeDifferencer
+ */
+public class NodeMatching extends AbstractSet<NodePair> {
+
+    private final Map<Node, NodePair> fLeftIndex  = new IdentityHashMap<Node, NodePair>();
+    private final Map<Node, NodePair> fRightIndex = new IdentityHashMap<Node, NodePair>();
+    private int fModificationCount;
+
+    /**
+     * Creates a new empty matching.
+     */
+    public NodeMatching() {}
+
+    /**
+     * Creates a new matching containing the given pairs.
+     *
+     * @param pairs
+     *            to add to the matching
+     */
+    public NodeMatching(Collection<? extends NodePair> pairs) {
+        addAll(pairs);
+    }
+
+    @Override
+    public boolean add(NodePair pair) {
+        NodePair existing = fLeftIndex.get(pair.getLeft());
+        if ((existing != null) && existing.equals(pair)) {
+            return false;
+        }
+        if (existing != null) {
+            fRightIndex.remove(existing.getRight());
+        }
+        existing = fRightIndex.get(pair.getRight());
+        if (existing != null) {
+            fLeftIndex.remove(existing.getLeft());
+        }
+        fLeftIndex.put(pair.getLeft(), pair);
+        fRightIndex.put(pair.getRight(), pair);
+        fModificationCount++;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o instanceof NodePair) {
+            NodePair pair = fLeftIndex.get(((NodePair) o).getLeft());
+            return (pair != null) && pair.equals(o);
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the given nodes are matched with each other.
+     *
+     * @param left
+     *            node of the pair
+     * @param right
+     *            node of the pair
+     * @return <code>true</code> if the matching contains a pair of <code>left</code> and <code>right</code>,
+     *         <code>false</code> otherwise
+     */
+    public boolean contains(Node left, Node right) {
+        NodePair pair = fLeftIndex.get(left);
+        return (pair != null) && (pair.getRight() == right);
+    }
+
+    /**
+     * Returns the partner of the given left node.
+     *
+     * @param left
+     *            node to find the partner for
+     * @return the right node matched with <code>left</code>, or <code>null</code> if <code>left</code> is unmatched
+     */
+    public Node getRight(Node left) {
+        NodePair pair = fLeftIndex.get(left);
+        return pair != null ? pair.getRight() : null;
+    }
+
+    /**
+     * Returns the partner of the given right node.
+     *
+     * @param right
+     *            node to find the partner for
+     * @return the left node matched with <code>right</code>, or <code>null</code> if <code>right</code> is unmatched
+     */
+    public Node getLeft(Node right) {
+        NodePair pair = fRightIndex.get(right);
+        return pair != null ? pair.getLeft() : null;
+    }
+
+    /**
+     * Returns the number of modifications of this matching. Data derived from the matching is up to date as long as
+     * the count does not change.
+     *
+     * @return the number of modifications of this matching
+     */
+    public int getModificationCount() {
+        return fModificationCount;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (contains(o)) {
+            NodePair pair = fLeftIndex.remove(((NodePair) o).getLeft());
+            fRightIndex.remove(pair.getRight());
+            fModificationCount++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        fLeftIndex.clear();
+        fRightIndex.clear();
+        fModificationCount++;
+    }
+
+    @Override
+    public int size() {
+        return fLeftIndex.size();
+    }
+
+    @Override
+    public Iterator<NodePair> iterator() {
+        final Iterator<NodePair> pairs = fLeftIndex.values().iterator();
+        return new Iterator<NodePair>() {
+
+            private NodePair fCurrent;
+
+            @Override
+            public boolean hasNext() {
+                return pairs.hasNext();
+            }
+
+            @Override
+            public NodePair next() {
+                fCurrent = pairs.next();
+                return fCurrent;
+            }
+
+            @Override
+            public void remove() {
+                pairs.remove();
+                fRightIndex.remove(fCurrent.getRight());
+                fModificationCount++;
+            }
+        };
+    }
+
+}
@@ -20,13 +20,15 @@ package ch.uzh.ifi.seal.changedistiller.treedifferencing;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
 
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Counter;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Phase;
 import ch.uzh.ifi.seal.changedistiller.model.classifiers.EntityType;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.MatchingFactory;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.TokenBasedCalculator;
@@ -35,6 +37,8 @@ import ch.uzh.ifi.seal.changedistiller.treedifferencing.operation.InsertOperatio
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.operation.MoveOperation;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.operation.UpdateOperation;
 
+import com.google.inject.Inject;
+
 /**
  * Implementation of the core tree differencing algorithm of Chawathe. This algorithm takes two {@link Node} trees
  * generates a matching between the nodes of both trees and calculates an edit script of {@link TreeEditOperation} that
@@ -53,16 +57,31 @@ public class TreeDifferencer {
     private static final int LEFT = 2;
     private static final int DIAG = 3;
 
-    private Set<NodePair> fMatch;
-    private HashMap<Node, Node> fLeftToRightMatch;
-    private HashMap<Node, Node> fRightToLeftMatch;
-
-    private HashSet<NodePair> fMatchPrime;
-    private HashMap<Node, Node> fLeftToRightMatchPrime;
-    private HashMap<Node, Node> fRightToLeftMatchPrime;
+    private NodeMatching fMatch;
+    private NodeMatching fMatchPrime;
 
     private List<TreeEditOperation> fEditScript;
 
+    private final DistillerMetrics fMetrics;
+
+    /**
+     * Creates a new tree differencer that reports to no metrics.
+     */
+    public TreeDifferencer() {
+        this(DistillerMetrics.NONE);
+    }
+
+    /**
+     * Creates a new tree differencer.
+     * 
+     * @param metrics
+     *            to report the matching and edit script phases to
+     */
+    @Inject
+    public TreeDifferencer(DistillerMetrics metrics) {
+        fMetrics = metrics;
+    }
+
     /**
      * Calculates the edit script of {@link TreeEditOperation} between the left and the right {@link Node} trees.
      * 
@@ -72,33 +91,30 @@ public class TreeDifferencer {
      *            tree to calculate the edit script for
      */
     public void calculateEditScript(Node left, Node right) {
-        fMatch = new HashSet<NodePair>();
+        fMatch = new NodeMatching();
 
-        TreeMatcher dnm = MatchingFactory.getMatcher(fMatch);
+        TreeMatcher dnm = MatchingFactory.getMatcher(fMatch, fMetrics);
+        long start = fMetrics.startPhase();
         dnm.match(left, right);
-        fLeftToRightMatch = new HashMap<Node, Node>();
-        fRightToLeftMatch = new HashMap<Node, Node>();
-        for (NodePair p : fMatch) {
-            fLeftToRightMatch.put(p.getLeft(), p.getRight());
-            fRightToLeftMatch.put(p.getRight(), p.getLeft());
-        }
+        fMetrics.endPhase(Phase.MATCH, start);
+        start = fMetrics.startPhase();
         editScript(left, right);
+        fMetrics.endPhase(Phase.EDIT_SCRIPT, start);
+        fMetrics.count(Counter.EDIT_OPERATIONS, fEditScript.size());
     }
 
     public List<TreeEditOperation> getEditScript() {
         return fEditScript;
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
+    @SuppressWarnings("rawtypes")
     private void editScript(Node left, Node right) {
         // 1.
         // E <- {}
         fEditScript = new LinkedList<TreeEditOperation>();
 
         // M' <- M
-        fMatchPrime = new HashSet(fMatch);
-        fLeftToRightMatchPrime = fLeftToRightMatch;
-        fRightToLeftMatchPrime = fRightToLeftMatch;
+        fMatchPrime = new NodeMatching(fMatch);
 
         // 2.
         // Visit the nodes in T2 in breath-first order
@@ -114,11 +130,11 @@ public class TreeDifferencer {
             Node /* T2 */y = (Node) x.getParent();
 
             // Let z be the partner of y in M' (*)
-            Node /* T1 */z = fRightToLeftMatchPrime.get(y);
-            Node /* T1 */w = fRightToLeftMatchPrime.get(x);
+            Node /* T1 */z = fMatchPrime.getLeft(y);
+            Node /* T1 */w = fMatchPrime.getLeft(x);
 
             // (b) If x has no partner in M'
-            if (fRightToLeftMatchPrime.get(x) == null) {
+            if (w == null) {
                 // i. k <- FindPos(x)
                 int k = findPosition(x);
 
@@ -137,7 +153,7 @@ public class TreeDifferencer {
             } else if (!x.isRoot()) {
                 // i.
                 // Let w be the partner of x in M'
-                /* T1 */w = fRightToLeftMatchPrime.get(x);
+                /* T1 */w = fMatchPrime.getLeft(x);
                 // Let v = p(w) in T1
                 Node /* T1 */v = (Node) w.getParent();
 
@@ -160,7 +176,7 @@ public class TreeDifferencer {
                 // iii. If (y, v) not in M'
                 if (!matchContains(v, y, fMatchPrime)) {
                     // A. Let z be the partner of y in M'
-                    // Node z /*T1*/= (Node) fRightToLeftMatchPrime.get(y); already executed
+                    // Node z /*T1*/= fMatchPrime.getLeft(y); already executed
                     // B. k <- FindPos(x)
                     int k = findPosition(x);
                     // C. Append MOV(w, z, k) to E
@@ -182,7 +198,7 @@ public class TreeDifferencer {
             // (a) Let w be the current node in the post-order traversal of T1
             Node w = (Node) postOrder.nextElement();
             // (b) If w has no partner in M'
-            if (fLeftToRightMatchPrime.get(w) == null) {
+            if (fMatchPrime.getRight(w) == null) {
                 // Append DEL(w) to E
                 TreeEditOperation delete = new DeleteOperation(w);
                 fEditScript.add(delete);
@@ -207,9 +223,9 @@ public class TreeDifferencer {
 
         // 2.
         // Let S1 be the sequence of children of w whose partners are children of x
-        List<Node> sOne = createChildrenSequence(w, x, fLeftToRightMatchPrime);
+        List<Node> sOne = createChildrenSequence(w, x, true);
         // Let S2 be the sequence of children of x whose partners are children of w
-        List<Node> sTwo = createChildrenSequence(x, w, fRightToLeftMatchPrime);
+        List<Node> sTwo = createChildrenSequence(x, w, false);
 
         // 3. Define the function equal(a, b) to be true if and only if (a, b) in M'
         // 4. Let S <- LCS(S1, S2, equal)
@@ -247,12 +263,12 @@ public class TreeDifferencer {
      * Sequence of children of node whose partners are children of x
      */
     @SuppressWarnings("rawtypes")
-    private List<Node> createChildrenSequence(Node node, Node x, HashMap<Node, Node> match) {
-        LinkedList<Node> result = new LinkedList<Node>();
+    private List<Node> createChildrenSequence(Node node, Node x, boolean isLeft) {
+        List<Node> result = new ArrayList<Node>(node.getChildCount());
 
         for (Enumeration e = node.children(); e.hasMoreElements();) {
             Node n = (Node) e.nextElement();
-            Node v = match.get(n);
+            Node v = isLeft ? fMatchPrime.getRight(n) : fMatchPrime.getLeft(n);
             if ((v != null) && (v.getParent() == x)) {
                 result.add(n);
             }
@@ -268,13 +284,8 @@ public class TreeDifferencer {
         }
     }
 
-    private boolean matchContains(Node v, Node y, Set<NodePair> match) {
-        for (NodePair p : match) {
-            if (((p.getLeft() == v) && (p.getRight() == y)) || ((p.getLeft() == y) && (p.getRight() == v))) {
-                return true;
-            }
-        }
-        return false;
+    private boolean matchContains(Node v, Node y, NodeMatching match) {
+        return match.contains(v, y) || match.contains(y, v);
     }
 
     private String v(Node node) {
@@ -287,8 +298,6 @@ public class TreeDifferencer {
 
     private void addMatchToPrimes(Node x /* T1 */, Node w /* T2 */) {
         fMatchPrime.add(new NodePair(w, x));
-        fLeftToRightMatchPrime.put(w, x);
-        fRightToLeftMatchPrime.put(x, w);
     }
 
     private int findPosition(Node node) {
@@ -314,7 +323,7 @@ public class TreeDifferencer {
         }
 
         // 4. Let u be the partner of v in T1 (*)
-        Node u = fRightToLeftMatchPrime.get(v);
+        Node u = fMatchPrime.getLeft(v);
         if (u == null) {
             System.out.println("ERROR: partner expected (findPosition)");
         }
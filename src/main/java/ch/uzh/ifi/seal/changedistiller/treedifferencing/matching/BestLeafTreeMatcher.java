@@ -13,15 +13,25 @@ package ch.uzh.ifi.seal.changedistiller.treedifferencing.matching;
  */
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Counter;
+import ch.uzh.ifi.seal.changedistiller.model.classifiers.EntityType;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.LeafPair;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.Node;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.NodePair;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.TreeMatcher;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.BoundedStringSimilarityCalculator;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.NodeSimilarityCalculator;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.StringSimilarityCalculator;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.TokenBasedCalculator;
@@ -54,6 +64,9 @@ public class BestLeafTreeMatcher implements TreeMatcher {
 
     private Set<NodePair>                    fMatch;
 
+    private DistillerMetrics                 fMetrics                                 = DistillerMetrics.NONE;
+    private int                              fScoredLeafPairs;
+
     @Override
     public void init ( final StringSimilarityCalculator leafStringSimCalc, final double leafStringSimThreshold,
             final NodeSimilarityCalculator nodeSimCalc, final double nodeSimThreshold ) {
@@ -91,9 +104,23 @@ public class BestLeafTreeMatcher implements TreeMatcher {
         fMatch = matchingSet;
     }
 
+    /**
+     * Sets the listener that is told how many leaf pairs were scored by each match.
+     *
+     * @param metrics
+     *            to report to
+     */
+    void setMetrics ( final DistillerMetrics metrics ) {
+        fMetrics = metrics;
+    }
+
     @Override
     public void match ( final Node left, final Node right ) {
+        left.numberNodes();
+        right.numberNodes();
+        fScoredLeafPairs = 0;
         final List<LeafPair> matchedLeafs = matchLeaves( left, right );
+        fMetrics.count( Counter.LEAF_PAIRS_SCORED, fScoredLeafPairs );
         // sort matching set according to similarity in descending order
         Collections.sort( matchedLeafs );
         markMatchedLeaves( matchedLeafs );
@@ -131,42 +158,52 @@ public class BestLeafTreeMatcher implements TreeMatcher {
         }
     }
 
-    @SuppressWarnings ( "unchecked" )
+    /*
+     * Leaves are partitioned by label, as only leaves with the same label are paired. Leaves with identical values
+     * are paired right away, in the order the pairwise comparison of all leaves would have paired them. Only the
+     * remaining leaves are compared by similarity, skipping pairs whose similarity cannot reach the threshold.
+     */
     private List<LeafPair> matchLeaves ( final Node left, final Node right ) {
+        final List<Node> leftLeaves = collectLeaves( left );
+        final Map<EntityType, List<Node>> rightLeaves = partitionByLabel( collectLeaves( right ) );
+        matchIdenticalLeaves( leftLeaves, rightLeaves );
+
         final List<LeafPair> matchedLeafs = new ArrayList<LeafPair>();
-        for ( final Enumeration<Node> leftNodes = (Enumeration<Node>) (Enumeration< ? >) left
-                .postorderEnumeration(); leftNodes.hasMoreElements(); ) {
-            final Node x = leftNodes.nextElement();
-            if ( x.isLeaf() ) {
-                for ( final Enumeration<Node> rightNodes = (Enumeration<Node>) (Enumeration< ? >) right
-                        .postorderEnumeration(); rightNodes.hasMoreElements(); ) {
-                    final Node y = rightNodes.nextElement();
-                    if ( y.isLeaf() && haveSameLabel( x, y ) ) {
-                        double similarity = 0;
-
-                        if ( x.getLabel().isComment() ) {
-                            similarity = fLeafCommentStringSimilarityCalculator.calculateSimilarity( x.getValue(),
-                                    y.getValue() );
-
-                            // Important! Otherwhise nodes that match poorly
-                            // will make it into final matching set,
-                            // if no better matches are found!
-                            if ( similarity >= LEAF_COMMENT_STRING_SIMILARITY_THRESHOLD ) {
-                                matchedLeafs.add( new LeafPair( x, y, similarity ) );
-                            }
-
-                        }
-                        else { // ...other statements.
-                            similarity = fLeafGenericStringSimilarityCalculator.calculateSimilarity( x.getValue(),
-                                    y.getValue() );
-
-                            // Important! Otherwise nodes that match poorly will
-                            // make it into final matching set,
-                            // if no better matches are found!
-                            if ( similarity >= fLeafGenericStringSimilarityThreshold ) {
-                                matchedLeafs.add( new LeafPair( x, y, similarity ) );
-                            }
-                        }
+        final Map<Node, Integer> sizes = new IdentityHashMap<Node, Integer>();
+        for ( final Node x : leftLeaves ) {
+            final List<Node> candidates = rightLeaves.get( x.getLabel() );
+            if ( x.isMatched() || ( candidates == null ) ) {
+                continue;
+            }
+            for ( final Node y : candidates ) {
+                if ( y.isMatched() ) {
+                    continue;
+                }
+                double similarity = 0;
+
+                if ( x.getLabel().isComment() ) {
+                    similarity = fLeafCommentStringSimilarityCalculator.calculateSimilarity( x.getValue(),
+                            y.getValue() );
+                    fScoredLeafPairs++;
+
+                    // Important! Otherwhise nodes that match poorly
+                    // will make it into final matching set,
+                    // if no better matches are found!
+                    if ( similarity >= LEAF_COMMENT_STRING_SIMILARITY_THRESHOLD ) {
+                        matchedLeafs.add( new LeafPair( x, y, similarity ) );
+                    }
+
+                }
+                else if ( mayReachThreshold( x, y, sizes ) ) { // ...other statements.
+                    similarity = fLeafGenericStringSimilarityCalculator.calculateSimilarity( x.getValue(),
+                            y.getValue() );
+                    fScoredLeafPairs++;
+
+                    // Important! Otherwise nodes that match poorly will
+                    // make it into final matching set,
+                    // if no better matches are found!
+                    if ( similarity >= fLeafGenericStringSimilarityThreshold ) {
+                        matchedLeafs.add( new LeafPair( x, y, similarity ) );
                     }
                 }
             }
@@ -174,6 +211,171 @@ public class BestLeafTreeMatcher implements TreeMatcher {
         return matchedLeafs;
     }
 
+    /*
+     * Pairs each unmatched left leaf with the first unmatched right leaf (in post-order) that has the same label and
+     * value. As no pair can be more similar than two identical values, these are the pairs that come first in the
+     * sorted list of all leaf pairs. Values that tie with a different value are left out (see removeTiedValues), as
+     * are comments, since the comment similarity does not distinguish identical from similar comments.
+     */
+    private void matchIdenticalLeaves ( final List<Node> leftLeaves, final Map<EntityType, List<Node>> rightLeaves ) {
+        final Map<EntityType, List<Node>> leftPartitions = partitionByLabel( leftLeaves );
+        final Map<EntityType, Map<String, LinkedList<Node>>> identicalLeaves =
+                new HashMap<EntityType, Map<String, LinkedList<Node>>>();
+        for ( final Map.Entry<EntityType, List<Node>> entry : rightLeaves.entrySet() ) {
+            if ( !entry.getKey().isComment() ) {
+                final Map<String, LinkedList<Node>> byValue = new HashMap<String, LinkedList<Node>>();
+                for ( final Node y : entry.getValue() ) {
+                    LinkedList<Node> leaves = byValue.get( y.getValue() );
+                    if ( leaves == null ) {
+                        leaves = new LinkedList<Node>();
+                        byValue.put( y.getValue(), leaves );
+                    }
+                    leaves.add( y );
+                }
+                removeTiedValues( byValue, collectValues( leftPartitions.get( entry.getKey() ) ) );
+                identicalLeaves.put( entry.getKey(), byValue );
+            }
+        }
+        for ( final Node x : leftLeaves ) {
+            final Map<String, LinkedList<Node>> byValue = identicalLeaves.get( x.getLabel() );
+            if ( x.isMatched() || ( byValue == null ) ) {
+                continue;
+            }
+            final LinkedList<Node> leaves = byValue.get( x.getValue() );
+            if ( leaves == null ) {
+                continue;
+            }
+            final double similarity = fLeafGenericStringSimilarityCalculator.calculateSimilarity( x.getValue(),
+                    x.getValue() );
+            if ( similarity < 1.0 ) {
+                // the calculator does not rate identical values highest, leave them to the similarity phase
+                continue;
+            }
+            while ( !leaves.isEmpty() && leaves.getFirst().isMatched() ) {
+                leaves.removeFirst();
+            }
+            if ( !leaves.isEmpty() ) {
+                final Node y = leaves.removeFirst();
+                fMatch.add( new LeafPair( x, y, similarity ) );
+                x.enableMatched();
+                y.enableMatched();
+            }
+        }
+    }
+
+    /*
+     * Different values can be as similar as identical ones, e.g., "aab" and "aaab" share all their bigrams. The
+     * pairwise comparison takes such tied pairs in enumeration order, so a leaf may be paired with a similar leaf that
+     * comes before its identical one. Values that may score 1.0 against a different value of either tree are therefore
+     * removed and left to the similarity phase.
+     */
+    private void removeTiedValues ( final Map<String, LinkedList<Node>> byValue, final Set<String> leftValues ) {
+        final List<String> rightValues = new ArrayList<String>( byValue.keySet() );
+        if ( fLeafGenericStringSimilarityCalculator instanceof BoundedStringSimilarityCalculator ) {
+            final BoundedStringSimilarityCalculator calculator =
+                    (BoundedStringSimilarityCalculator) fLeafGenericStringSimilarityCalculator;
+            // values with a key of their own cannot tie with any other value
+            final Map<String, Object> keys = new HashMap<String, Object>();
+            final Map<Object, Integer> valueCounts = new HashMap<Object, Integer>();
+            final Set<String> values = new HashSet<String>( leftValues );
+            values.addAll( rightValues );
+            for ( final String value : values ) {
+                final Object key = calculator.calculateKey( value );
+                keys.put( value, key );
+                final Integer count = valueCounts.get( key );
+                valueCounts.put( key, count == null ? 1 : count + 1 );
+            }
+            for ( final String value : rightValues ) {
+                if ( leftValues.contains( value ) && ( valueCounts.get( keys.get( value ) ) > 1 ) ) {
+                    byValue.remove( value );
+                }
+            }
+        }
+        else {
+            for ( final String value : rightValues ) {
+                if ( leftValues.contains( value ) && isTied( value, leftValues, rightValues ) ) {
+                    byValue.remove( value );
+                }
+            }
+        }
+    }
+
+    private boolean isTied ( final String value, final Collection<String> leftValues,
+            final Collection<String> rightValues ) {
+        for ( final String other : rightValues ) {
+            if ( !other.equals( value ) && isTie( value, other ) ) {
+                return true;
+            }
+        }
+        for ( final String other : leftValues ) {
+            if ( !other.equals( value ) && isTie( other, value ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isTie ( final String leftValue, final String rightValue ) {
+        fScoredLeafPairs++;
+        return fLeafGenericStringSimilarityCalculator.calculateSimilarity( leftValue, rightValue ) >= 1.0;
+    }
+
+    private Set<String> collectValues ( final List<Node> leaves ) {
+        final Set<String> values = new HashSet<String>();
+        if ( leaves != null ) {
+            for ( final Node leaf : leaves ) {
+                values.add( leaf.getValue() );
+            }
+        }
+        return values;
+    }
+
+    private boolean mayReachThreshold ( final Node x, final Node y, final Map<Node, Integer> sizes ) {
+        if ( fLeafGenericStringSimilarityCalculator instanceof BoundedStringSimilarityCalculator ) {
+            final BoundedStringSimilarityCalculator calculator =
+                    (BoundedStringSimilarityCalculator) fLeafGenericStringSimilarityCalculator;
+            return calculator.calculateUpperBound( getSize( x, calculator, sizes ),
+                    getSize( y, calculator, sizes ) ) >= fLeafGenericStringSimilarityThreshold;
+        }
+        return true;
+    }
+
+    private int getSize ( final Node node, final BoundedStringSimilarityCalculator calculator,
+            final Map<Node, Integer> sizes ) {
+        Integer size = sizes.get( node );
+        if ( size == null ) {
+            size = calculator.calculateSize( node.getValue() );
+            sizes.put( node, size );
+        }
+        return size;
+    }
+
+    @SuppressWarnings ( "unchecked" )
+    private List<Node> collectLeaves ( final Node root ) {
+        final List<Node> leaves = new ArrayList<Node>();
+        for ( final Enumeration<Node> nodes = (Enumeration<Node>) (Enumeration< ? >) root
+                .postorderEnumeration(); nodes.hasMoreElements(); ) {
+            final Node node = nodes.nextElement();
+            if ( node.isLeaf() ) {
+                leaves.add( node );
+            }
+        }
+        return leaves;
+    }
+
+    private Map<EntityType, List<Node>> partitionByLabel ( final List<Node> leaves ) {
+        final Map<EntityType, List<Node>> partitions = new HashMap<EntityType, List<Node>>();
+        for ( final Node leaf : leaves ) {
+            List<Node> partition = partitions.get( leaf.getLabel() );
+            if ( partition == null ) {
+                partition = new ArrayList<Node>();
+                partitions.put( leaf.getLabel(), partition );
+            }
+            partition.add( leaf );
+        }
+        return partitions;
+    }
+
     private boolean haveSameLabel ( final Node x, final Node y ) {
         return x.getLabel() == y.getLabel();
     }
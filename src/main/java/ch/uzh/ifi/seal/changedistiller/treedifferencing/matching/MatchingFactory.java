@@ -22,6 +22,8 @@ package ch.uzh.ifi.seal.changedistiller.treedifferencing.matching;
 
 import java.util.Set;
 
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.NodeMatching;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.NodePair;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.TreeMatcher;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.ChawatheCalculator;
@@ -45,10 +47,24 @@ public final class MatchingFactory {
      * Returns the default {@link TreeMatcher} {@link BestLeafTreeMatcher}.
      * 
      * @param matchingSet
-     *            in which the matcher stores the match pairs
+     *            in which the matcher stores the match pairs; a {@link NodeMatching} lets the node similarity
+     *            calculator look up partners instead of scanning all pairs
      * @return the best leaf tree matcher
      */
     public static TreeMatcher getMatcher(Set<NodePair> matchingSet) {
+        return getMatcher(matchingSet, DistillerMetrics.NONE);
+    }
+
+    /**
+     * Returns the default {@link TreeMatcher} {@link BestLeafTreeMatcher} reporting to the given metrics.
+     * 
+     * @param matchingSet
+     *            in which the matcher stores the match pairs
+     * @param metrics
+     *            to report the number of scored leaf pairs to
+     * @return the best leaf tree matcher
+     */
+    public static TreeMatcher getMatcher(Set<NodePair> matchingSet, DistillerMetrics metrics) {
         StringSimilarityCalculator leafCalc = new NGramsCalculator(2);
         double lTh = 0.6;
 
@@ -62,7 +78,8 @@ public final class MatchingFactory {
 
         double nTh = 0.0;
 
-        TreeMatcher result = new BestLeafTreeMatcher();
+        BestLeafTreeMatcher result = new BestLeafTreeMatcher();
+        result.setMetrics(metrics);
         result.init(leafCalc, lTh, nodeStringCalc, nStTh, nodeCalc, nTh);
 
         result.enableDynamicThreshold(4, 0.4);
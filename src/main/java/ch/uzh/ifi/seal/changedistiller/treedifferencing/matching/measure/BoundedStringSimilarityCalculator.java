@@ -0,0 +1,67 @@
+package ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * {@link StringSimilarityCalculator} that is able to bound the similarity of two strings by a size measure of each
+ * string alone.
+ * <p>
+ * Matchers use the bound to skip pairs of strings that cannot reach a given similarity threshold without calculating
+ * their similarity, and the key to find different strings that are as similar as identical ones.
+ *
+ * @see NGramsCalculator
+ * @see LevenshteinSimilarityCalculator
+ */
+public interface BoundedStringSimilarityCalculator extends StringSimilarityCalculator {
+
+    /**
+     * Returns the size of a string as seen by this calculator.
+     *
+     * @param string
+     *            to calculate the size of
+     * @return the size of the string
+     */
+    int calculateSize(String string);
+
+    /**
+     * Returns the maximal similarity two strings with the given sizes can have, i.e.,
+     * <code>calculateSimilarity(left, right) &lt;=
+     * calculateUpperBound(calculateSize(left), calculateSize(right))</code> holds for any two different strings.
+     *
+     * @param leftSize
+     *            size of the left string
+     * @param rightSize
+     *            size of the right string
+     * @return the upper bound of the similarity between two strings with the given sizes
+     */
+    double calculateUpperBound(int leftSize, int rightSize);
+
+    /**
+     * Returns a key of a string such that two strings can only have a similarity of 1.0 if their keys are equal.
+     * Strings with equal keys need not have a similarity of 1.0, though.
+     *
+     * @param string
+     *            to calculate the key of
+     * @return the key of the string, comparable by <code>equals</code>
+     */
+    Object calculateKey(String string);
+
+}
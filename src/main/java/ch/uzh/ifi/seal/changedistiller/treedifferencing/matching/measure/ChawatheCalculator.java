@@ -12,15 +12,23 @@ package ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure;
  * governing permissions and limitations under the License. #L%
  */
 
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.Set;
 
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.Node;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.NodeMatching;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.NodePair;
 
 /**
  * Implementation of the default inner node similarity calculator proposed by
  * Chawathe.
+ * <p>
+ * If both trees are numbered (see {@link Node#numberNodes()}), descendant
+ * tests are integer comparisons. If the leaf match set is a
+ * {@link NodeMatching} in addition, the pre-order indexes of the partners of
+ * the leaves below the left node are collected once per left node and counted
+ * within the interval of each right node.
  *
  * @author Beat Fluri
  */
@@ -28,27 +36,87 @@ public class ChawatheCalculator implements NodeSimilarityCalculator {
 
     private Set< ? extends NodePair> fLeafMatchSet;
 
+    private Node                     fPartnersOf;
+    private int                      fPartnersModificationCount;
+    private int[]                    fPartnerIndexes;
+    private int                      fPartnerCount;
+
     @Override
     public void setLeafMatchSet ( final Set< ? extends NodePair> leafMatchSet ) {
         fLeafMatchSet = leafMatchSet;
+        fPartnersOf = null;
     }
 
     @Override
     public double calculateSimilarity ( final Node left, final Node right ) {
+        final boolean numbered = left.isNumbered() && right.isNumbered();
+        if ( numbered && ( fLeafMatchSet instanceof NodeMatching ) ) {
+            final int common = countCommonLeaves( left, right, (NodeMatching) fLeafMatchSet );
+            final int max = Math.max( left.getNonCommentLeafCount(), right.getNonCommentLeafCount() );
+            return (double) common / (double) max;
+        }
         int common = 0;
         // common(x, y) = {(w, z) in M | x contains w, and y contains z}
         // |common|
         for ( final NodePair p : fLeafMatchSet ) {
             final Node l = p.getLeft();
             final Node r = p.getRight();
-            if ( left.isLeafDescendant( l ) && !isComment( l ) && right.isLeafDescendant( r ) && !isComment( r ) ) {
+            if ( containsLeaf( left, l, numbered ) && !isComment( l ) && containsLeaf( right, r, numbered )
+                    && !isComment( r ) ) {
                 common++;
             }
         }
-        final int max = maxLeafStatements( left, right );
+        final int max = numbered ? Math.max( left.getNonCommentLeafCount(), right.getNonCommentLeafCount() )
+                : maxLeafStatements( left, right );
         return (double) common / (double) max;
     }
 
+    private boolean containsLeaf ( final Node node, final Node leaf, final boolean numbered ) {
+        if ( numbered ) {
+            return leaf.isLeaf() && node.isNumberedDescendant( leaf );
+        }
+        return node.isLeafDescendant( leaf );
+    }
+
+    private int countCommonLeaves ( final Node left, final Node right, final NodeMatching match ) {
+        if ( ( fPartnersOf != left ) || ( fPartnersModificationCount != match.getModificationCount() ) ) {
+            fPartnerCount = 0;
+            fPartnerIndexes = new int[left.getSubtreeEnd() - left.getPreOrderIndex() + 1];
+            collectPartnerIndexes( left, match );
+            Arrays.sort( fPartnerIndexes, 0, fPartnerCount );
+            fPartnersOf = left;
+            fPartnersModificationCount = match.getModificationCount();
+        }
+        return lowerBound( right.getSubtreeEnd() + 1 ) - lowerBound( right.getPreOrderIndex() );
+    }
+
+    private void collectPartnerIndexes ( final Node node, final NodeMatching match ) {
+        if ( node.isLeaf() ) {
+            final Node partner = match.getRight( node );
+            if ( !isComment( node ) && ( partner != null ) && partner.isLeaf() && !isComment( partner ) ) {
+                fPartnerIndexes[fPartnerCount++] = partner.getPreOrderIndex();
+            }
+        }
+        for ( int i = 0; i < node.getChildCount(); i++ ) {
+            collectPartnerIndexes( (Node) node.getChildAt( i ), match );
+        }
+    }
+
+    private int lowerBound ( final int index ) {
+        int low = 0;
+        int high = fPartnerCount;
+        while ( low < high ) {
+            final int mid = ( low + high ) >>> 1;
+            if ( fPartnerIndexes[mid] < index ) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     private int maxLeafStatements ( final Node left, final Node right ) {
         final int leftLeafStatements = left.getLeafCount() - numberOfCommentNodes( left );
         final int rightLeafStatements = right.getLeafCount() - numberOfCommentNodes( right );
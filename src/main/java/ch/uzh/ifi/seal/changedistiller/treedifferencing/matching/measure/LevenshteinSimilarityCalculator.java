@@ -20,18 +20,28 @@ package ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure;
  * #L%
  */
 
-import org.apache.commons.lang3.StringUtils;
-
 /**
  * Implementation of a {@link StringSimilarityCalculator} based on the Levenshtein distance.
+ * <p>
+ * The distance is computed with the bit-parallel algorithm of Myers in the block-based formulation of Hyyr&ouml;
+ * (<i>"A bit-vector algorithm for computing Levenshtein and Damerau edit distances"</i>, 2003). The shorter string is
+ * encoded into bit vectors of 64 positions each, and every char of the longer string is processed with a few word
+ * operations per vector. The result is the same as the one of the classical dynamic programming algorithm.
+ * <p>
+ * Callers that only need to know whether the similarity reaches a threshold use
+ * {@link #calculateSimilarity(String, String, double)}, which stops as soon as the threshold cannot be reached anymore.
+ * The calculator has no state and may be shared.
  * 
  * @author Beat Fluri
  */
-public class LevenshteinSimilarityCalculator implements StringSimilarityCalculator {
+public class LevenshteinSimilarityCalculator implements BoundedStringSimilarityCalculator {
+
+    private static final int WORD_SIZE  = 64;
+    private static final int ASCII_SIZE = 128;
 
     @Override
     public double calculateSimilarity(String left, String right) {
-        double levenshteinDistance = StringUtils.getLevenshteinDistance(left, right);
+        double levenshteinDistance = calculateDistance(left, right);
         double worstCaseDistance = calculateWorstCaseDistance(left, right);
         if (worstCaseDistance != 0d) {
             return (worstCaseDistance - levenshteinDistance) / worstCaseDistance;
@@ -39,6 +49,212 @@ public class LevenshteinSimilarityCalculator implements StringSimilarityCalculat
         return 0d;
     }
 
+    /**
+     * Calculates the similarity of two strings as far as it is needed to compare it with the given threshold.
+     * 
+     * @param left
+     *            string to calculate the similarity
+     * @param right
+     *            string to calculate the similarity
+     * @param threshold
+     *            the similarity is compared with
+     * @return the same similarity as {@link #calculateSimilarity(String, String)} if it is at least
+     *         <code>threshold</code>; some value below <code>threshold</code> otherwise
+     */
+    public double calculateSimilarity(String left, String right, double threshold) {
+        int worstCaseDistance = Math.max(left.length(), right.length());
+        if ((worstCaseDistance == 0) || (threshold <= 0d)) {
+            return calculateSimilarity(left, right);
+        }
+        // one more than necessary to stay on the safe side of rounding
+        int maxDistance = (int) Math.floor(worstCaseDistance * (1d - threshold)) + 1;
+        double levenshteinDistance = calculateDistance(left, right, maxDistance);
+        return (worstCaseDistance - levenshteinDistance) / worstCaseDistance;
+    }
+
+    /**
+     * Calculates the Levenshtein distance of two strings.
+     * 
+     * @param left
+     *            string to calculate the distance
+     * @param right
+     *            string to calculate the distance
+     * @return the Levenshtein distance of <code>left</code> and <code>right</code>
+     */
+    public int calculateDistance(String left, String right) {
+        return calculateDistance(left, right, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Calculates the Levenshtein distance of two strings up to the given maximal distance.
+     * 
+     * @param left
+     *            string to calculate the distance
+     * @param right
+     *            string to calculate the distance
+     * @param maxDistance
+     *            the caller is interested in
+     * @return the Levenshtein distance of <code>left</code> and <code>right</code> if it is at most
+     *         <code>maxDistance</code>, <code>maxDistance + 1</code> otherwise
+     */
+    public int calculateDistance(String left, String right, int maxDistance) {
+        String pattern = left;
+        String text = right;
+        if (pattern.length() > text.length()) {
+            pattern = right;
+            text = left;
+        }
+        if (text.length() - pattern.length() > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (pattern.length() == 0) {
+            return text.length();
+        }
+        if (pattern.length() <= WORD_SIZE) {
+            return calculateDistanceInWord(pattern, text, maxDistance);
+        }
+        return calculateDistanceInBlocks(pattern, text, maxDistance);
+    }
+
+    private int calculateDistanceInWord(String pattern, String text, int maxDistance) {
+        int m = pattern.length();
+        long[] peq = createPatternMasks(pattern, 0, m);
+        long last = 1L << (m - 1);
+        long pv = -1L;
+        long mv = 0L;
+        int score = m;
+        for (int j = 0; j < text.length(); j++) {
+            long eq = getPatternMask(peq, pattern, 0, m, text.charAt(j));
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+            // the distance shrinks by at most one per remaining char
+            if (score - (text.length() - j - 1) > maxDistance) {
+                return maxDistance + 1;
+            }
+            ph = (ph << 1) | 1L;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+        return score;
+    }
+
+    private int calculateDistanceInBlocks(String pattern, String text, int maxDistance) {
+        int m = pattern.length();
+        int blockCount = (m + WORD_SIZE - 1) / WORD_SIZE;
+        long[][] peqs = new long[blockCount][];
+        long[] pvs = new long[blockCount];
+        long[] mvs = new long[blockCount];
+        for (int b = 0; b < blockCount; b++) {
+            peqs[b] = createPatternMasks(pattern, b * WORD_SIZE, Math.min(m, (b + 1) * WORD_SIZE));
+            pvs[b] = -1L;
+        }
+        long last = 1L << ((m - 1) % WORD_SIZE);
+        int score = m;
+        for (int j = 0; j < text.length(); j++) {
+            char c = text.charAt(j);
+            // the first row of the matrix grows by one per char
+            int carry = 1;
+            for (int b = 0; b < blockCount; b++) {
+                int start = b * WORD_SIZE;
+                long eq = getPatternMask(peqs[b], pattern, start, Math.min(m, start + WORD_SIZE), c);
+                long pv = pvs[b];
+                long mv = mvs[b];
+                long xv = eq | mv;
+                if (carry < 0) {
+                    eq |= 1L;
+                }
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                long high = (b == blockCount - 1) ? last : Long.MIN_VALUE;
+                int carryOut = 0;
+                if ((ph & high) != 0) {
+                    carryOut = 1;
+                } else if ((mh & high) != 0) {
+                    carryOut = -1;
+                }
+                ph <<= 1;
+                mh <<= 1;
+                if (carry < 0) {
+                    mh |= 1L;
+                } else if (carry > 0) {
+                    ph |= 1L;
+                }
+                pvs[b] = mh | ~(xv | ph);
+                mvs[b] = ph & xv;
+                carry = carryOut;
+            }
+            score += carry;
+            if (score - (text.length() - j - 1) > maxDistance) {
+                return maxDistance + 1;
+            }
+        }
+        return score;
+    }
+
+    /*
+     * Masks of the ASCII chars in pattern[start, end). Masks of other chars are calculated on demand.
+     */
+    private static long[] createPatternMasks(String pattern, int start, int end) {
+        long[] peq = new long[ASCII_SIZE];
+        for (int i = start; i < end; i++) {
+            char c = pattern.charAt(i);
+            if (c < ASCII_SIZE) {
+                peq[c] |= 1L << (i - start);
+            }
+        }
+        return peq;
+    }
+
+    private static long getPatternMask(long[] peq, String pattern, int start, int end, char c) {
+        if (c < ASCII_SIZE) {
+            return peq[c];
+        }
+        long eq = 0L;
+        for (int i = start; i < end; i++) {
+            if (pattern.charAt(i) == c) {
+                eq |= 1L << (i - start);
+            }
+        }
+        return eq;
+    }
+
+    /**
+     * Returns the length of the string.
+     */
+    @Override
+    public int calculateSize(String string) {
+        return string.length();
+    }
+
+    /**
+     * The distance of two strings is at least the difference of their lengths.
+     */
+    @Override
+    public double calculateUpperBound(int leftSize, int rightSize) {
+        int worstCaseDistance = Math.max(leftSize, rightSize);
+        if (worstCaseDistance != 0) {
+            return (double) Math.min(leftSize, rightSize) / worstCaseDistance;
+        }
+        return 0d;
+    }
+
+    /**
+     * Returns the string itself, as only identical strings have a distance of zero.
+     */
+    @Override
+    public Object calculateKey(String string) {
+        return string;
+    }
+
     private double calculateWorstCaseDistance(String source, String target) {
         double sourceLen = source.length();
         double targetLen = target.length();
@@ -20,17 +20,28 @@ package ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure;
  * #L%
  */
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 
 /**
  * Implementation of the ngrams similarity measure.
+ * <p>
+ * Unigrams and bigrams are encoded as <code>int</code>s. The sorted and deduplicated codes of each string are cached
+ * on first use, and the similarity is calculated by a merge over two such arrays. Hence, repeated comparisons of the
+ * same strings do not allocate. Larger n fall back to sets of substrings. Both ways calculate the same similarity.
  * 
  * @author Beat Fluri
  * 
  */
-public class NGramsCalculator implements StringSimilarityCalculator {
+public class NGramsCalculator implements BoundedStringSimilarityCalculator {
 
-    private int fN;
+    private static final int         MAX_ENCODED_N     = 2;
+    private static final int         MAX_CACHED_NGRAMS = 4096;
+
+    private int                      fN;
+    private final Map<String, int[]> fNGramCache       = new HashMap<String, int[]>();
 
     /**
      * Creates a new ngrams similarity calculator.
@@ -44,11 +55,68 @@ public class NGramsCalculator implements StringSimilarityCalculator {
 
     public void setN(int n) {
         fN = n;
+        fNGramCache.clear();
     }
 
     @Override
     public double calculateSimilarity(String left, String right) {
-        return left.equals(right) ? 1.0 : getSimilarity(createNGrams(left), createNGrams(right));
+        if (left.equals(right)) {
+            return 1.0;
+        }
+        if (fN <= MAX_ENCODED_N) {
+            return getSimilarity(getEncodedNGrams(left), getEncodedNGrams(right));
+        }
+        return getSimilarity(createNGrams(left), createNGrams(right));
+    }
+
+    /**
+     * Returns the number of distinct ngrams of the string.
+     */
+    @Override
+    public int calculateSize(String string) {
+        if (fN <= MAX_ENCODED_N) {
+            return getEncodedNGrams(string).length;
+        }
+        return createNGrams(string).size();
+    }
+
+    /**
+     * The shared ngrams of two strings are at most as many as the ngrams of the smaller string.
+     */
+    @Override
+    public double calculateUpperBound(int leftSize, int rightSize) {
+        int union = leftSize + rightSize;
+        if (union == 0) {
+            return 1.0;
+        }
+        return Math.min(leftSize, rightSize) * 2.0 / union;
+    }
+
+    /**
+     * Returns the set of ngrams of the string, as only strings with the same ngrams have a similarity of 1.0.
+     */
+    @Override
+    public Object calculateKey(String string) {
+        return createNGrams(string);
+    }
+
+    private double getSimilarity(int[] left, int[] right) {
+        int union = left.length + right.length;
+        int intersection = 0;
+        int i = 0;
+        int j = 0;
+        while ((i < left.length) && (j < right.length)) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                intersection++;
+                i++;
+                j++;
+            }
+        }
+        return intersection * 2.0 / union;
     }
 
     private double getSimilarity(HashSet<String> left, HashSet<String> right) {
@@ -58,6 +126,41 @@ public class NGramsCalculator implements StringSimilarityCalculator {
         return intersection * 2.0 / union;
     }
 
+    private int[] getEncodedNGrams(String string) {
+        int[] ngrams = fNGramCache.get(string);
+        if (ngrams == null) {
+            ngrams = encodeNGrams(string);
+            if (fNGramCache.size() >= MAX_CACHED_NGRAMS) {
+                fNGramCache.clear();
+            }
+            fNGramCache.put(string, ngrams);
+        }
+        return ngrams;
+    }
+
+    /*
+     * Each char takes 16 bits, so an ngram with n <= 2 fits into an int.
+     */
+    private int[] encodeNGrams(String string) {
+        int count = Math.max(0, string.length() - (fN - 1));
+        int[] ngrams = new int[count];
+        for (int i = 0; i < count; i++) {
+            int code = 0;
+            for (int k = 0; k < fN; k++) {
+                code = (code << 16) | string.charAt(i + k);
+            }
+            ngrams[i] = code;
+        }
+        Arrays.sort(ngrams);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if ((distinct == 0) || (ngrams[distinct - 1] != ngrams[i])) {
+                ngrams[distinct++] = ngrams[i];
+            }
+        }
+        return distinct == count ? ngrams : Arrays.copyOf(ngrams, distinct);
+    }
+
     private HashSet<String> createNGrams(String fullString) {
         HashSet<String> ngrams = new HashSet<String>();
         for (int i = 0; i < fullString.length() - (fN - 1); i++) {
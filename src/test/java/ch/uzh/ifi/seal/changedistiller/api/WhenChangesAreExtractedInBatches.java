@@ -0,0 +1,137 @@
+package ch.uzh.ifi.seal.changedistiller.api;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2013 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import static ch.uzh.ifi.seal.changedistiller.util.CompilationUtils.getFile;
+import static ch.uzh.ifi.seal.changedistiller.util.CompilationUtils.toStrings;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.ast.FileUtils;
+
+public class WhenChangesAreExtractedInBatches {
+
+    private static final String LEFT  = path( "src_change/TestLeft.java" );
+    private static final String RIGHT = path( "src_change/TestRight.java" );
+
+    @Test
+    public void summariesShouldBeTheSameAsForSinglePairs () throws Exception {
+        final ChangeSummariesList batch = ChangeExtractor.extractBatch(
+                Arrays.asList( new FilePair( LEFT, RIGHT ), new FilePair( RIGHT, LEFT ) ),
+                BatchOptions.defaults().withThreads( 2 ) );
+        assertThat( batch.getFailures().isEmpty(), is( true ) );
+        assertThat( batch.getChanges().size(), is( 2 ) );
+        assertThat( toStrings( batch.getChanges().get( 0 ).getAllChanges() ),
+                is( toStrings( ChangeExtractor.extractChanges( LEFT, RIGHT ).getAllChanges() ) ) );
+        assertThat( toStrings( batch.getChanges().get( 1 ).getAllChanges() ),
+                is( toStrings( ChangeExtractor.extractChanges( RIGHT, LEFT ).getAllChanges() ) ) );
+    }
+
+    @Test
+    public void inMemoryPairsShouldBeDistilled () throws Exception {
+        final FilePair pair = new FilePair( FileUtils.getContent( new File( LEFT ) ), "a/b/Test.java",
+                FileUtils.getContent( new File( RIGHT ) ), "a/b/Test.java" );
+        final ChangeSummariesList batch = ChangeExtractor.extractBatch( Collections.singletonList( pair ),
+                BatchOptions.defaults() );
+        assertThat( batch.getChanges().get( 0 ).getFileName(), is( "Test.java" ) );
+        assertThat( toStrings( batch.getChanges().get( 0 ).getAllChanges() ),
+                is( toStrings( ChangeExtractor.extractChanges( LEFT, RIGHT ).getAllChanges() ) ) );
+    }
+
+    @Test
+    public void failingPairShouldNotAffectOtherPairs () throws Exception {
+        final FilePair failing = new FilePair( LEFT, path( "src_change/DoesNotExist.java" ) );
+        final List<FilePair> pairs = new ArrayList<FilePair>();
+        for ( int i = 0; i < 8; i++ ) {
+            pairs.add( i == 3 ? failing : new FilePair( LEFT, RIGHT ) );
+        }
+        final ChangeSummariesList batch = ChangeExtractor.extractBatch( pairs,
+                BatchOptions.defaults().withThreads( 3 ) );
+        assertThat( batch.getFailures().size(), is( 1 ) );
+        assertThat( batch.getFailures().get( 0 ).getPair(), is( sameInstance( failing ) ) );
+        assertThat( batch.getFailures().get( 0 ).getCause(), is( instanceOf( RuntimeException.class ) ) );
+        assertThat( batch.getChanges().size(), is( 1 ) );
+        assertThat( batch.getChanges().get( 0 ).getAllChanges().size(),
+                is( 7 * ChangeExtractor.extractChanges( LEFT, RIGHT ).getAllChanges().size() ) );
+    }
+
+    @Test
+    public void pairsLeftByInterruptedBatchShouldFail () throws Exception {
+        final List<FilePair> pairs = Arrays.asList( new FilePair( LEFT, RIGHT ), new FilePair( RIGHT, LEFT ) );
+        final ChangeSummariesList batch;
+        Thread.currentThread().interrupt();
+        try {
+            batch = ChangeExtractor.extractBatch( pairs, BatchOptions.defaults().withThreads( 1 ) );
+        }
+        finally {
+            Thread.interrupted();
+        }
+        assertThat( batch.getFailures().size(), is( 2 ) );
+        assertThat( batch.getFailures().get( 0 ).getCause(), is( instanceOf( InterruptedException.class ) ) );
+        assertThat( batch.getChanges().isEmpty(), is( true ) );
+    }
+
+    @Test
+    public void summaryOfSingleFileShouldNotBeCopied () throws Exception {
+        final ChangeSummary summary = ChangeExtractor.extractChanges( LEFT, RIGHT );
+        final ChangeSummary other = ChangeExtractor.extractChanges( RIGHT, LEFT );
+        final ChangeSummariesList list = new ChangeSummariesList( Arrays.asList( summary, other, other ) );
+        assertThat( list.getChanges().get( 0 ), is( sameInstance( summary ) ) );
+        assertThat( list.getChanges().get( 1 ).getAllChanges().size(), is( 2 * other.getAllChanges().size() ) );
+        assertThat( list.getContributionsScore(), is( summary.getScore() + 2 * other.getScore() ) );
+    }
+
+    @Test
+    public void largestPairsShouldBeScheduledFirst () throws Exception {
+        final int[] schedule = BatchExtraction.largestFirst( new long[] { 3, 10, 1, 10, 0 } );
+        assertThat( schedule, is( new int[] { 1, 3, 0, 2, 4 } ) );
+    }
+
+    @Test
+    public void costShouldBeEstimatedBySourceLength () throws Exception {
+        assertThat( BatchExtraction.estimateCost( new FilePair( null, "A.java", "class A {}", "A.java" ) ), is( 10L ) );
+        assertThat( BatchExtraction.estimateCost( new FilePair( LEFT, path( "src_change/DoesNotExist.java" ) ) ),
+                is( new File( LEFT ).length() ) );
+    }
+
+    @Test
+    public void scheduleShouldNotChangeOrderOfSummaries () throws Exception {
+        final FilePair small = new FilePair( "class A { void a() {} }", "x/y/A.java", "class A { void b() {} }",
+                "x/y/A.java" );
+        final ChangeSummariesList batch = ChangeExtractor.extractBatch(
+                Arrays.asList( small, new FilePair( LEFT, RIGHT ) ), BatchOptions.defaults().withThreads( 2 ) );
+        assertThat( batch.getChanges().get( 0 ).getFileName(), is( "A.java" ) );
+        assertThat( batch.getChanges().get( 1 ).getFileName(),
+                is( ChangeExtractor.extractChanges( LEFT, RIGHT ).getFileName() ) );
+    }
+
+    @Test ( expected = IllegalArgumentException.class )
+    public void nonPositiveNumberOfThreadsShouldBeRejected () throws Exception {
+        BatchOptions.defaults().withThreads( 0 );
+    }
+
+    private static String path ( final String name ) {
+        return getFile( name ).getPath();
+    }
+
+}
@@ -0,0 +1,283 @@
+package ch.uzh.ifi.seal.changedistiller.api;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2013 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller;
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller.Language;
+import ch.uzh.ifi.seal.changedistiller.ast.java.BodyParsing;
+import ch.uzh.ifi.seal.changedistiller.ast.java.DiffPrefilter;
+import ch.uzh.ifi.seal.changedistiller.ast.java.NodeValueStyle;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillerOptions;
+import ch.uzh.ifi.seal.changedistiller.model.classifiers.java.JavaEntityType;
+import ch.uzh.ifi.seal.changedistiller.model.entities.Insert;
+import ch.uzh.ifi.seal.changedistiller.model.entities.Move;
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeEntity;
+import ch.uzh.ifi.seal.changedistiller.model.entities.StructureEntityVersion;
+import ch.uzh.ifi.seal.changedistiller.model.entities.Update;
+import ch.uzh.ifi.seal.changedistiller.util.CompilationUtils;
+
+public class WhenResultsAreCached {
+
+    private static final String LEFT  = "src_change/TestLeft.java";
+    private static final String RIGHT = "src_change/TestRight.java";
+
+    @Rule
+    public TemporaryFolder      folder = new TemporaryFolder();
+
+    @Test
+    public void decodedChangesShouldEqualDistilledOnes () throws Exception {
+        final File[] files = CompilationUtils.getFile( "src_change" ).listFiles();
+        int pairs = 0;
+        for ( final File file : files ) {
+            if ( file.getName().endsWith( "-old" ) ) {
+                final String path = file.getPath();
+                final List<SourceCodeChange> changes = distill( path, path.replace( "-old", "-new" ) );
+                final List<SourceCodeChange> decoded = SourceCodeChangeCodec
+                        .decode( SourceCodeChangeCodec.encode( changes ) );
+                assertThat( file.getName(), describe( decoded ), is( describe( changes ) ) );
+                pairs++;
+            }
+        }
+        assertThat( pairs > 5, is( true ) );
+    }
+
+    @Test
+    public void decodedChangesShouldShareEntitiesLikeDistilledOnes () throws Exception {
+        final List<SourceCodeChange> changes = distill( path( LEFT ), path( RIGHT ) );
+        final List<SourceCodeChange> decoded = SourceCodeChangeCodec
+                .decode( SourceCodeChangeCodec.encode( changes ) );
+        for ( int i = 0; i < changes.size(); i++ ) {
+            for ( int j = 0; j < changes.size(); j++ ) {
+                assertThat( decoded.get( i ).getRootEntity() == decoded.get( j ).getRootEntity(),
+                        is( changes.get( i ).getRootEntity() == changes.get( j ).getRootEntity() ) );
+                assertThat( decoded.get( i ).getParentEntity() == decoded.get( j ).getParentEntity(),
+                        is( changes.get( i ).getParentEntity() == changes.get( j ).getParentEntity() ) );
+            }
+        }
+    }
+
+    @Test
+    public void cachedSummariesShouldEqualDistilledOnes () throws Exception {
+        final String left = CompilationUtils.getContent( LEFT );
+        final String right = CompilationUtils.getContent( RIGHT );
+        final MemoryResultCache cache = new MemoryResultCache( 8, new DiskResultCache( folder.getRoot() ) );
+        final ChangeSummary distilled = ChangeExtractor.extractChanges( left, "a/b/Test.java", right,
+                "a/b/Test.java", cache );
+        cache.clear();
+        final ChangeSummary cached = ChangeExtractor.extractChanges( left, "a/b/Other.java", right,
+                "a/b/Other.java", cache );
+        assertThat( cached.getFileName(), is( "Other.java" ) );
+        assertThat( describe( cached.getAllChanges() ), is( describe( distilled.getAllChanges() ) ) );
+        assertThat( cached.getBinnedChangesCounts(), is( distilled.getBinnedChangesCounts() ) );
+        assertThat( cached.getScore(), is( distilled.getScore() ) );
+    }
+
+    @Test
+    public void cachedPairsShouldNotBeDistilled () throws Exception {
+        final List<SourceCodeChange> stored = Collections.<SourceCodeChange> singletonList(
+                new Insert( null, new SourceCodeEntity( "Foo", JavaEntityType.CLASS, null ), null ) );
+        final ResultCache cache = new ResultCache() {
+
+            @Override
+            public List<SourceCodeChange> get ( final ResultKey key ) {
+                return stored;
+            }
+
+            @Override
+            public void put ( final ResultKey key, final List<SourceCodeChange> changes ) {
+                throw new AssertionError( "Cached pair distilled" );
+            }
+        };
+        final ChangeSummariesList batch = ChangeExtractor.extractBatch(
+                Collections.singletonList( new FilePair( path( LEFT ), path( RIGHT ) ) ),
+                BatchOptions.defaults().withResultCache( cache ) );
+        assertThat( batch.getFailures().isEmpty(), is( true ) );
+        assertThat( batch.getChanges().get( 0 ).getAllChanges(), is( stored ) );
+    }
+
+    @Test
+    public void keysShouldDependOnContentsVersionAndConfiguration () throws Exception {
+        final ResultKey key = ResultKey.of( "a", "b", "default", "JAVA:PRINTED:EAGER" );
+        assertThat( ResultKey.of( "a", "b", "default", "JAVA:PRINTED:EAGER" ), is( key ) );
+        assertThat( ResultKey.of( null, "b", "default", "JAVA:PRINTED:EAGER" ), is( not( key ) ) );
+        assertThat( ResultKey.of( "", "ab", "default", "JAVA:PRINTED:EAGER" ), is( not( key ) ) );
+        assertThat( ResultKey.of( "a", "b", "1.8", "JAVA:PRINTED:EAGER" ), is( not( key ) ) );
+        assertThat( ResultKey.of( "a", "b", "default", "JAVA:SOURCE_SLICE:EAGER" ), is( not( key ) ) );
+    }
+
+    @Test
+    public void configurationShouldDependOnOptionsThatAffectChanges () throws Exception {
+        final String configuration = configuration( DistillerOptions.defaults() );
+        assertThat( configuration( DistillerOptions.defaults().withValueStyle( NodeValueStyle.SOURCE_SLICE ) ),
+                is( not( configuration ) ) );
+        assertThat( configuration( DistillerOptions.defaults().withBodyParsing( BodyParsing.LAZY ) ),
+                is( not( configuration ) ) );
+        assertThat( configuration( DistillerOptions.defaults().withDiffPrefilter( DiffPrefilter.LINES ) ),
+                is( configuration ) );
+    }
+
+    @Test
+    public void memoryCacheShouldEvictLeastRecentlyUsedResults () throws Exception {
+        final MemoryResultCache cache = new MemoryResultCache( 2 );
+        final List<SourceCodeChange> changes = distill( path( LEFT ), path( RIGHT ) );
+        cache.put( key( 1 ), changes );
+        cache.put( key( 2 ), changes );
+        cache.get( key( 1 ) );
+        cache.put( key( 3 ), changes );
+        assertThat( cache.size(), is( 2 ) );
+        assertThat( cache.get( key( 2 ) ), is( nullValue() ) );
+        assertThat( describe( cache.get( key( 1 ) ) ), is( describe( changes ) ) );
+        assertThat( cache.get( key( 1 ) ), is( not( sameInstance( cache.get( key( 1 ) ) ) ) ) );
+    }
+
+    @Test
+    public void diskCacheShouldKeepResultsAcrossRuns () throws Exception {
+        final List<SourceCodeChange> changes = distill( path( LEFT ), path( RIGHT ) );
+        try ( DiskResultCache cache = new DiskResultCache( folder.getRoot(), 1 ) ) {
+            for ( int i = 0; i < 3; i++ ) {
+                cache.put( key( i ), changes );
+            }
+            assertThat( cache.getSegmentCount(), is( 3 ) );
+        }
+        try ( DiskResultCache cache = new DiskResultCache( folder.getRoot(), 1 ) ) {
+            assertThat( cache.size(), is( 3 ) );
+            for ( int i = 0; i < 3; i++ ) {
+                assertThat( describe( cache.get( key( i ) ) ), is( describe( changes ) ) );
+            }
+            assertThat( cache.get( key( 3 ) ), is( nullValue() ) );
+        }
+    }
+
+    @Test
+    public void diskCacheShouldIgnorePartiallyWrittenResults () throws Exception {
+        final List<SourceCodeChange> changes = distill( path( LEFT ), path( RIGHT ) );
+        try ( DiskResultCache cache = new DiskResultCache( folder.getRoot() ) ) {
+            cache.put( key( 1 ), changes );
+        }
+        try ( OutputStream index = new FileOutputStream( new File( folder.getRoot(), "index" ), true ) ) {
+            index.write( new byte[] { 1, 2, 3 } );
+        }
+        try ( OutputStream segment = new FileOutputStream( new File( folder.getRoot(), "segment-00000" ), true ) ) {
+            segment.write( new byte[] { 4, 5, 6 } );
+        }
+        try ( DiskResultCache cache = new DiskResultCache( folder.getRoot() ) ) {
+            assertThat( cache.size(), is( 1 ) );
+            cache.put( key( 2 ), changes );
+        }
+        try ( DiskResultCache cache = new DiskResultCache( folder.getRoot() ) ) {
+            assertThat( describe( cache.get( key( 1 ) ) ), is( describe( changes ) ) );
+            assertThat( describe( cache.get( key( 2 ) ) ), is( describe( changes ) ) );
+        }
+    }
+
+    @Test
+    public void diskCacheShouldRewriteCorruptedResults () throws Exception {
+        final List<SourceCodeChange> changes = distill( path( LEFT ), path( RIGHT ) );
+        try ( DiskResultCache cache = new DiskResultCache( folder.getRoot() ) ) {
+            cache.put( key( 1 ), changes );
+        }
+        try ( RandomAccessFile segment = new RandomAccessFile( new File( folder.getRoot(), "segment-00000" ), "rw" ) ) {
+            segment.seek( segment.length() - 1 );
+            final int last = segment.read();
+            segment.seek( segment.length() - 1 );
+            segment.write( last ^ 0xff );
+        }
+        try ( DiskResultCache cache = new DiskResultCache( folder.getRoot() ) ) {
+            assertThat( cache.get( key( 1 ) ), is( nullValue() ) );
+            assertThat( cache.size(), is( 0 ) );
+            cache.put( key( 1 ), changes );
+            assertThat( describe( cache.get( key( 1 ) ) ), is( describe( changes ) ) );
+        }
+        try ( DiskResultCache cache = new DiskResultCache( folder.getRoot() ) ) {
+            assertThat( describe( cache.get( key( 1 ) ) ), is( describe( changes ) ) );
+        }
+    }
+
+    private static List<SourceCodeChange> distill ( final String left, final String right ) {
+        return ChangeDistiller.getDistillationEngine( Language.JAVA ).distill( new File( left ), new File( right ) )
+                .getSourceCodeChanges();
+    }
+
+    private static ResultKey key ( final int i ) {
+        return ResultKey.of( "left" + i, "right" + i, "default", "test" );
+    }
+
+    private static String describe ( final List<SourceCodeChange> changes ) {
+        final List<String> lines = new ArrayList<String>();
+        for ( final SourceCodeChange change : changes ) {
+            final StringBuilder line = new StringBuilder();
+            line.append( change ).append( ' ' ).append( change.getChangeType() ).append( ' ' )
+                    .append( change.getSignificanceLevel() ).append( ' ' ).append( change.getLabel() ).append( ' ' )
+                    .append( describe( change.getChangedEntity() ) ).append( ' ' )
+                    .append( describe( change.getParentEntity() ) ).append( ' ' )
+                    .append( describe( change.getRootEntity() ) );
+            if ( change instanceof Update ) {
+                line.append( ' ' ).append( describe( ( (Update) change ).getNewEntity() ) );
+            }
+            if ( change instanceof Move ) {
+                line.append( ' ' ).append( describe( ( (Move) change ).getNewEntity() ) ).append( ' ' )
+                        .append( describe( ( (Move) change ).getNewParentEntity() ) );
+            }
+            lines.add( line.toString() );
+        }
+        return String.join( "\n", lines );
+    }
+
+    private static String describe ( final SourceCodeEntity entity ) {
+        if ( entity == null ) {
+            return "null";
+        }
+        final StringBuilder description = new StringBuilder( "[" ).append( entity ).append( ' ' )
+                .append( entity.getModifiers() ).append( ' ' ).append( entity.getSourceRange() );
+        for ( final SourceCodeEntity associated : entity.getAssociatedEntities() ) {
+            description.append( ' ' ).append( associated ).append( ' ' ).append( associated.getSourceRange() );
+        }
+        return description.append( ']' ).toString();
+    }
+
+    private static String describe ( final StructureEntityVersion entity ) {
+        if ( entity == null ) {
+            return "null";
+        }
+        return "[" + entity.getType() + " " + entity.getLabel() + " " + entity.getModifiers() + " "
+                + entity.getSignificanceLevel() + " " + entity.getSourceCodeChanges().size() + "]";
+    }
+
+    private static String configuration ( final DistillerOptions options ) {
+        return ChangeDistiller.createDistillationEngine( Language.JAVA, options ).getConfiguration();
+    }
+
+    private static String path ( final String name ) {
+        return CompilationUtils.getFile( name ).getPath();
+    }
+
+}
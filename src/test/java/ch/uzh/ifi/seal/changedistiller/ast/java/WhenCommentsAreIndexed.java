@@ -0,0 +1,74 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.ast.java.Comment.CommentType;
+
+public class WhenCommentsAreIndexed {
+
+    private Comment fFirst;
+    private Comment fSecond;
+    private Comment fThird;
+
+    @Before
+    public void setup() {
+        fFirst = new Comment(CommentType.LINE_COMMENT, 10, 20, "// first");
+        fSecond = new Comment(CommentType.BLOCK_COMMENT, 30, 40, "/* second */");
+        fThird = new Comment(CommentType.LINE_COMMENT, 50, 60, "// third");
+    }
+
+    @Test
+    public void commentsShouldBeTakenInSourceOrder() throws Exception {
+        CommentIndex index = new CommentIndex(Arrays.asList(fThird, fFirst, fSecond));
+        assertThat(index.take(0, 100), is(sameInstance(fFirst)));
+        assertThat(index.take(0, 100), is(sameInstance(fSecond)));
+        assertThat(index.take(0, 100), is(sameInstance(fThird)));
+        assertThat(index.isEmpty(), is(true));
+    }
+
+    @Test
+    public void boundsShouldBeExclusive() throws Exception {
+        CommentIndex index = new CommentIndex(Arrays.asList(fFirst, fSecond, fThird));
+        assertThat(index.take(10, 50), is(sameInstance(fSecond)));
+        assertThat(index.take(10, 50), is(nullValue()));
+        assertThat(index.size(), is(2));
+    }
+
+    @Test
+    public void takenCommentsShouldBeSkipped() throws Exception {
+        CommentIndex index = new CommentIndex(Arrays.asList(fFirst, fSecond, fThird));
+        assertThat(index.take(20, 35), is(sameInstance(fSecond)));
+        assertThat(index.take(0, 100), is(sameInstance(fFirst)));
+        assertThat(index.take(0, 100), is(sameInstance(fThird)));
+        assertThat(index.take(0, 100), is(nullValue()));
+    }
+
+}
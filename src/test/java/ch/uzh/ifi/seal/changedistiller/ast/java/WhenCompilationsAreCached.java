@@ -0,0 +1,95 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.ast.java.JavaCompilationCache.ParsedSource;
+
+public class WhenCompilationsAreCached {
+
+    private static final String SOURCE = "public class Foo {\n    // a comment\n    void foo() {\n        a();\n    }\n}";
+
+    private JavaCompilationCache fCache;
+
+    @Before
+    public void setup() {
+        fCache = new JavaCompilationCache(2);
+    }
+
+    @Test
+    public void equalContentShouldBeParsedOnce() throws Exception {
+        ParsedSource first = fCache.get(SOURCE, "Foo.java", ClassFileConstants.JDK1_8);
+        ParsedSource second = fCache.get(new String(SOURCE), "Bar.java", ClassFileConstants.JDK1_8);
+        assertThat(second, is(sameInstance(first)));
+        assertThat(fCache.size(), is(1));
+    }
+
+    @Test
+    public void differentJavaVersionShouldBeParsedAgain() throws Exception {
+        ParsedSource first = fCache.get(SOURCE, "Foo.java", ClassFileConstants.JDK1_8);
+        ParsedSource second = fCache.get(SOURCE, "Foo.java", ClassFileConstants.JDK11);
+        assertThat(second, is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void leastRecentlyUsedSourceShouldBeEvicted() throws Exception {
+        ParsedSource first = fCache.get(SOURCE, "Foo.java", ClassFileConstants.JDK1_8);
+        fCache.get(SOURCE + " ", "Foo.java", ClassFileConstants.JDK1_8);
+        fCache.get(SOURCE + "  ", "Foo.java", ClassFileConstants.JDK1_8);
+        assertThat(fCache.size(), is(2));
+        assertThat(fCache.get(SOURCE, "Foo.java", ClassFileConstants.JDK1_8), is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void consumedCommentsShouldNotAffectLaterLookups() throws Exception {
+        List<Comment> comments = fCache.get(SOURCE, "Foo.java", ClassFileConstants.JDK1_8).getComments();
+        assertThat(comments.size(), is(1));
+        comments.clear();
+        assertThat(fCache.get(SOURCE, "Foo.java", ClassFileConstants.JDK1_8).getComments().size(), is(1));
+    }
+
+    @Test
+    public void eachCompilationShouldHaveItsOwnScanner() throws Exception {
+        ParsedSource parsed = fCache.get(SOURCE, "Foo.java", ClassFileConstants.JDK1_8);
+        JavaCompilation first = parsed.getCompilation();
+        JavaCompilation second = parsed.getCompilation();
+        assertThat(second.getCompilationUnit(), is(sameInstance(first.getCompilationUnit())));
+        assertThat(second.getScanner(), is(not(sameInstance(first.getScanner()))));
+        assertThat(second.getSource(), is(SOURCE));
+    }
+
+    @Test
+    public void structureTreeShouldBeShared() throws Exception {
+        ParsedSource parsed = fCache.get(SOURCE, "Foo.java", ClassFileConstants.JDK1_8);
+        assertThat(parsed.getStructureTree(), is(sameInstance(parsed.getStructureTree())));
+    }
+
+}
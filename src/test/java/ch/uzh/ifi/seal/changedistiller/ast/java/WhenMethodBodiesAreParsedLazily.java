@@ -0,0 +1,128 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.eclipse.jdt.internal.compiler.ast.AbstractMethodDeclaration;
+import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller;
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller.Language;
+import ch.uzh.ifi.seal.changedistiller.ast.java.JavaCompilationCache.ParsedSource;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillationEngine;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillerOptions;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureDifferencer;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.java.JavaStructureNode;
+import ch.uzh.ifi.seal.changedistiller.util.CompilationUtils;
+
+public class WhenMethodBodiesAreParsedLazily {
+
+    private static final String LEFT = "public class Foo {\n    static { new Object() { void init() {} }; }\n"
+            + "    void a() { a1(); }\n    void b() { new Runnable() { public void run() { b1(); } }; }\n}";
+    private static final String RIGHT = LEFT.replace("b1();", "b2();");
+
+    @Test
+    public void unchangedMethodsShouldNotBeParsed() throws Exception {
+        ParsedSource left = parse(LEFT);
+        ParsedSource right = parse(RIGHT);
+        new StructureDifferencer().extractDifferences(left.getStructureTree(), right.getStructureTree());
+        assertThat(findMethod(left, "a").statements, is(nullValue()));
+        assertThat(findMethod(right, "a").statements, is(nullValue()));
+        assertThat(findMethod(left, "b").statements, is(notNullValue()));
+        assertThat(findMethod(right, "b").statements, is(notNullValue()));
+    }
+
+    @Test
+    public void initializersShouldBeParsedWithTheSource() throws Exception {
+        TypeDeclaration type = parse(LEFT).getCompilation().getCompilationUnit().types[0];
+        assertThat(type.fields[0].toString().contains("init()"), is(true));
+    }
+
+    @Test
+    public void loadedStructureTreeShouldEqualEagerOne() throws Exception {
+        JavaStructureNode lazy = parse(RIGHT).getStructureTree();
+        JavaStructureNode eager = new JavaCompilationCache(0).get(RIGHT, "Foo.java", ClassFileConstants.JDK1_8)
+                .getStructureTree();
+        assertThat(print(lazy), is(print(eager)));
+    }
+
+    @Test
+    public void changesShouldEqualEagerOnes() throws Exception {
+        assertSameChanges(CompilationUtils.getContent("src_change/TestLeft.java"),
+                CompilationUtils.getContent("src_change/TestRight.java"));
+    }
+
+    @Test
+    public void sourceWithSyntaxErrorOutsideOfBodiesShouldBeParsedFully() throws Exception {
+        String source = RIGHT.replace("void a()", "void a(");
+        ParsedSource lazy = parse(source);
+        ParsedSource eager = new JavaCompilationCache(0).get(source, "Foo.java", ClassFileConstants.JDK1_8);
+        assertThat(print(lazy.getStructureTree()), is(print(eager.getStructureTree())));
+        assertThat(lazy.hasBodySyntaxError(), is(false));
+    }
+
+    @Test
+    public void syntaxErrorInChangedBodyShouldBeDetected() throws Exception {
+        ParsedSource left = parse(LEFT);
+        ParsedSource right = parse(LEFT.replace("a1();", "a2(;"));
+        new StructureDifferencer().extractDifferences(left.getStructureTree(), right.getStructureTree());
+        assertThat(left.hasBodySyntaxError(), is(false));
+        assertThat(right.hasBodySyntaxError(), is(true));
+    }
+
+    @Test
+    public void changesWithSyntaxErrorsShouldEqualEagerOnes() throws Exception {
+        assertSameChanges(LEFT, LEFT.replace("a1();", "a2(;"));
+        assertSameChanges(LEFT.replace("a1();", "a1(;"), RIGHT.replace("void a()", "void a("));
+    }
+
+    private static void assertSameChanges(String left, String right) {
+        DistillationEngine lazy = ChangeDistiller.createDistillationEngine(Language.JAVA,
+                DistillerOptions.defaults().withBodyParsing(BodyParsing.LAZY));
+        DistillationEngine eager = ChangeDistiller.getDistillationEngine(Language.JAVA);
+        assertThat(lazy.distill(left, "Test.java", right, "Test.java").getSourceCodeChanges().toString(),
+                is(eager.distill(left, "Test.java", right, "Test.java").getSourceCodeChanges().toString()));
+    }
+
+    private static ParsedSource parse(String source) {
+        return new JavaCompilationCache(0, DistillerOptions.defaults().withBodyParsing(BodyParsing.LAZY)).get(source,
+                "Foo.java", ClassFileConstants.JDK1_8);
+    }
+
+    private static AbstractMethodDeclaration findMethod(ParsedSource parsed, String name) {
+        return CompilationUtils.findMethod(parsed.getCompilation().getCompilationUnit(), name);
+    }
+
+    private static String print(JavaStructureNode node) {
+        StringBuilder out = new StringBuilder(node.toString()).append(" {");
+        for (JavaStructureNode child : node.getChildren()) {
+            out.append(print(child));
+        }
+        return out.append('}').toString();
+    }
+
+}
@@ -0,0 +1,99 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.eclipse.jdt.internal.compiler.ast.AbstractMethodDeclaration;
+import org.eclipse.jdt.internal.compiler.lookup.ClassScope;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.JavaChangeDistillerModule;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillerOptions;
+import ch.uzh.ifi.seal.changedistiller.model.classifiers.java.JavaEntityType;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.Node;
+import ch.uzh.ifi.seal.changedistiller.util.CompilationUtils;
+
+import com.google.inject.Guice;
+
+public class WhenNodeValuesAreSliced {
+
+    private static JavaMethodBodyConverter sMethodBodyConverter;
+
+    @BeforeClass
+    public static void initialize() {
+        DistillerOptions options = DistillerOptions.defaults().withValueStyle(NodeValueStyle.SOURCE_SLICE);
+        sMethodBodyConverter = Guice.createInjector(new JavaChangeDistillerModule(options)).getInstance(
+                JavaMethodBodyConverter.class);
+    }
+
+    @Test
+    public void commentsShouldBeStrippedAndWhitespaceCollapsed() throws Exception {
+        assertThat(convert("foo(a, /* b */\n        c); // d\n").getValue(), is("foo(a, c);"));
+    }
+
+    @Test
+    public void literalsShouldBeKeptVerbatim() throws Exception {
+        assertThat(convert("foo(\"a  /* b */  // c\", ' ');").getValue(), is("foo(\"a  /* b */  // c\", ' ');"));
+    }
+
+    @Test
+    public void parenthesesShouldNotBeAdded() throws Exception {
+        assertThat(convert("a = b + c * d;").getValue(), is("a = b + c * d;"));
+    }
+
+    @Test
+    public void localDeclarationShouldKeepTypeArguments() throws Exception {
+        Node root = convertAll("java.util.Map<String, int[]> a = null, b;");
+        assertThat(((Node) root.getChildAt(0)).getValue(), is("java.util.Map<String, int[]> a = null;"));
+        assertThat(((Node) root.getChildAt(1)).getValue(), is("java.util.Map<String, int[]> b;"));
+    }
+
+    @Test
+    public void forInitializerShouldBeSlicedLikeDeclaration() throws Exception {
+        Node forStatement = convert("for (int i = 0; i < 10; i++) {}");
+        assertThat(forStatement.getLabel(), is(JavaEntityType.FOR_STATEMENT));
+        assertThat(forStatement.getValue(), is("i < 10"));
+        assertThat(((Node) forStatement.getChildAt(0)).getValue(), is("int i = 0;"));
+    }
+
+    @Test
+    public void conditionShouldBeSlicedWithoutStatementParentheses() throws Exception {
+        assertThat(convert("if (a  ==  b) {}").getValue(), is("a == b"));
+    }
+
+    private Node convert(String snippet) {
+        return (Node) convertAll(snippet).getFirstChild();
+    }
+
+    private Node convertAll(String snippet) {
+        JavaCompilation compilation = CompilationUtils.compileSource("public class Foo { void method() { " + snippet
+                + " } }");
+        AbstractMethodDeclaration method = CompilationUtils.findMethod(compilation.getCompilationUnit(), "method");
+        Node root = new Node(JavaEntityType.METHOD, "method");
+        sMethodBodyConverter.initialize(root, method, null, compilation.getScanner());
+        method.traverse(sMethodBodyConverter, (ClassScope) null);
+        return root;
+    }
+
+}
@@ -12,9 +12,13 @@ package ch.uzh.ifi.seal.changedistiller.ast.java;
  * governing permissions and limitations under the License. #L%
  */
 
+import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.jdt.internal.compiler.ast.FieldDeclaration;
 import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
 import org.eclipse.jdt.internal.compiler.lookup.ClassScope;
@@ -26,6 +30,7 @@ import ch.uzh.ifi.seal.changedistiller.distilling.WhenChangesAreExtracted;
 import ch.uzh.ifi.seal.changedistiller.model.classifiers.ChangeType;
 import ch.uzh.ifi.seal.changedistiller.model.classifiers.SourceRange;
 import ch.uzh.ifi.seal.changedistiller.model.classifiers.java.JavaEntityType;
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
 import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeEntity;
 import ch.uzh.ifi.seal.changedistiller.model.entities.StructureEntityVersion;
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.Node;
@@ -772,6 +777,20 @@ public class WhenSourceCodeChangesAreClassified extends WhenChangesAreExtracted
         assertThat( getResultingChangeType(), is( ChangeType.STATEMENT_UPDATE ) );
     }
 
+    @Test
+    public void simultaneousSignatureChangesShouldBePairedSeparately () throws Exception {
+        fLeftSnippet = createSourceCode( "public int signatureChanges(int a) {}" );
+        fRightSnippet = createSourceCode( "private String signatureChanges(int b) {}" );
+        extractMethodDeclarationChanges( "signatureChanges" );
+        final List<ChangeType> changeTypes = new ArrayList<ChangeType>();
+        for ( final SourceCodeChange change : structureEntity.getSourceCodeChanges() ) {
+            changeTypes.add( change.getChangeType() );
+        }
+        assertThat( changeTypes, hasItems( ChangeType.DECREASING_ACCESSIBILITY_CHANGE, ChangeType.RETURN_TYPE_CHANGE,
+                ChangeType.PARAMETER_RENAMING ) );
+        assertThat( changeTypes.size(), is( 3 ) );
+    }
+
     private ChangeType getResultingChangeType () {
         return structureEntity.getSourceCodeChanges().get( 0 ).getChangeType();
     }
@@ -0,0 +1,74 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.ast.java.JavaTokenComparator.Difference;
+
+public class WhenSourcesAreComparedByTokens {
+
+    private static final String SOURCE = "class Foo {\n    /** Does a. */\n    void a() {\n        a1(); // call\n"
+            + "    }\n}\n";
+
+    @Test
+    public void equalSourcesShouldBeIdentical() throws Exception {
+        assertThat(compare(SOURCE, new StringBuilder(SOURCE)), is(Difference.IDENTICAL));
+    }
+
+    @Test
+    public void reformattedSourcesShouldDifferInFormatting() throws Exception {
+        String right = "class Foo {\r\n/** Does a. */ void a() { a1();   // call\n} }";
+        assertThat(compare(SOURCE, right), is(Difference.FORMATTING));
+    }
+
+    @Test
+    public void sourcesWithChangedCommentsShouldDifferInComments() throws Exception {
+        assertThat(compare(SOURCE, SOURCE.replace("// call", "/* calls a1 */")), is(Difference.COMMENTS));
+        assertThat(compare(SOURCE, SOURCE.replace(" // call", "")), is(Difference.COMMENTS));
+        assertThat(compare(SOURCE, SOURCE.replace("class Foo", "// Foo\nclass Foo")), is(Difference.COMMENTS));
+    }
+
+    @Test
+    public void sourcesWithChangedJavadocShouldDifferInCode() throws Exception {
+        assertThat(compare(SOURCE, SOURCE.replace("Does a.", "Does a1.")), is(Difference.CODE));
+    }
+
+    @Test
+    public void sourcesWithChangedCodeShouldDifferInCode() throws Exception {
+        assertThat(compare(SOURCE, SOURCE.replace("a1();", "a2();")), is(Difference.CODE));
+        assertThat(compare(SOURCE, SOURCE.replace("// call", "// call\n        a2();")), is(Difference.CODE));
+        assertThat(compare(SOURCE, SOURCE.replace("}\n}\n", "}\n")), is(Difference.CODE));
+    }
+
+    @Test
+    public void unscannableSourcesShouldDifferInCode() throws Exception {
+        assertThat(compare(SOURCE, SOURCE.replace("// call", "\"call")), is(Difference.CODE));
+    }
+
+    private static Difference compare(CharSequence left, CharSequence right) {
+        return JavaTokenComparator.compare(left, right, "1.8");
+    }
+
+}
@@ -0,0 +1,94 @@
+package ch.uzh.ifi.seal.changedistiller.ast.java;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.eclipse.jdt.internal.compiler.ast.AbstractMethodDeclaration;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller;
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller.Language;
+import ch.uzh.ifi.seal.changedistiller.ast.java.JavaCompilationCache.ParsedSource;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillationEngine;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillerOptions;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.StructureDifferencer;
+import ch.uzh.ifi.seal.changedistiller.structuredifferencing.java.JavaLineDiffPrefilter;
+import ch.uzh.ifi.seal.changedistiller.util.CompilationUtils;
+
+public class WhenSourcesArePrefiltered {
+
+    private static final String LEFT = "public class Foo {\n    void a() {\n        a1();\n    }\n\n"
+            + "    void b() {\n        b1();\n    }\n}\n";
+
+    @Test
+    public void methodsAfterInsertedLinesShouldNotBeParsed() throws Exception {
+        String right = LEFT.replace("public class Foo {\n", "public class Foo {\n    int x;\n\n").replace("b1();",
+                "b2();");
+        ParsedSource left = parse(LEFT);
+        ParsedSource changed = parse(right);
+        new StructureDifferencer(new JavaLineDiffPrefilter(LEFT.toCharArray(), right.toCharArray()))
+                .extractDifferences(left.getStructureTree(), changed.getStructureTree());
+        assertThat(findMethod(left, "a").statements, is(nullValue()));
+        assertThat(findMethod(changed, "a").statements, is(nullValue()));
+        assertThat(findMethod(left, "b").statements, is(notNullValue()));
+        assertThat(findMethod(changed, "b").statements, is(notNullValue()));
+    }
+
+    @Test
+    public void reformattedMethodsShouldNotBeReported() throws Exception {
+        String right = "\n" + LEFT.replace("    void b() {\n        b1();\n    }", "    void b() { b1(); }");
+        assertThat(distill(prefilteredEngine(), LEFT, right), is("[]"));
+    }
+
+    @Test
+    public void changesShouldEqualThoseWithoutPrefilter() throws Exception {
+        String left = CompilationUtils.getContent("src_change/TestLeft.java");
+        String right = CompilationUtils.getContent("src_change/TestRight.java");
+        assertThat(distill(prefilteredEngine(), left, right),
+                is(distill(ChangeDistiller.getDistillationEngine(Language.JAVA), left, right)));
+    }
+
+    private static DistillationEngine prefilteredEngine() {
+        return ChangeDistiller.createDistillationEngine(Language.JAVA, createOptions());
+    }
+
+    private static DistillerOptions createOptions() {
+        return DistillerOptions.defaults().withBodyParsing(BodyParsing.LAZY).withDiffPrefilter(DiffPrefilter.LINES);
+    }
+
+    private static String distill(DistillationEngine engine, String left, String right) {
+        return engine.distill(left, "Foo.java", right, "Foo.java").getSourceCodeChanges().toString();
+    }
+
+    private static ParsedSource parse(String source) {
+        return new JavaCompilationCache(0, createOptions()).get(source, "Foo.java", ClassFileConstants.JDK1_8);
+    }
+
+    private static AbstractMethodDeclaration findMethod(ParsedSource parsed, String name) {
+        return CompilationUtils.findMethod(parsed.getCompilation().getCompilationUnit(), name);
+    }
+
+}
@@ -0,0 +1,108 @@
+package ch.uzh.ifi.seal.changedistiller.distilling;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2013 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller;
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller.Language;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Phase;
+import ch.uzh.ifi.seal.changedistiller.metrics.MetricsRegistry;
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
+
+public class WhenAccessorsAreDistilled {
+
+    private static final String LEFT = "public class Foo {\n    private int x;\n}";
+
+    private static final String COMMENTED_ACCESSORS = "public class Foo {\n    private int x;\n"
+            + "    public int getX() {\n        // the current x\n        return x;\n    }\n"
+            + "    public void setX(int x) {\n        /* the new x */\n        this.x = x;\n    }\n}";
+
+    private MetricsRegistry fRegistry;
+
+    @Before
+    public void setup () {
+        fRegistry = new MetricsRegistry();
+    }
+
+    @Test
+    public void simpleAccessorsShouldBeSkipped () throws Exception {
+        final List<String> changes = distill( "public class Foo {\n    private int x;\n"
+                + "    public int getX() { return x; }\n    public void setX(int x) { this.x = x; }\n}" );
+        assertThat( changes.isEmpty(), is( true ) );
+    }
+
+    @Test
+    public void accessorsWithMoreStatementsShouldBeReported () throws Exception {
+        final List<String> changes = distill( "public class Foo {\n    private int x;\n"
+                + "    public int getX() { log(); return x; }\n}" );
+        assertThat( changes.contains( "UNCLASSIFIED_CHANGE log();" ), is( true ) );
+        assertThat( changes.contains( "UNCLASSIFIED_CHANGE return x;" ), is( true ) );
+    }
+
+    @Test
+    public void bodyOfAddedAccessorShouldBeBuiltOnce () throws Exception {
+        distill( "public class Foo {\n    private int x;\n    public int getX() { log(); return x; }\n}" );
+        // both declaration trees of the class and the body of the accessor
+        assertThat( fRegistry.getCount( Phase.TREE_BUILD ), is( 3L ) );
+    }
+
+    // the body trees of the accessor checks are reused, so comments are reported like any other statement
+    @Test
+    public void commentsOfAddedAccessorsShouldBeInserted () throws Exception {
+        final List<String> comments = describeComments( extractChanges( LEFT, COMMENTED_ACCESSORS ) );
+        assertThat( comments, is( Arrays.asList( "Insert LINE_COMMENT // the current x",
+                "Insert BLOCK_COMMENT /* the new x */" ) ) );
+    }
+
+    @Test
+    public void commentsOfDeletedAccessorsShouldBeDeleted () throws Exception {
+        final List<String> comments = describeComments( extractChanges( COMMENTED_ACCESSORS, LEFT ) );
+        assertThat( comments, is( Arrays.asList( "Delete LINE_COMMENT // the current x",
+                "Delete BLOCK_COMMENT /* the new x */" ) ) );
+    }
+
+    private List<String> distill ( final String right ) {
+        final List<String> strings = new ArrayList<String>();
+        for ( final SourceCodeChange change : extractChanges( LEFT, right ) ) {
+            strings.add( change.getChangeType() + " " + change.getChangedEntity().getUniqueName() );
+        }
+        return strings;
+    }
+
+    private List<SourceCodeChange> extractChanges ( final String left, final String right ) {
+        return ChangeDistiller.createDistillationEngine( Language.JAVA,
+                DistillerOptions.defaults().withMetrics( fRegistry ) ).distill( left, "Foo.java", right, "Foo.java" )
+                .getSourceCodeChanges();
+    }
+
+    private List<String> describeComments ( final List<SourceCodeChange> changes ) {
+        final List<String> strings = new ArrayList<String>();
+        for ( final SourceCodeChange change : changes ) {
+            if ( change.getChangedEntity().getType().isComment() ) {
+                strings.add( change.getClass().getSimpleName() + " " + change.getChangedEntity().getType() + " "
+                        + change.getChangedEntity().getUniqueName() );
+            }
+        }
+        return strings;
+    }
+
+}
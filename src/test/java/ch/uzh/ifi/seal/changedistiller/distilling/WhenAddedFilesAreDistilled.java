@@ -0,0 +1,74 @@
+package ch.uzh.ifi.seal.changedistiller.distilling;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2013 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import static ch.uzh.ifi.seal.changedistiller.util.CompilationUtils.getContent;
+import static ch.uzh.ifi.seal.changedistiller.util.CompilationUtils.getFile;
+import static ch.uzh.ifi.seal.changedistiller.util.CompilationUtils.toStrings;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller;
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller.Language;
+import ch.uzh.ifi.seal.changedistiller.model.classifiers.java.JavaEntityType;
+import ch.uzh.ifi.seal.changedistiller.model.entities.Insert;
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
+
+public class WhenAddedFilesAreDistilled {
+
+    private static final String RIGHT = "src_change/TestRight.java";
+
+    @Test
+    public void addedClassShouldBeReportedAsInserted () throws Exception {
+        final FileDistiller distiller = ChangeDistiller.createFileDistiller( Language.JAVA );
+        distiller.extractClassifiedSourceCodeChanges( null, "Test.java", getContent( RIGHT ), "Test.java" );
+        final List<SourceCodeChange> changes = distiller.getSourceCodeChanges();
+        final SourceCodeChange last = changes.get( changes.size() - 1 );
+        assertThat( last instanceof Insert, is( true ) );
+        assertThat( last.getChangedEntity().getType(), is( (Object) JavaEntityType.CLASS ) );
+        assertThat( last.getChangedEntity().getUniqueName(), is( "test.Test" ) );
+    }
+
+    @Test
+    public void missingLeftFileShouldNotBeCreated () throws Exception {
+        final File missing = new File( "target/missing/Test.java" );
+        final FileDistiller distiller = ChangeDistiller.createFileDistiller( Language.JAVA );
+        distiller.extractClassifiedSourceCodeChanges( missing, getFile( RIGHT ) );
+        assertThat( missing.exists(), is( false ) );
+        assertThat( missing.getParentFile().exists(), is( false ) );
+        assertThat( distiller.getSourceCodeChanges().isEmpty(), is( false ) );
+    }
+
+    @Test
+    public void missingLeftFileShouldBeDistilledLikeMissingLeftSource () throws Exception {
+        final FileDistiller fromFile = ChangeDistiller.createFileDistiller( Language.JAVA );
+        fromFile.extractClassifiedSourceCodeChanges( new File( "target/missing/Test.java" ), getFile( RIGHT ) );
+        final FileDistiller fromSource = ChangeDistiller.createFileDistiller( Language.JAVA );
+        fromSource.extractClassifiedSourceCodeChanges( null, "Test.java", getContent( RIGHT ), "Test.java" );
+        assertThat( toStrings( fromSource.getSourceCodeChanges() ),
+                is( toStrings( fromFile.getSourceCodeChanges() ) ) );
+    }
+
+    @Test
+    public void addedFileWithoutTypesShouldHaveNoChanges () throws Exception {
+        final FileDistiller distiller = ChangeDistiller.createFileDistiller( Language.JAVA );
+        distiller.extractClassifiedSourceCodeChanges( null, "Empty.java", "import java.util.List;", "Empty.java" );
+        assertThat( distiller.getSourceCodeChanges().isEmpty(), is( true ) );
+    }
+
+}
@@ -0,0 +1,89 @@
+package ch.uzh.ifi.seal.changedistiller.distilling;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2013 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import static ch.uzh.ifi.seal.changedistiller.util.CompilationUtils.getFile;
+import static ch.uzh.ifi.seal.changedistiller.util.CompilationUtils.toStrings;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller;
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller.Language;
+
+public class WhenDistillationEngineIsShared {
+
+    private static final String LEFT  = "src_change/TestLeft.java";
+    private static final String RIGHT = "src_change/TestRight.java";
+
+    @Test
+    public void engineShouldBeCreatedOnce () throws Exception {
+        assertThat( ChangeDistiller.getDistillationEngine( Language.JAVA ),
+                is( sameInstance( ChangeDistiller.getDistillationEngine( Language.JAVA ) ) ) );
+    }
+
+    @Test
+    public void resultShouldBeTheSameAsTheOneOfFileDistiller () throws Exception {
+        final FileDistiller distiller = ChangeDistiller.createFileDistiller( Language.JAVA );
+        distiller.extractClassifiedSourceCodeChanges( getFile( LEFT ), getFile( RIGHT ) );
+        final DistillationResult result = distill( LEFT, RIGHT );
+        assertThat( toStrings( result.getSourceCodeChanges() ), is( toStrings( distiller.getSourceCodeChanges() ) ) );
+        assertThat( result.getClassHistory().getUniqueName(), is( distiller.getClassHistory().getUniqueName() ) );
+    }
+
+    @Test ( expected = UnsupportedOperationException.class )
+    public void resultShouldNotBeModifiable () throws Exception {
+        distill( LEFT, RIGHT ).getSourceCodeChanges().clear();
+    }
+
+    @Test
+    public void concurrentDistillationsShouldNotInterfere () throws Exception {
+        final List<String> expected = toStrings( distill( LEFT, RIGHT ).getSourceCodeChanges() );
+        final List<String> expectedReverse = toStrings( distill( RIGHT, LEFT ).getSourceCodeChanges() );
+        final ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try {
+            final List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+            for ( int i = 0; i < 16; i++ ) {
+                final boolean reverse = i % 2 == 1;
+                results.add( executor.submit( new Callable<List<String>>() {
+
+                    @Override
+                    public List<String> call () throws Exception {
+                        final DistillationResult result = reverse ? distill( RIGHT, LEFT ) : distill( LEFT, RIGHT );
+                        return toStrings( result.getSourceCodeChanges() );
+                    }
+                } ) );
+            }
+            for ( int i = 0; i < results.size(); i++ ) {
+                assertThat( results.get( i ).get(), is( i % 2 == 1 ? expectedReverse : expected ) );
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DistillationResult distill ( final String left, final String right ) {
+        return ChangeDistiller.getDistillationEngine( Language.JAVA ).distill( getFile( left ), getFile( right ) );
+    }
+
+}
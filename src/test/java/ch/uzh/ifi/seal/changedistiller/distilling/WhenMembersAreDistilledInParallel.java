@@ -0,0 +1,83 @@
+package ch.uzh.ifi.seal.changedistiller.distilling;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2013 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import static ch.uzh.ifi.seal.changedistiller.util.CompilationUtils.getFile;
+import static ch.uzh.ifi.seal.changedistiller.util.CompilationUtils.toStrings;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller;
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller.Language;
+
+public class WhenMembersAreDistilledInParallel {
+
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void initialize () {
+        executor = Executors.newFixedThreadPool( 4 );
+    }
+
+    @AfterClass
+    public static void shutdown () {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void changesShouldBeTheSameAsSequentialOnes () throws Exception {
+        assertSameChanges( "src_change/TestLeft.java", "src_change/TestRight.java" );
+        assertSameChanges( "src_change/InnerClass.java-old", "src_change/InnerClass.java-new" );
+        assertSameChanges( "src_issue/32/jEditLeft.java", "src_issue/32/jEditRight.java" );
+        assertSameChanges( "src_issue/21/ASTConverterLeft.java", "src_issue/21/ASTConverterRight.java" );
+    }
+
+    @Test
+    public void classHistoryShouldBeTheSameAsSequentialOne () throws Exception {
+        final FileDistiller sequential = distill( "src_change/TestLeft.java", "src_change/TestRight.java", false );
+        final FileDistiller parallel = distill( "src_change/TestLeft.java", "src_change/TestRight.java", true );
+        assertThat( parallel.getClassHistory().getMethodHistories().keySet(),
+                is( sequential.getClassHistory().getMethodHistories().keySet() ) );
+        assertThat( parallel.getClassHistory().getAttributeHistories().keySet(),
+                is( sequential.getClassHistory().getAttributeHistories().keySet() ) );
+        assertThat( parallel.getClassHistory().getInnerClassHistories().keySet(),
+                is( sequential.getClassHistory().getInnerClassHistories().keySet() ) );
+    }
+
+    private void assertSameChanges ( final String left, final String right ) {
+        final List<String> sequential = toStrings( distill( left, right, false ).getSourceCodeChanges() );
+        final List<String> parallel = toStrings( distill( left, right, true ).getSourceCodeChanges() );
+        assertThat( parallel, is( sequential ) );
+    }
+
+    private FileDistiller distill ( final String left, final String right, final boolean parallel ) {
+        final FileDistiller distiller = ChangeDistiller.createFileDistiller( Language.JAVA );
+        if ( parallel ) {
+            distiller.setExecutor( executor );
+        }
+        final File leftFile = getFile( left );
+        final File rightFile = getFile( right );
+        distiller.extractClassifiedSourceCodeChanges( leftFile, rightFile );
+        return distiller;
+    }
+
+}
@@ -0,0 +1,65 @@
+package ch.uzh.ifi.seal.changedistiller.distilling;
+
+/*
+ * #%L ChangeDistiller %% Copyright (C) 2011 - 2013 Software Architecture and
+ * Evolution Lab, Department of Informatics, UZH %% Licensed under the Apache
+ * License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0 Unless required by applicable law
+ * or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import static ch.uzh.ifi.seal.changedistiller.util.CompilationUtils.getContent;
+import static ch.uzh.ifi.seal.changedistiller.util.CompilationUtils.getFile;
+import static ch.uzh.ifi.seal.changedistiller.util.CompilationUtils.toStrings;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.nio.CharBuffer;
+
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller;
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller.Language;
+
+public class WhenSourcesAreDistilledInMemory {
+
+    private static final String LEFT  = "src_change/TestLeft.java";
+    private static final String RIGHT = "src_change/TestRight.java";
+
+    @Test
+    public void resultShouldBeTheSameAsTheOneOfFiles () throws Exception {
+        final FileDistiller distiller = ChangeDistiller.createFileDistiller( Language.JAVA );
+        distiller.extractClassifiedSourceCodeChanges( getFile( LEFT ), getFile( RIGHT ) );
+        final FileDistiller inMemory = ChangeDistiller.createFileDistiller( Language.JAVA );
+        inMemory.extractClassifiedSourceCodeChanges( getContent( LEFT ), "a/Test.java", getContent( RIGHT ),
+                "b/Test.java" );
+        assertThat( toStrings( inMemory.getSourceCodeChanges() ), is( toStrings( distiller.getSourceCodeChanges() ) ) );
+        assertThat( inMemory.getClassHistory().getUniqueName(), is( distiller.getClassHistory().getUniqueName() ) );
+    }
+
+    @Test
+    public void logicalPathsShouldNotBeAccessed () throws Exception {
+        final File missing = new File( "does/not/exist/Test.java" );
+        final DistillationResult result = ChangeDistiller.getDistillationEngine( Language.JAVA ).distill(
+                getContent( LEFT ), missing.getPath(), getContent( RIGHT ), missing.getPath() );
+        assertThat( result.getSourceCodeChanges().isEmpty(), is( false ) );
+        assertThat( missing.exists(), is( false ) );
+    }
+
+    @Test
+    public void characterArraysShouldBeAccepted () throws Exception {
+        final DistillationResult fromStrings = ChangeDistiller.getDistillationEngine( Language.JAVA ).distill(
+                getContent( LEFT ), "Test.java", getContent( RIGHT ), "Test.java" );
+        final DistillationResult fromArrays = ChangeDistiller.getDistillationEngine( Language.JAVA ).distill(
+                CharBuffer.wrap( getContent( LEFT ).toCharArray() ), "Test.java",
+                CharBuffer.wrap( getContent( RIGHT ).toCharArray() ), "Test.java" );
+        assertThat( toStrings( fromArrays.getSourceCodeChanges() ),
+                is( toStrings( fromStrings.getSourceCodeChanges() ) ) );
+    }
+
+}
@@ -0,0 +1,122 @@
+package ch.uzh.ifi.seal.changedistiller.metrics;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller;
+import ch.uzh.ifi.seal.changedistiller.ChangeDistiller.Language;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillationEngine;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillationResult;
+import ch.uzh.ifi.seal.changedistiller.distilling.DistillerOptions;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Counter;
+import ch.uzh.ifi.seal.changedistiller.metrics.DistillerMetrics.Phase;
+import ch.uzh.ifi.seal.changedistiller.util.CompilationUtils;
+
+public class WhenDistillationMetricsAreRecorded {
+
+    private MetricsRegistry fRegistry;
+    private DistillationEngine fEngine;
+
+    @Before
+    public void setup() {
+        fRegistry = new MetricsRegistry();
+        fEngine = ChangeDistiller.createDistillationEngine(Language.JAVA,
+                DistillerOptions.defaults().withMetrics(fRegistry));
+    }
+
+    @Test
+    public void everyPhaseShouldBeTimed() throws Exception {
+        distill();
+        for (Phase phase : Phase.values()) {
+            assertThat(phase.toString(), fRegistry.getCount(phase), is(greaterThan(0L)));
+        }
+        assertThat(fRegistry.getCount(Phase.PARSE), is(2L));
+    }
+
+    @Test
+    public void everyCounterShouldBeCounted() throws Exception {
+        distill();
+        for (Counter counter : Counter.values()) {
+            assertThat(counter.toString(), fRegistry.getCount(counter), is(greaterThan(0L)));
+        }
+    }
+
+    @Test
+    public void metricsShouldNotChangeResult() throws Exception {
+        DistillationResult expected = ChangeDistiller.getDistillationEngine(Language.JAVA).distill(
+                CompilationUtils.getFile("src_change/TestLeft.java"),
+                CompilationUtils.getFile("src_change/TestRight.java"));
+        assertThat(distill().getSourceCodeChanges().toString(), is(expected.getSourceCodeChanges().toString()));
+    }
+
+    @Test
+    public void durationsShouldBeBinnedByPowersOfTwo() throws Exception {
+        fRegistry.endPhase(Phase.MATCH, System.nanoTime() + 1000000L);
+        long[] histogram = fRegistry.getHistogram(Phase.MATCH);
+        assertThat(histogram[0], is(1L));
+        MetricsRegistry registry = new MetricsRegistry();
+        long start = registry.startPhase();
+        registry.endPhase(Phase.MATCH, start - 1000);
+        int bin = 64 - Long.numberOfLeadingZeros(registry.getTotalNanos(Phase.MATCH));
+        assertThat(registry.getHistogram(Phase.MATCH)[bin], is(1L));
+        assertThat(1L << (bin - 1) <= registry.getTotalNanos(Phase.MATCH), is(true));
+    }
+
+    @Test
+    public void dumpShouldListPhasesAndCounters() throws Exception {
+        distill();
+        String dump = fRegistry.toString();
+        assertThat(dump, containsString("TREE_BUILD"));
+        assertThat(dump, containsString("LEAF_PAIRS_SCORED"));
+        fRegistry.reset();
+        assertThat(fRegistry.getCount(Phase.PARSE), is(0L));
+        assertThat(fRegistry.getCount(Counter.NODES_BUILT), is(0L));
+    }
+
+    @Test
+    public void sourcesDifferingInFormattingOnlyShouldNotBeParsed() throws Exception {
+        String left = "class Foo {\n    void a() {\n        a1(); // first\n    }\n}\n";
+        String right = "class Foo {\r\n  void a() { a1(); /* second */ }\r\n}";
+        DistillationResult result = fEngine.distill(left, "Foo.java", right, "Foo.java");
+        assertThat(result.getSourceCodeChanges().isEmpty(), is(true));
+        assertThat(fRegistry.getCount(Phase.TOKEN_COMPARE), is(1L));
+        assertThat(fRegistry.getCount(Phase.PARSE), is(0L));
+    }
+
+    @Test
+    public void noMetricsShouldBeDisabled() throws Exception {
+        assertThat(DistillerMetrics.NONE.isEnabled(), is(false));
+        assertThat(DistillerMetrics.NONE.startPhase(), is(0L));
+    }
+
+    private DistillationResult distill() {
+        return fEngine.distill(CompilationUtils.getFile("src_change/TestLeft.java"),
+                CompilationUtils.getFile("src_change/TestRight.java"));
+    }
+
+}
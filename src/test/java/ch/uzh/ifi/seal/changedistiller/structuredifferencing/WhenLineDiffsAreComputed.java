@@ -0,0 +1,99 @@
+package ch.uzh.ifi.seal.changedistiller.structuredifferencing;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class WhenLineDiffsAreComputed {
+
+    private static final String LEFT = "class Foo {\n    void a() {}\n    void b() {\n        b1();\n    }\n"
+            + "    void c() {}\n}\n";
+
+    @Test
+    public void rangesOfEqualSourcesShouldBeUnchanged() throws Exception {
+        LineDiff diff = LineDiff.of(LEFT.toCharArray(), LEFT.toCharArray());
+        assertThat(isUnchanged(diff, LEFT, LEFT, LEFT), is(true));
+        assertThat(isUnchanged(diff, LEFT, "void b() {\n        b1();\n    }", LEFT), is(true));
+    }
+
+    @Test
+    public void rangesOutsideOfChangedLinesShouldBeUnchanged() throws Exception {
+        String right = LEFT.replace("b1();", "b2();");
+        LineDiff diff = LineDiff.of(LEFT.toCharArray(), right.toCharArray());
+        assertThat(isUnchanged(diff, LEFT, "void a() {}", right), is(true));
+        assertThat(isUnchanged(diff, LEFT, "void c() {}", right), is(true));
+        assertThat(isUnchanged(diff, LEFT, "void b() {", right), is(true));
+        int start = LEFT.indexOf("void b()");
+        int end = LEFT.indexOf("void c()") - 1;
+        assertThat(diff.isUnchanged(start, end, start, end), is(false));
+    }
+
+    @Test
+    public void rangesAfterInsertedLinesShouldBeUnchanged() throws Exception {
+        String right = LEFT.replace("    void c() {}\n", "    void x() {}\n\n    void c() {}\n");
+        LineDiff diff = LineDiff.of(LEFT.toCharArray(), right.toCharArray());
+        assertThat(isUnchanged(diff, LEFT, "void c() {}", right), is(true));
+        assertThat(isUnchanged(diff, LEFT, "void b() {\n        b1();\n    }", right), is(true));
+    }
+
+    @Test
+    public void rangesAroundInsertedLinesShouldNotBeUnchanged() throws Exception {
+        String right = LEFT.replace("        b1();\n", "        b1();\n\n");
+        LineDiff diff = LineDiff.of(LEFT.toCharArray(), right.toCharArray());
+        assertThat(isUnchanged(diff, LEFT, "void a() {}", right), is(true));
+        assertThat(isUnchanged(diff, LEFT, "b1();", right), is(true));
+        assertThat(isUnchanged(diff, LEFT, "void c() {}", right), is(true));
+        int start = LEFT.indexOf("void b()");
+        int end = LEFT.indexOf("void c()") - 1;
+        assertThat(diff.isUnchanged(start, end, right.indexOf("void b()"), right.indexOf("void b()") + end - start),
+                is(false));
+    }
+
+    @Test
+    public void movedLinesShouldNotBeUnchanged() throws Exception {
+        String right = "class Foo {\n    void c() {}\n    void a() {}\n    void b() {\n        b1();\n    }\n}\n";
+        LineDiff diff = LineDiff.of(LEFT.toCharArray(), right.toCharArray());
+        assertThat(isUnchanged(diff, LEFT, "void a() {}", right), is(true));
+        assertThat(isUnchanged(diff, LEFT, "void c() {}", right), is(false));
+    }
+
+    @Test
+    public void shiftedRangesShouldNotBeUnchanged() throws Exception {
+        LineDiff diff = LineDiff.of(LEFT.toCharArray(), LEFT.toCharArray());
+        int start = LEFT.indexOf("void a()");
+        assertThat(diff.isUnchanged(start, start + 5, start + 1, start + 6), is(false));
+        assertThat(diff.isUnchanged(start, start + 5, start, start + 6), is(false));
+    }
+
+    private static boolean isUnchanged(LineDiff diff, String left, String range, String right) {
+        int leftStart = left.indexOf(range);
+        int rightStart = right.indexOf(range);
+        if (rightStart < 0) {
+            return false;
+        }
+        return diff.isUnchanged(leftStart, leftStart + range.length() - 1, rightStart,
+                rightStart + range.length() - 1);
+    }
+
+}
@@ -164,6 +164,45 @@ public class WhenStructureDifferencesAreExtracted {
         assertThat(changedMethod.getRight().getName(), is("method()"));
     }
 
+    @Test
+    public void formattingAndCommentChangesShouldReturnNoChangesWithContentHashes() throws Exception {
+        fLeft = createHashedStructureTree("public class Foo { String fName; void method(int a) { a = 24; } }");
+        fRight = createHashedStructureTree("public class Foo {\n  // the name\n  String fName;\n"
+                + "  void method(int a) {\n    a = 24; /* why */\n  }\n}");
+        createDifferences();
+        assertThat(fDiffs, is(nullValue()));
+    }
+
+    @Test
+    public void changedMethodShouldBeFoundWithContentHashes() throws Exception {
+        fLeft = createHashedStructureTree("public class Foo { void method(int a) { a = 24; } void other() {} }");
+        fRight = createHashedStructureTree("public class Foo { void method(int a) { a = 21; } void other() {} }");
+        createDifferences();
+        StructureDiffNode changedMethod = fDiffs.getChildren().get(0).getChildren().get(0);
+        assertThat(fDiffs.getChildren().get(0).getChildren().size(), is(1));
+        assertThat(changedMethod.getDiffType(), is(DiffType.CHANGE));
+        assertThat(changedMethod.getLeft().getName(), is("method(int)"));
+    }
+
+    @Test
+    public void changedJavadocShouldBeFoundWithContentHashes() throws Exception {
+        fLeft = createHashedStructureTree("public class Foo { /** @param a first */ void method(int a, int b) {} }");
+        fRight = createHashedStructureTree("public class Foo { /** @param b second */ void method(int a, int b) {} }");
+        createDifferences();
+        StructureDiffNode changedMethod = fDiffs.getChildren().get(0).getChildren().get(0);
+        assertThat(changedMethod.getDiffType(), is(DiffType.CHANGE));
+    }
+
+    private JavaStructureNode createHashedStructureTree(String source) {
+        JavaCompilation compilation = CompilationUtils.compileSource(source);
+        CompilationUnitDeclaration cu = compilation.getCompilationUnit();
+        JavaStructureNode root = new JavaStructureNode(Type.CU, null, null, cu);
+        cu.traverse(
+                new JavaStructureTreeBuilder(root, source.toCharArray(), compilation.getScanner().sourceLevel),
+                (CompilationUnitScope) null);
+        return root;
+    }
+
     private JavaStructureNode createStructureTree(String source) {
         JavaCompilation compilation = CompilationUtils.compileSource(source);
         CompilationUnitDeclaration cu = compilation.getCompilationUnit();
@@ -23,6 +23,8 @@ package ch.uzh.ifi.seal.changedistiller.structuredifferencing.java;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.util.List;
+
 import org.eclipse.jdt.internal.compiler.ast.CompilationUnitDeclaration;
 import org.eclipse.jdt.internal.compiler.lookup.CompilationUnitScope;
 import org.junit.Test;
@@ -174,6 +176,64 @@ public class WhenJavaStructureTreesAreBuilt {
         assertThat(methodNode.getFullyQualifiedName(), is("org.foo.Clazz.method(String,int)"));
     }
 
+    @Test
+    public void contentHashShouldIgnoreFormattingAndComments() throws Exception {
+        JavaStructureNode method = createHashedStructureTree("class Clazz { void method() { a(); } }");
+        JavaStructureNode formattedMethod = createHashedStructureTree(
+                "class Clazz {\n  // calls a\n  void method() {\n    a( /* now */ );\n  }\n}");
+        assertThat(method.hasContentHash(), is(true));
+        assertThat(formattedMethod.getContentHash(), is(method.getContentHash()));
+    }
+
+    @Test
+    public void contentHashShouldDifferForDifferentTokens() throws Exception {
+        JavaStructureNode method = createHashedStructureTree("class Clazz { void method() { a(); } }");
+        JavaStructureNode changedMethod = createHashedStructureTree("class Clazz { void method() { b(); } }");
+        assertThat(changedMethod.getContentHash() == method.getContentHash(), is(false));
+    }
+
+    @Test
+    public void defaultConstructorShouldHaveNoContentHash() throws Exception {
+        fSnippet = "class Clazz {}";
+        JavaCompilation compilation = CompilationUtils.compileSource(fSnippet);
+        fRoot = new JavaStructureNode(Type.CU, null, null, compilation.getCompilationUnit());
+        compilation.getCompilationUnit().traverse(
+                new JavaStructureTreeBuilder(fRoot, fSnippet.toCharArray(), compilation.getScanner().sourceLevel),
+                (CompilationUnitScope) null);
+        JavaStructureNode classNode = fRoot.getChildren().get(0);
+        assertThat(classNode.hasContentHash(), is(true));
+        assertThat(classNode.getChildren().get(0).getType(), is(Type.CONSTRUCTOR));
+        assertThat(classNode.getChildren().get(0).hasContentHash(), is(false));
+    }
+
+    @Test
+    public void contentHashesOnDemandShouldEqualScannedOnes() throws Exception {
+        fSnippet = "class Clazz { /** doc */ int fField = 1; @Deprecated void method() { a(); } }";
+        List<JavaStructureNode> scanned = createStructureTree(fSnippet, false).getChildren();
+        List<JavaStructureNode> onDemand = createStructureTree(fSnippet, true).getChildren();
+        for (int i = 0; i < scanned.size(); i++) {
+            assertThat(onDemand.get(i).hasContentHash(), is(scanned.get(i).hasContentHash()));
+            assertThat(onDemand.get(i).getContentHash(), is(scanned.get(i).getContentHash()));
+        }
+    }
+
+    private JavaStructureNode createStructureTree(String source, boolean hashOnDemand) {
+        JavaCompilation compilation = CompilationUtils.compileSource(source);
+        JavaStructureNode root = new JavaStructureNode(Type.CU, null, null, compilation.getCompilationUnit());
+        compilation.getCompilationUnit().traverse(new JavaStructureTreeBuilder(root, source.toCharArray(),
+                compilation.getScanner().sourceLevel, null, hashOnDemand), (CompilationUnitScope) null);
+        return root.getChildren().get(0);
+    }
+
+    private JavaStructureNode createHashedStructureTree(String source) {
+        JavaCompilation compilation = CompilationUtils.compileSource(source);
+        JavaStructureNode root = new JavaStructureNode(Type.CU, null, null, compilation.getCompilationUnit());
+        compilation.getCompilationUnit().traverse(
+                new JavaStructureTreeBuilder(root, source.toCharArray(), compilation.getScanner().sourceLevel),
+                (CompilationUnitScope) null);
+        return root.getChildren().get(0).getChildren().get(1);
+    }
+
     private void createStructureTree() {
         JavaCompilation compilation = CompilationUtils.compileSource(fSnippet);
         CompilationUnitDeclaration cu = compilation.getCompilationUnit();
@@ -0,0 +1,95 @@
+package ch.uzh.ifi.seal.changedistiller.treedifferencing;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.model.classifiers.java.JavaEntityType;
+
+public class WhenNodeMatchingsAreIndexed extends TreeDifferencingTestCase {
+
+    @Test
+    public void partnersShouldBeFoundInBothDirections() throws Exception {
+        Node left = addToLeft(JavaEntityType.METHOD_INVOCATION, "foo();");
+        Node right = addToRight(JavaEntityType.METHOD_INVOCATION, "foo();");
+        NodeMatching matching = new NodeMatching();
+        matching.add(new NodePair(left, right));
+        assertThat(matching.getRight(left), is(sameInstance(right)));
+        assertThat(matching.getLeft(right), is(sameInstance(left)));
+        assertThat(matching.contains(left, right), is(true));
+        assertThat(matching.contains(right, left), is(false));
+    }
+
+    @Test
+    public void nodesWithEqualValuesShouldBeDistinguished() throws Exception {
+        Node left = addToLeft(JavaEntityType.METHOD_INVOCATION, "foo();");
+        Node otherLeft = addToLeft(JavaEntityType.METHOD_INVOCATION, "foo();");
+        Node right = addToRight(JavaEntityType.METHOD_INVOCATION, "foo();");
+        NodeMatching matching = new NodeMatching();
+        matching.add(new NodePair(left, right));
+        assertThat(matching.getRight(otherLeft), is(nullValue()));
+        assertThat(matching.contains(new NodePair(otherLeft, right)), is(false));
+    }
+
+    @Test
+    public void pairMembershipShouldRespectPairType() throws Exception {
+        Node left = addToLeft(JavaEntityType.METHOD_INVOCATION, "foo();");
+        Node right = addToRight(JavaEntityType.METHOD_INVOCATION, "foo();");
+        NodeMatching matching = new NodeMatching();
+        matching.add(new LeafPair(left, right));
+        assertThat(matching.contains(new LeafPair(left, right)), is(true));
+        assertThat(matching.contains(new NodePair(left, right)), is(false));
+    }
+
+    @Test
+    public void addingPairShouldReplacePreviousPartners() throws Exception {
+        Node left = addToLeft(JavaEntityType.METHOD_INVOCATION, "foo();");
+        Node right = addToRight(JavaEntityType.METHOD_INVOCATION, "foo();");
+        Node otherRight = addToRight(JavaEntityType.METHOD_INVOCATION, "bar();");
+        NodeMatching matching = new NodeMatching();
+        matching.add(new NodePair(left, right));
+        matching.add(new NodePair(left, otherRight));
+        assertThat(matching.size(), is(1));
+        assertThat(matching.getLeft(right), is(nullValue()));
+        assertThat(matching.getLeft(otherRight), is(sameInstance(left)));
+    }
+
+    @Test
+    public void removedPairsShouldBeRemovedFromBothIndexes() throws Exception {
+        Node left = addToLeft(JavaEntityType.METHOD_INVOCATION, "foo();");
+        Node right = addToRight(JavaEntityType.METHOD_INVOCATION, "foo();");
+        NodeMatching matching = new NodeMatching();
+        matching.add(new NodePair(left, right));
+        Iterator<NodePair> it = matching.iterator();
+        it.next();
+        it.remove();
+        assertThat(matching.isEmpty(), is(true));
+        assertThat(matching.getLeft(right), is(nullValue()));
+    }
+
+}
@@ -0,0 +1,96 @@
+package ch.uzh.ifi.seal.changedistiller.treedifferencing;
+
+/*
+ * #%L
+ * ChangeDistiller
+ * %%
+ * Copyright (C) 2011 - 2026 Software Architecture and Evolution Lab, Department of Informatics, UZH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import ch.uzh.ifi.seal.changedistiller.model.classifiers.java.JavaEntityType;
+import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.ChawatheCalculator;
+
+public class WhenNodesAreNumbered extends TreeDifferencingTestCase {
+
+    @Test
+    public void nodesShouldBeNumberedInPreOrder() throws Exception {
+        Node ifStatement = addToLeft(JavaEntityType.IF_STATEMENT, "a");
+        Node invocation = addToNode(ifStatement, JavaEntityType.METHOD_INVOCATION, "foo();");
+        Node returnStatement = addToLeft(JavaEntityType.RETURN_STATEMENT, "return;");
+        fRootLeft.numberNodes();
+        assertThat(fRootLeft.getPreOrderIndex(), is(0));
+        assertThat(ifStatement.getPreOrderIndex(), is(1));
+        assertThat(invocation.getPreOrderIndex(), is(2));
+        assertThat(returnStatement.getPreOrderIndex(), is(3));
+        assertThat(ifStatement.getSubtreeEnd(), is(2));
+        assertThat(fRootLeft.getSubtreeEnd(), is(3));
+    }
+
+    @Test
+    public void descendantsShouldBeDeterminedByNumbering() throws Exception {
+        Node ifStatement = addToLeft(JavaEntityType.IF_STATEMENT, "a");
+        Node invocation = addToNode(ifStatement, JavaEntityType.METHOD_INVOCATION, "foo();");
+        Node returnStatement = addToLeft(JavaEntityType.RETURN_STATEMENT, "return;");
+        fRootLeft.numberNodes();
+        assertThat(ifStatement.isNumberedDescendant(invocation), is(true));
+        assertThat(ifStatement.isNumberedDescendant(returnStatement), is(false));
+        assertThat(invocation.isNumberedDescendant(ifStatement), is(false));
+        assertThat(fRootLeft.isNumberedDescendant(returnStatement), is(true));
+    }
+
+    @Test
+    public void commentsShouldNotBeCountedAsLeaves() throws Exception {
+        Node ifStatement = addToLeft(JavaEntityType.IF_STATEMENT, "a");
+        addToNode(ifStatement, JavaEntityType.METHOD_INVOCATION, "foo();");
+        addToNode(ifStatement, JavaEntityType.LINE_COMMENT, "// foo");
+        addToLeft(JavaEntityType.RETURN_STATEMENT, "return;");
+        fRootLeft.numberNodes();
+        assertThat(ifStatement.getNonCommentLeafCount(), is(1));
+        assertThat(fRootLeft.getNonCommentLeafCount(), is(2));
+    }
+
+    @Test
+    public void numberingShouldNotChangeChawatheSimilarity() throws Exception {
+        Node ifLeft = addToLeft(JavaEntityType.IF_STATEMENT, "a");
+        Node fooLeft = addToNode(ifLeft, JavaEntityType.METHOD_INVOCATION, "foo();");
+        addToNode(ifLeft, JavaEntityType.LINE_COMMENT, "// foo");
+        Node barLeft = addToNode(ifLeft, JavaEntityType.METHOD_INVOCATION, "bar();");
+        Node ifRight = addToRight(JavaEntityType.IF_STATEMENT, "a");
+        Node fooRight = addToNode(ifRight, JavaEntityType.METHOD_INVOCATION, "foo();");
+        Node barRight = addToRight(JavaEntityType.METHOD_INVOCATION, "bar();");
+        Set<NodePair> matching = new HashSet<NodePair>();
+        matching.add(new LeafPair(fooLeft, fooRight));
+        matching.add(new LeafPair(barLeft, barRight));
+        ChawatheCalculator calculator = new ChawatheCalculator();
+        calculator.setLeafMatchSet(matching);
+        double similarity = calculator.calculateSimilarity(ifLeft, ifRight);
+        assertThat(similarity, is(0.5));
+        fRootLeft.numberNodes();
+        fRootRight.numberNodes();
+        assertThat(calculator.calculateSimilarity(ifLeft, ifRight), is(similarity));
+        calculator.setLeafMatchSet(new NodeMatching(matching));
+        assertThat(calculator.calculateSimilarity(ifLeft, ifRight), is(similarity));
+    }
+
+}
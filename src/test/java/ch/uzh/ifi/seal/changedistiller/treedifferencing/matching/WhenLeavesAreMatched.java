@@ -90,6 +90,40 @@ public class WhenLeavesAreMatched extends WhenTreeNodesAreMatched {
         assertLeavesAreMatched(methodInvocationLeft, methodInvocationRight);
     }
 
+    @Test
+    public void duplicatedUnchangedLeavesShouldMatchInOrder() throws Exception {
+        Node firstLeft = addToLeft(METHOD_INVOCATION, "foo.bar();");
+        Node secondLeft = addToLeft(METHOD_INVOCATION, "foo.bar();");
+        Node firstRight = addToRight(METHOD_INVOCATION, "foo.bar();");
+        Node secondRight = addToRight(METHOD_INVOCATION, "foo.bar();");
+        createMatchSet();
+        assertLeavesAreMatched(firstLeft, firstRight);
+        assertLeavesAreMatched(secondLeft, secondRight);
+    }
+
+    @Test
+    public void leafWithUnchangedPartnerShouldNotMatchSimilarLeaf() throws Exception {
+        Node methodInvocationLeft = addToLeft(METHOD_INVOCATION, "foo.bar();");
+        Node similarLeft = addToLeft(METHOD_INVOCATION, "foo.bear();");
+        Node similarRight = addToRight(METHOD_INVOCATION, "foo.bear();");
+        Node methodInvocationRight = addToRight(METHOD_INVOCATION, "foo.bar();");
+        createMatchSet();
+        assertLeavesAreMatched(methodInvocationLeft, methodInvocationRight);
+        assertLeavesAreMatched(similarLeft, similarRight);
+        assertLeavesAreNotMatched(methodInvocationLeft, similarRight);
+    }
+
+    @Test
+    public void leafShouldMatchFirstOfEquallySimilarLeaves() throws Exception {
+        // "aab" and "aaab" share all their bigrams, so both right leaves are as similar as can be
+        Node methodInvocationLeft = addToLeft(METHOD_INVOCATION, "aab");
+        Node similarRight = addToRight(METHOD_INVOCATION, "aaab");
+        Node identicalRight = addToRight(METHOD_INVOCATION, "aab");
+        createMatchSet();
+        assertLeavesAreMatched(methodInvocationLeft, similarRight);
+        assertLeavesAreNotMatched(methodInvocationLeft, identicalRight);
+    }
+
     private void assertLeavesAreMatched(Node left, Node right) {
         assertThat(fMatchSet, hasItem(new LeafPair(left, right)));
     }
@@ -22,7 +22,11 @@ package ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
 
+import java.util.Random;
+
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.LevenshteinSimilarityCalculator;
@@ -46,6 +50,68 @@ public class WhenStringSimilarityByLevenshteinIsCalculated {
         assertThat(getSimilarity(sa1, sa3), is((2d) / 11d));
     }
 
+    @Test
+    public void distanceShouldBeTheSameAsTheDynamicProgrammingOne() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            String left = createRandomString(random);
+            String right = mutate(left, random);
+            int distance = StringUtils.getLevenshteinDistance(left, right);
+            assertThat(fLevenshtein.calculateDistance(left, right), is(distance));
+        }
+    }
+
+    @Test
+    public void similarityReachingTheThresholdShouldBeExact() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            String left = createRandomString(random);
+            String right = mutate(left, random);
+            double threshold = random.nextDouble();
+            double similarity = getSimilarity(left, right);
+            double boundedSimilarity = fLevenshtein.calculateSimilarity(left, right, threshold);
+            if (similarity >= threshold) {
+                assertThat(boundedSimilarity, is(similarity));
+            } else {
+                assertThat(boundedSimilarity, is(lessThan(threshold)));
+            }
+        }
+    }
+
+    @Test
+    public void boundedDistanceShouldStopAtMaximum() throws Exception {
+        assertThat(fLevenshtein.calculateDistance("Levenshtein", "shteinLeven", 3), is(4));
+        assertThat(fLevenshtein.calculateDistance("Levenshtein", "shteinLeven", 8), is(8));
+    }
+
+    private static String createRandomString(Random random) {
+        // lengths around one and two words of the bit-parallel algorithm
+        int length = random.nextInt(200);
+        StringBuilder string = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            char base = random.nextInt(10) == 0 ? '\u00e0' : 'a';
+            string.append((char) (base + random.nextInt(4)));
+        }
+        return string.toString();
+    }
+
+    private static String mutate(String string, Random random) {
+        StringBuilder mutated = new StringBuilder(string);
+        int edits = random.nextInt(string.length() / 4 + 2);
+        for (int i = 0; i < edits; i++) {
+            int pos = random.nextInt(mutated.length() + 1);
+            int operation = random.nextInt(3);
+            if ((operation == 0) || (pos == mutated.length())) {
+                mutated.insert(pos, (char) ('a' + random.nextInt(5)));
+            } else if (operation == 1) {
+                mutated.deleteCharAt(pos);
+            } else {
+                mutated.setCharAt(pos, (char) ('a' + random.nextInt(5)));
+            }
+        }
+        return mutated.toString();
+    }
+
     private Double getSimilarity(String sa1, String sa2) {
         return fLevenshtein.calculateSimilarity(sa1, sa2);
     }
@@ -20,6 +20,14 @@ package ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure;
  * #L%
  */
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
 import ch.uzh.ifi.seal.changedistiller.treedifferencing.matching.measure.NGramsCalculator;
 
 public class WhenStringSimilarityByNGramsIsCalculated extends WhenStringSimilarityIsCalculated {
@@ -29,4 +37,38 @@ public class WhenStringSimilarityByNGramsIsCalculated extends WhenStringSimilari
         return new NGramsCalculator(2).calculateSimilarity(left, right);
     }
 
+    @Test
+    public void repeatedBigramsShouldBeCountedOnce() throws Exception {
+        assertThat(calculateSimilarity("aaaa", "aab"), is(diceCoefficient("aaaa", "aab")));
+    }
+
+    @Test
+    public void cachedBigramsShouldNotChangeSimilarity() throws Exception {
+        NGramsCalculator calculator = new NGramsCalculator(2);
+        String[] strings = {"a", "ab", "foo.bar();", "foo.baz();", "\uFFFF\u0001x", "x\uFFFF\u0001", "return a + b;"};
+        for (String left : strings) {
+            for (String right : strings) {
+                if (!left.equals(right)) {
+                    assertThat(calculator.calculateSimilarity(left, right), is(diceCoefficient(left, right)));
+                }
+            }
+        }
+    }
+
+    private static double diceCoefficient(String left, String right) {
+        Set<String> leftBigrams = bigrams(left);
+        Set<String> rightBigrams = bigrams(right);
+        int union = leftBigrams.size() + rightBigrams.size();
+        leftBigrams.retainAll(rightBigrams);
+        return leftBigrams.size() * 2.0 / union;
+    }
+
+    private static Set<String> bigrams(String string) {
+        Set<String> bigrams = new HashSet<String>();
+        for (int i = 0; i < string.length() - 1; i++) {
+            bigrams.add(string.substring(i, i + 2));
+        }
+        return bigrams;
+    }
+
 }
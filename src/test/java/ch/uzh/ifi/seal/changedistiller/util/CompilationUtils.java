@@ -23,6 +23,7 @@ package ch.uzh.ifi.seal.changedistiller.util;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.jdt.internal.compiler.CompilationResult;
@@ -40,9 +41,11 @@ import org.eclipse.jdt.internal.compiler.problem.DefaultProblemFactory;
 import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
 import org.eclipse.jdt.internal.core.util.CommentRecorderParser;
 
+import ch.uzh.ifi.seal.changedistiller.ast.FileUtils;
 import ch.uzh.ifi.seal.changedistiller.ast.java.Comment;
 import ch.uzh.ifi.seal.changedistiller.ast.java.CommentCollector;
 import ch.uzh.ifi.seal.changedistiller.ast.java.JavaCompilation;
+import ch.uzh.ifi.seal.changedistiller.model.entities.SourceCodeChange;
 
 public final class CompilationUtils {
 
@@ -163,4 +166,24 @@ public final class CompilationUtils {
         return new File(TEST_DATA_BASE_DIR + filename);
     }
 
+    public static String getContent(String filename) {
+        return FileUtils.getContent(getFile(filename));
+    }
+
+    /**
+     * Describes each change by its type, its changed entity and its parent entity, e.g., to compare the changes of two
+     * distillations.
+     *
+     * @param changes
+     *            to describe
+     * @return the descriptions of the changes
+     */
+    public static List<String> toStrings(List<SourceCodeChange> changes) {
+        List<String> strings = new ArrayList<String>();
+        for (SourceCodeChange change : changes) {
+            strings.add(change.getChangeType() + " " + change + " in " + change.getParentEntity());
+        }
+        return strings;
+    }
+
 }